@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import model.Board;
+import model.Game;
+import model.Tile;
+import util.ColourCompare;
+
+/**
+ * Benchmarks of the move checks of the board. Every invocation sweeps one position of the
+ * corpus: every field, every tile in the hand of the player to move and every rotation.
+ * @author pmbos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+	@Param({"EARLY", "MID", "LATE"})
+	public Positions.Phase phase;
+	private Board[] boards;
+	private Tile[][] hands;
+	private int next;
+
+	/**
+	 * Creates the positions of the phase.
+	 */
+	@Setup
+	public void setUp() {
+		Game[] games = Positions.create(phase);
+		boards = new Board[games.length];
+		hands = new Tile[games.length][];
+		for (int i = 0; i < games.length; i++) {
+			boards[i] = games[i].getBoard();
+			List<Tile> hand = games[i].getCurrentPlayer().getHand();
+			hands[i] = hand.toArray(new Tile[0]);
+		}
+		next = 0;
+	}
+
+	/**
+	 * @return the index of the next position to sweep.
+	 */
+	private int next() {
+		next = (next + 1) % boards.length;
+		return next;
+	}
+
+	@Benchmark
+	public void isValidMove(Blackhole hole) {
+		int position = next();
+		Board board = boards[position];
+		for (int index = 0; index < Board.MAX_FIELDS; index++) {
+			for (Tile tile : hands[position]) {
+				for (int rotation = 0; rotation < 3; rotation++) {
+					hole.consume(board.isValidMove(tile, index, rotation));
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public void edges(Blackhole hole) {
+		Board board = boards[next()];
+		for (int index = 0; index < Board.MAX_FIELDS; index++) {
+			hole.consume(board.edges(index));
+		}
+	}
+
+	@Benchmark
+	public void checkPermutation(Blackhole hole) {
+		int position = next();
+		Board board = boards[position];
+		for (int index = 0; index < Board.MAX_FIELDS; index++) {
+			for (Tile tile : hands[position]) {
+				for (int rotation = 0; rotation < 3; rotation++) {
+					hole.consume(ColourCompare.checkPermutation(tile, index, board, rotation));
+				}
+			}
+		}
+	}
+}
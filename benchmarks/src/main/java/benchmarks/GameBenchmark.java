@@ -0,0 +1,112 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Bag;
+import model.Board;
+import model.ComputerPlayer;
+import model.Game;
+import model.Player;
+import model.Tile;
+import strategies.StupidStrategy;
+
+/**
+ * Benchmarks of the per-turn work of players, the bag and the game. Every invocation
+ * works on the next position of the corpus, as the player to move.
+ * @author pmbos
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class GameBenchmark {
+	@Param({"EARLY", "MID", "LATE"})
+	public Positions.Phase phase;
+	private Game[] games;
+	private Board[] boards;
+	private Player[] players;
+	private StupidStrategy[] strategies;
+	private Bag bag;
+	private Player dealt;
+	private int next;
+
+	/**
+	 * Creates the positions of the phase and a strategy for the player to move in each.
+	 */
+	@Setup
+	public void setUp() {
+		games = Positions.create(phase);
+		boards = new Board[games.length];
+		players = new Player[games.length];
+		strategies = new StupidStrategy[games.length];
+		for (int i = 0; i < games.length; i++) {
+			boards[i] = games[i].getBoard();
+			players[i] = games[i].getCurrentPlayer();
+			strategies[i] = new StupidStrategy(players[i]);
+		}
+		bag = games[0].getBag();
+		dealt = new ComputerPlayer("dealt", 2);
+		next = 0;
+	}
+
+	/**
+	 * @return the index of the next position to use.
+	 */
+	private int next() {
+		next = (next + 1) % games.length;
+		return next;
+	}
+
+	@Benchmark
+	public boolean hasPlay() {
+		int position = next();
+		return players[position].hasPlay(boards[position]);
+	}
+
+	@Benchmark
+	public Object getPlays() {
+		int position = next();
+		return players[position].getPlays(boards[position]);
+	}
+
+	@Benchmark
+	public boolean gameOver() {
+		return games[next()].gameOver();
+	}
+
+	@Benchmark
+	public String determineMove() {
+		int position = next();
+		return strategies[position].determineMove(boards[position]);
+	}
+
+	/**
+	 * Deals a starting hand and puts the tiles back, so the bag is the same for every
+	 * invocation.
+	 * @return the number of tiles dealt.
+	 */
+	@Benchmark
+	public int dealHand() {
+		bag.dealHand(dealt, 4);
+		int size = dealt.numInHand();
+		for (Tile tile : dealt.getHand()) {
+			bag.add(tile);
+		}
+		dealt.getHand().clear();
+		return size;
+	}
+}
@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import exceptions.IllegalMove;
+import model.Game;
+import tournament.Contestant;
+import tournament.HeadlessGame;
+
+/**
+ * A class creating a fixed corpus of realistic positions to benchmark on, by letting two
+ * stupid strategies play seeded games until the board holds the number of tiles of a
+ * phase of the game. The same seed always gives the same positions.
+ * @author pmbos
+ */
+public final class Positions {
+	public static final int COUNT = 64;
+	public static final long SEED = 0x5BEC7A4A1E5L;
+
+	/**
+	 * The phases of a game, by the number of tiles on the board.
+	 */
+	public enum Phase {
+		EARLY(4), MID(14), LATE(24);
+
+		private final int tiles;
+
+		/**
+		 * @param tiles the number of tiles on the board in this phase.
+		 */
+		Phase(int tiles) {
+			this.tiles = tiles;
+		}
+
+		/**
+		 * @return the number of tiles on the board in this phase.
+		 */
+		/*@pure */public int getTiles() {
+			return tiles;
+		}
+	}
+
+	/**
+	 * Positions only has static members.
+	 */
+	private Positions() {
+	}
+
+	/**
+	 * Creates <code>COUNT</code> games in the given phase, with the current player to move.
+	 * Games that end before reaching the phase are left out.
+	 * @param phase the phase of the games.
+	 * @return the games.
+	 */
+	//@ensures \result.length == COUNT;
+	public static Game[] create(Phase phase) {
+		Contestant stupid = Contestant.parse(Contestant.STUPID);
+		List<Contestant> contestants = new ArrayList<>();
+		contestants.add(stupid);
+		contestants.add(stupid);
+
+		Game[] games = new Game[COUNT];
+		SplittableRandom random = new SplittableRandom(SEED);
+		int found = 0;
+		while (found < COUNT) {
+			HeadlessGame headless = new HeadlessGame(contestants, random.split());
+			Game game = headless.getGame();
+			headless.start();
+			try {
+				while (!game.gameOver()
+						&& Long.bitCount(game.getBoard().getOccupied()) < phase.getTiles()) {
+					headless.playTurn();
+				}
+			} catch (IllegalMove e) {
+				throw new IllegalStateException(e);
+			}
+			if (!game.gameOver()) {
+				games[found++] = game;
+			}
+		}
+		return games;
+	}
+}
@@ -1,10 +1,12 @@
 package client;
 
-import java.io.InputStreamReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -17,21 +19,31 @@ import model.ComputerPlayer;
 import model.Game;
 import model.HumanPlayer;
 import model.Player;
+import model.Strategy;
 import model.Tile;
+import strategies.SearchStrategy;
+import util.BinaryProtocol;
 import util.Protocol;
 
 /**
  * The class handling server communication.
+ * Messages are sent as lines, or as frames of <code>BinaryProtocol</code> once the server
+ * accepted that extension. Lines and frames are read from the same buffered stream, so
+ * nothing the server sent right after the connect accept is lost when the framing starts.
  * @author pmbos
  */
 public class Listener extends Thread {
-	private BufferedReader in;
+	private BufferedInputStream in;
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream();
 	private SpectrangleTUI ui;
 	private PrintWriter out;
+	private OutputStream frameOut;
+	private boolean binary = false;
 	private static Player player;
 	private List<Player> opponents;
 	private Socket socket;
 	private boolean gameOver = false;
+	private long sent = 0L;
 	
 	/**
 	 * Creates a new <code>Listener</code> with the given socket, ui and player.
@@ -41,8 +53,9 @@ public class Listener extends Thread {
 	 */
 	public Listener(Socket socket, SpectrangleTUI ui, Player player) {
 		try {
-			in = new BufferedReader(new InputStreamReader(socket.getInputStream())); 
+			in = new BufferedInputStream(socket.getInputStream());
 			out = new PrintWriter(socket.getOutputStream(), true);
+			frameOut = socket.getOutputStream();
 			Listener.player = player;
 			this.ui = ui;
 			this.socket = socket;
@@ -65,40 +78,43 @@ public class Listener extends Thread {
 	public void run() {
 		//Sending connect request;
 		out.println(constructConnectRequest());
+		//Closes the socket when the user exits, which ends the blocking read below.
+		Thread exitWatcher = new Thread(() -> {
+			try {
+				ui.awaitInputEnd();
+				socket.close();
+			} catch (InterruptedException | IOException e) {
+				//The listener ended first.
+			}
+		});
+		exitWatcher.setName("Exit watcher");
+		exitWatcher.setDaemon(true);
+		exitWatcher.start();
 		String input;
 		while (!gameOver) {
 			try {
-				int onRead = ' ';
-				while (!in.ready()) {
-					Thread.sleep(300);
-					if (!ui.isInputAlive()) {
-						throw new EndOfProgram("Exit confirmed...");
-					}
-					//Blocks for input from server. A check to confirm the server is still
-					//connected.
-					onRead = in.read();
-					if (onRead == -1) {
-						throw new EndOfProgram("Server disconected!");
-					}
+				//Blocks until the server sends a message; the end of the stream means the
+				//server disconnected.
+				input = binary ? BinaryProtocol.read(in) : readLine();
+				if (input == null) {
+					throw new EndOfProgram("Server disconected!");
 				}
-				//Reconstructs the original server message.
-				input = in.readLine();
-				if (onRead != ' ') {
-					input = (char) onRead + input;
+				if (!input.isEmpty()) {
+					interpret(input);
 				}
-				
-				interpret(input);
-				
 			} catch (IOException e) {
-				ui.writeError("Server disconnected!", "Listener");
+				if (ui.isInputAlive()) {
+					ui.writeError("Server disconnected!", "Listener");
+				} else {
+					ui.writeError(new EndOfProgram("Exit confirmed..."), "Listener");
+				}
 				break;
-			} catch (EndOfProgram e) {
+			} catch (EndOfProgram | NotOfProtocol e) {
 				ui.writeError(e, "Listener");				
 				break;
-			} catch (InterruptedException e) {
-				ui.writeError(e, "Listener");
 			}
 		}
+		exitWatcher.interrupt();
 		out.close();
 		try {
 			in.close();
@@ -122,8 +138,10 @@ public class Listener extends Thread {
 				ui.showConnected();
 				if (split.length == 2) {
 					SpectrangleClient.enableExtensions(split[1].toCharArray());
+					//Everything after the connect accept is framed, in both directions.
+					binary = split[1].indexOf(BinaryProtocol.EXTENSION) >= 0;
 				}
-				out.println(constructJoin());
+				send(constructJoin());
 				break;
 			case Protocol.GAMESTARTED:
 				//Notifies the user that the game has started.
@@ -136,8 +154,7 @@ public class Listener extends Thread {
 					for (String part : playerParts) {
 						//Fetches all the users tiles
 						if (Arrays.asList(playerParts).indexOf(part) < 4) {
-							Tile tile = new Tile(part.charAt(0), part.charAt(1), part.charAt(2),
-									Integer.parseInt("" + part.charAt(3)));
+							Tile tile = Tile.parse(part);
 							tiles.add(tile);
 						} else if (Arrays.asList(playerParts).indexOf(part) == 4) {
 							try {
@@ -193,12 +210,12 @@ public class Listener extends Thread {
 								int permutation = ui.askForPermutation(tile, index);
 								
 								//Writes the move to the server.
-								out.println(constructMove(tile, permutation, index));
+								send(constructMove(tile, permutation, index));
 							} catch (IOException e) {
 								ui.writeError(e, "Listener");
 							}
 						} else if (afterMoveRequest().equals(Protocol.SKIPSHORT)) {
-							out.println(constructSkip());
+							send(constructSkip());
 						} else if (afterMoveRequest().equals(Protocol.REPLACESHORT)) {
 							//Asks for a tile to replace
 							Tile toReplace = null;
@@ -208,12 +225,17 @@ public class Listener extends Thread {
 								ui.writeError(e, "Listener");
 							}
 							
-							out.println(constructTilereplace(toReplace));
+							send(constructTilereplace(toReplace));
 						}
 					} else if (player instanceof ComputerPlayer) {
 						//Fetches a move according to the player's strategy
+						Strategy strategy = ((ComputerPlayer) player).getStrategy();
+						if (strategy instanceof SearchStrategy) {
+							((SearchStrategy) strategy).setOpponents(opponents);
+						}
 						String move = ((ComputerPlayer) player).determineMove(ui.board());
-						out.println(move);
+						send(move);
+						sent = System.nanoTime();
 					} else {
 						ui.write("Illegal return on after move request");
 					}
@@ -226,6 +248,9 @@ public class Listener extends Thread {
 				
 			case Protocol.TURNMADE:
 				//Notifies the user of the last turn made.
+				if (split.length > 2 && split[2].equals(player.name())) {
+					measureLatency();
+				}
 				if (split[1].equals(Protocol.MOVESHORT)) {
 					List<Tile> newHand = new ArrayList<>();
 					
@@ -236,15 +261,13 @@ public class Listener extends Thread {
 						int i = 2;
 						while (i < split.length - 4) {
 							i++;
-							Tile tile = new Tile(split[i].charAt(0), split[i].charAt(1), 
-									split[i].charAt(2), Integer.parseInt("" + split[i].charAt(3)));
+							Tile tile = Tile.parse(split[i]);
 							newHand.add(tile);
 						}
 						player.getHand().addAll(newHand);
 						//Constructs the information needed to inform the user about the move made.
 						String tile = split[split.length - 3];
-						Tile toSet = new Tile(tile.charAt(0), tile.charAt(1), 
-								tile.charAt(2), Integer.parseInt("" + tile.charAt(3)));
+						Tile toSet = Tile.parse(tile);
 						int index = Integer.parseInt(split[split.length - 1]);
 						int rotation = Integer.parseInt(split[split.length - 2]);
 						
@@ -259,9 +282,7 @@ public class Listener extends Thread {
 								
 								while (i < split.length - 4) {
 									i++;
-									Tile tile = new Tile(split[i].charAt(0), split[i].charAt(1), 
-											split[i].charAt(2), 
-											Integer.parseInt("" + split[i].charAt(3)));
+									Tile tile = Tile.parse(split[i]);
 									newHand.add(tile);
 								}
 								
@@ -269,9 +290,7 @@ public class Listener extends Thread {
 								String tile = split[split.length - 3];
 								int index = Integer.parseInt(split[split.length - 1]);
 								int rotation = Integer.parseInt(split[split.length - 2]);
-								Tile moved = new Tile(tile.charAt(0), 
-										tile.charAt(1), tile.charAt(2), 
-										Integer.parseInt("" + tile.charAt(3)));
+								Tile moved = Tile.parse(tile);
 								ui.tellUserMoveMade(opponent.name(), 
 										moved, index, 
 										rotation);
@@ -286,14 +305,12 @@ public class Listener extends Thread {
 					//Again rebuilding the hand with information from the server.
 					if (split[2].equals(player.name())) {
 						String replace = split[split.length - 1];
-						Tile replaced = new Tile(replace.charAt(0), replace.charAt(1), 
-								replace.charAt(2), Integer.parseInt("" + replace.charAt(3)));
+						Tile replaced = Tile.parse(replace);
 						player.getHand().clear();
 						int i = 2;
 						while (i < split.length - 1) {
 							i++;
-							Tile tile = new Tile(split[i].charAt(0), split[i].charAt(1), 
-									split[i].charAt(2), Integer.parseInt("" + split[i].charAt(3)));
+							Tile tile = Tile.parse(split[i]);
 							player.add(tile);
 						}
 
@@ -303,16 +320,12 @@ public class Listener extends Thread {
 						for (Player opponent : opponents) {
 							if (opponent.name().equals(split[2])) {
 								String replace = split[split.length - 1];
-								Tile replaced = new Tile(replace.charAt(0), replace.charAt(1), 
-										replace.charAt(2), 
-										Integer.parseInt("" + replace.charAt(3)));
+								Tile replaced = Tile.parse(replace);
 								opponent.getHand().clear();
 								int i = 2;
 								while (i < split.length - 1) {
 									i++;
-									Tile tile = new Tile(split[i].charAt(0), split[i].charAt(1), 
-											split[i].charAt(2),
-											Integer.parseInt("" + split[i].charAt(3)));
+									Tile tile = Tile.parse(split[i]);
 									opponent.add(tile);
 								}
 								ui.tellUserExchanged(opponent.name(), replaced);
@@ -377,6 +390,57 @@ public class Listener extends Thread {
 		}
 	}
 	
+	/**
+	 * Tells the strategy of the player how long the server took to confirm the last move
+	 * sent by the strategy, so it can leave that time before the server times it out.
+	 */
+	private void measureLatency() {
+		if (sent != 0L && player instanceof ComputerPlayer) {
+			Strategy strategy = ((ComputerPlayer) player).getStrategy();
+			if (strategy instanceof SearchStrategy) {
+				((SearchStrategy) strategy).addLatency((System.nanoTime() - sent) / 1000000L);
+			}
+		}
+		sent = 0L;
+	}
+
+	/**
+	 * Reads a line sent by the server byte by byte, so no byte after it is taken from the
+	 * input.
+	 * @return the line without its line separator, null if the server disconnected.
+	 * @throws IOException when reading fails.
+	 */
+	private String readLine() throws IOException {
+		line.reset();
+		int b = in.read();
+		while (b != '\n') {
+			if (b == -1) {
+				return null;
+			}
+			line.write(b);
+			b = in.read();
+		}
+		String received = line.toString(StandardCharsets.UTF_8);
+		return received.endsWith("\r") ? received.substring(0, received.length() - 1) : received;
+	}
+
+	/**
+	 * Sends the given message to the server, as a line or as a frame.
+	 * @param msg the message to send, without a line separator.
+	 */
+	//@requires msg != null;
+	private void send(String msg) {
+		if (!binary) {
+			out.println(msg);
+			return;
+		}
+		try {
+			BinaryProtocol.write(frameOut, msg);
+		} catch (IOException e) {
+			ui.writeError(e, "Listener");
+		}
+	}
+	
 	/**
 	 * Constructs a string representation of a move request.
 	 * @param tile the tile to place.
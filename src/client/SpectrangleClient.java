@@ -12,11 +12,12 @@ import model.ComputerPlayer;
 import model.HumanPlayer;
 import model.Player;
 import model.Strategy;
+import util.BinaryProtocol;
 /**
  * @author pmbos A class modelling a spectrangle client.
  */
 public class SpectrangleClient {
-	public static final char[] EXTENSIONS = {};
+	public static final char[] EXTENSIONS = {BinaryProtocol.EXTENSION};
 	private static final List<Character> enabledExtensions = new ArrayList<>();
 
 	private Socket socket;
@@ -140,17 +140,12 @@ public class SpectrangleTUI implements Observer {
 					
 					int tileIndex = random.nextInt(validTiles.size());
 					Tile tile = validTiles.get(tileIndex);
-					Tile graphic = new Tile(tile.getColourL(), tile.getColourV(),
-									tile.getColourR(), tile.getValue());
 					List<Integer> indices = new ArrayList<>(plays.get(tile));
 					
 					//Displays a tile the user can place and at which index the tile can be placed.
 					write("HINT: you can place the following tile: ");
 					int field = random.nextInt(indices.size());
-					if (!board.isUp(indices.get(field))) {
-						graphic.flip();
-					}
-					write(graphic.graphicRepresentation(0));
+					write(tile.graphicRepresentation(0, board.isUp(indices.get(field))));
 					String hint = " at index: " + indices.get(field);
 					
 					write(hint);
@@ -197,14 +192,12 @@ public class SpectrangleTUI implements Observer {
 	public int askForPermutation(Tile tile, int index) throws IOException, NumberFormatException, 
 		EndOfProgram {
 		StringBuilder permutations = new StringBuilder();
-		Tile copy = new Tile(tile.getColourL(), tile.getColourV(), tile.getColourR(),
-				tile.getValue());
 
 		List<Integer> validPermutations = new ArrayList<>();
 		int j = 0;
 
 		for (int i = 0; i < 3; i++) {
-			if (ColourCompare.checkPermutation(copy, index, board.edges(index), board(), i)) {
+			if (ColourCompare.checkPermutation(tile, index, board.edges(index), board(), i)) {
 				validPermutations.add(i);
 				j++;
 				if (tile.getColourL() == tile.getColourR() 
@@ -214,14 +207,12 @@ public class SpectrangleTUI implements Observer {
 			}
 		}
 
-		if (!board.isUp(index)) {
-			copy.flip();
-		}
+		boolean up = board.isUp(index);
 		int f = 0;
 		while (f < 5) {
 			for (Integer perm : validPermutations) {
 
-				String rep = copy.graphicRepresentation(perm);
+				String rep = tile.graphicRepresentation(perm, up);
 
 				switch (f) {
 					case 0 -> permutations.append(rep, 0, 8).append("    ");
@@ -631,6 +622,14 @@ public class SpectrangleTUI implements Observer {
 	public boolean isInputAlive() {
 		return in.isAlive();
 	}
+
+	/**
+	 * Waits until the input thread ended, which happens when the user exits.
+	 * @throws InterruptedException when the waiting is interrupted.
+	 */
+	public void awaitInputEnd() throws InterruptedException {
+		in.join();
+	}
 	
 	/**
 	 * Instructs the input thread to start reading input.
@@ -0,0 +1,13 @@
+package exceptions;
+
+public class OutOfTime extends Exception {
+	/**
+	 * An exception thrown when a search runs past its deadline.
+	 * It is thrown often and caught close by, so it does not record a stack trace.
+	 */
+	private static final long serialVersionUID = 6163218861257381409L;
+
+	public OutOfTime(String msg) {
+		super(msg, null, false, false);
+	}
+}
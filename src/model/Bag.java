@@ -5,52 +5,85 @@ import util.Protocol;
 
 /**
  * This is the class describing a bag of tiles in the Spectrangle game.
+ * The tiles are kept in an array of fixed capacity, in no particular order,
+ * so drawing and adding a tile take constant time and allocate nothing.
  * @author Alina Maximova, s2032074
  *
  */
 public class Bag {
-	private List<Tile> bag;
+	private final Tile[] tiles;
+	private int size;
+	private final List<Tile> view;
+	private final SplittableRandom random;
 	public static final int SIZE = 36;
 	/**
-	 * Constructor for class Bag.
+	 * Constructor for class Bag, drawing with an unseeded random source.
 	 */
 	public Bag() {
-		bag = new ArrayList<Tile>();
-		for (Tile tile : Protocol.VALIDTILES) {
-			bag.add(tile);
-		}
+		this(new SplittableRandom());
+	}
+	/**
+	 * Constructor for class Bag, drawing with the given random source,
+	 * so the tiles drawn are the same for the same seed.
+	 * @param random the random source to draw with
+	 */
+	//@requires random != null;
+	public Bag(SplittableRandom random) {
+		this.random = random;
+		this.tiles = Arrays.copyOf(Protocol.VALIDTILES, SIZE);
+		this.size = Protocol.VALIDTILES.length;
+		this.view = new View();
 	}
 
 	/**
 	 * Method for getting tiles left in the bag.
-	 * @return all tiles that are currently in the bag
+	 * @return a live view of all tiles that are currently in the bag
 	 */
 	/*@pure */public List<Tile> getTiles() {
-		return bag;
+		return view;
 	}
 	/**
 	 * Method for getting the number of tiles left in the bag.
 	 * @return the current size of the bag
 	 */
 	/*@pure */public int getSize() {
-		return bag.size();
+		return size;
 	}
 	/**
 	 * Method that allows to see tiles left in the bag.
 	 * @return the String representation of the Bag
 	 */
 	/*@pure */public String toString() {
-		String res = "";
-		for (int i = 0; i < bag.size(); i++) {
-			res = res + bag.get(i).toString() + "\n";
+		StringBuilder res = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			res.append(tiles[i].toString()).append("\n");
 		}
-		return res;
+		return res.toString();
 	}
 	/**
 	 * Method for shuffling the bag with tiles.
 	 */
 	public void shuffle() {
-		Collections.shuffle(bag);
+		for (int i = size - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Tile tile = tiles[i];
+			tiles[i] = tiles[j];
+			tiles[j] = tile;
+		}
+	}
+	/**
+	 * Method for drawing a random tile from the bag. The last tile takes the place
+	 * of the drawn tile, so a draw takes constant time.
+	 * @return the tile drawn
+	 */
+	//@requires getSize() > 0;
+	//@ensures getSize() == \old(getSize()) - 1;
+	public Tile draw() {
+		int index = random.nextInt(size);
+		Tile tile = tiles[index];
+		tiles[index] = tiles[--size];
+		tiles[size] = null;
+		return tile;
 	}
 	/**
 	 * Method for removing a given number of tiles
@@ -59,34 +92,83 @@ public class Bag {
 	 * @param num number of tiles for moving
 	 */
 	//@requires player != null;
-	//@requires num >= 0 && num <= getSize();
-	//@ensures getSize() == \old(getSize()) - num;
+	//@requires num >= 0;
+	//@ensures getSize() == Math.max(0, \old(getSize()) - num);
 	public void dealHand(Player player, int num) {
-		shuffle();
-		if (bag.size() > 0) {
-			if (num >= bag.size()) {
-				for (int i = 0; i < bag.size(); i++) {
-					player.add(bag.get(i));
-					bag.remove(i);
-				}
-			} else {
-				for (int i = 0; i < num; i++) {
-					player.add(bag.get(i));
-					bag.remove(i);
-				}
+		for (int i = 0; i < num && size > 0; i++) {
+			player.add(draw());
+		}
+	}
+	/**
+	 * Method for dealing the starting hands, giving every player
+	 * a given number of tiles in turn.
+	 * @param players the players to deal to
+	 * @param num number of tiles for every player
+	 */
+	//@requires players != null;
+	//@requires num >= 0;
+	//@ensures getSize() == Math.max(0, \old(getSize()) - num * players.size());
+	public void dealHands(List<Player> players, int num) {
+		for (int i = 0; i < num; i++) {
+			for (Player player : players) {
+				dealHand(player, 1);
 			}
-			
-		} 
-		
+		}
 	}
 	/**
 	 * Method for adding a tile to the bag.
 	 * @param tile the tile which needs to be placed to the bag
+	 * @throws IllegalStateException when the bag already holds <code>SIZE</code> tiles
 	 */
-	//@requires getSize() < 36;
+	//@requires getSize() < SIZE;
 	//@requires getTiles().contains(tile) == false;
 	//@ensures getSize() == \old(getSize()) + 1;
 	public void add(Tile tile) {
-		bag.add(tile);
+		if (size == SIZE) {
+			throw new IllegalStateException("The bag is full");
+		}
+		tiles[size++] = tile;
+	}
+
+	/**
+	 * A list backed by the tiles of the bag. Changes through the list keep the
+	 * order of the other tiles, as lists do.
+	 */
+	private class View extends AbstractList<Tile> {
+		@Override
+		public Tile get(int index) {
+			Objects.checkIndex(index, size);
+			return tiles[index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public Tile set(int index, Tile tile) {
+			Tile old = get(index);
+			tiles[index] = tile;
+			return old;
+		}
+
+		@Override
+		public void add(int index, Tile tile) {
+			Objects.checkIndex(index, size + 1);
+			Bag.this.add(tile);
+			System.arraycopy(tiles, index, tiles, index + 1, size - 1 - index);
+			tiles[index] = tile;
+			modCount++;
+		}
+
+		@Override
+		public Tile remove(int index) {
+			Tile old = get(index);
+			System.arraycopy(tiles, index + 1, tiles, index, size - 1 - index);
+			tiles[--size] = null;
+			modCount++;
+			return old;
+		}
 	}
 }
@@ -1,58 +1,293 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import util.ColourCompare;
+import util.Protocol;
 
 /** A class modelling the board of a game of spectrangle.
+ * The board is stored as a bitboard: bit <code>i</code> of <code>occupied</code> is set
+ * when field <code>i</code> holds a tile, and <code>cells</code> holds the value and
+ * the left, vertical and right colour codes of each field packed into one integer.
+ * Tiles placed with <code>setTile</code> or <code>makeMove</code> also store their id and
+ * rotation in the cell.
+ * The board also keeps track of its frontier, the empty fields next to an occupied field,
+ * of the colour each occupied neighbour requires on every side of a field and of the
+ * <code>Zobrist</code> hash of its position.
  * @author P.M. Bos
  */
 public class Board {
 	//@invariant getFields().size() == MAX_FIELDS;
 	public static final int MAX_FIELDS = 36;
+	public static final long FULL = (1L << MAX_FIELDS) - 1;
 	public static final Map<Integer, Integer[]> FIELD_MAPPING = getMapping(); 
-	private List<Field> fields;
+	public static final int LEFT = 0;
+	public static final int VERTICAL = 1;
+	public static final int RIGHT = 2;
+	public static final int NO_NEIGHBOUR = -1;
+	private static final int ROWS = 6;
+	private static final int[][] NEIGHBOURS = new int[MAX_FIELDS][3];
+	private static final long[] NEIGHBOUR_MASK = new long[MAX_FIELDS];
+	private static final byte[] BONUS = new byte[MAX_FIELDS];
+	public static final long UP;
+	public static final long START;
+	private static final int VALUE_SHIFT = 0;
+	private static final int LEFT_SHIFT = 4;
+	private static final int VERTICAL_SHIFT = 8;
+	private static final int RIGHT_SHIFT = 12;
+	private static final int TILE_SHIFT = 16;
+	private static final int ROTATION_SHIFT = 22;
+	private static final int NIBBLE = 0xF;
+	private static final int TILE_MASK = 0x3F;
+	private static final int ROTATION_MASK = 0x3;
+	private static final long UNDO_INDEX = 0x3F;
+	private static final long UNDO_FIRST_PLAY = 1L << 6;
+	public static final int ANY_COLOUR = 0;
+	public static final int NO_COLOUR = 7;
+	private final int[] cells;
+	private final int[] constraints;
+	private long occupied;
+	private long frontier;
+	private long hash;
 	private boolean firstPlay;
 	
+	static {
+		//Precomputes the neighbours, orientation and bonus of every field.
+		long up = 0L;
+		long start = 0L;
+		for (int row = 0; row < ROWS; row++) {
+			for (int column = -row; column <= row; column++) {
+				int index = getIndex(row, column);
+				boolean pointsUp = isEven(row + column);
+				if (pointsUp) {
+					up |= 1L << index;
+				}
+				NEIGHBOURS[index][LEFT] = column - 1 >= -row 
+						? getIndex(row, column - 1) : NO_NEIGHBOUR;
+				NEIGHBOURS[index][RIGHT] = column + 1 <= row 
+						? getIndex(row, column + 1) : NO_NEIGHBOUR;
+				if (pointsUp) {
+					NEIGHBOURS[index][VERTICAL] = row + 1 < ROWS 
+							? getIndex(row + 1, column) : NO_NEIGHBOUR;
+				} else {
+					NEIGHBOURS[index][VERTICAL] = row - 1 >= 0 
+							? getIndex(row - 1, column) : NO_NEIGHBOUR;
+				}
+				BONUS[index] = SpectrangleBoardPrinter.BONUS.get(index).byteValue();
+				if (BONUS[index] == 1) {
+					start |= 1L << index;
+				}
+			}
+		}
+		UP = up;
+		START = start;
+		for (int index = 0; index < MAX_FIELDS; index++) {
+			for (int side = LEFT; side <= RIGHT; side++) {
+				if (NEIGHBOURS[index][side] != NO_NEIGHBOUR) {
+					NEIGHBOUR_MASK[index] |= 1L << NEIGHBOURS[index][side];
+				}
+			}
+		}
+	}
+	
 	/**
-	 * Creates a new <code>Board</code> instance with all 36 fields initialised to a new field.
+	 * Creates a new <code>Board</code> instance with all 36 fields empty.
 	 */
 	public Board() {
-		fields = new ArrayList<>();
+		this.cells = new int[MAX_FIELDS];
+		this.constraints = new int[MAX_FIELDS];
+		this.occupied = 0L;
+		this.frontier = 0L;
+		this.hash = 0L;
 		this.firstPlay = true;
-		for (int i = 0; i < MAX_FIELDS; i++) {
-			fields.add(new Field());
-		}
 	}
 	
 	/**
-	 * Creates a new <code>Board</code> instance with its <code>fields</code>
-	 * initialised to the given list of fields.
+	 * Creates a new <code>Board</code> instance with its fields
+	 * initialised to the values and colours of the given list of fields.
 	 * @param fields a list of <code>Fields</code>.
 	 * @param first whether or not first play is still true.
 	 */
+	//@requires fields.size() == MAX_FIELDS;
 	/*@pure */public Board(List<Field> fields, boolean first) {
-		this.fields = new ArrayList<>();
-		this.fields = fields;
+		this();
+		for (int i = 0; i < MAX_FIELDS; i++) {
+			Field field = fields.get(i);
+			if (field.value() > 0) {
+				put(i, field.value(), field.getColourL(), field.getColourV(), field.getColourR());
+			}
+		}
 		firstPlay = first;
 	}
 	
+	/**
+	 * Creates a new <code>Board</code> instance which is a copy of the given board.
+	 * @param other the board to copy.
+	 */
+	//@requires other != null;
+	private Board(Board other) {
+		this.cells = other.cells.clone();
+		this.constraints = other.constraints.clone();
+		this.occupied = other.occupied;
+		this.frontier = other.frontier;
+		this.hash = other.hash;
+		this.firstPlay = other.firstPlay;
+	}
+	
 	//Queries
 	/**
 	 * Finds the <code>Field</code> on the <code>Board</code> 
-	 * identified by the given <code>index</code>
+	 * identified by the given <code>index</code>.
+	 * The returned <code>Field</code> is a snapshot, changing it does not change the board.
 	 * @param index a valid index of a <code>Field</code> on the <code>Board</code>
 	 * @return the <code>Field</code> identified by the given <code>index</code>
 	 */
 	/*
 	 * @requires isValidField(index);
-	 * @ensures \result == getField(index);
+	 * @ensures \result.value() == getValue(index);
 	 */
 	/*@pure */public Field getField(int index) {
-		return fields.get(index);
+		Field field = new Field();
+		if (!isEmpty(index)) {
+			field.setValue(getValue(index));
+			field.setColourL(getColourL(index));
+			field.setColourV(getColourV(index));
+			field.setColourR(getColourR(index));
+		}
+		return field;
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the value of the tile on the field, 0 if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public int getValue(int index) {
+		return (cells[index] >>> VALUE_SHIFT) & NIBBLE;
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the left colour of the field, '\u0000' if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public char getColourL(int index) {
+		return Protocol.COLOURS[getColourCodeL(index)];
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the vertical colour of the field, '\u0000' if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public char getColourV(int index) {
+		return Protocol.COLOURS[getColourCodeV(index)];
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the right colour of the field, '\u0000' if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public char getColourR(int index) {
+		return Protocol.COLOURS[getColourCodeR(index)];
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the colour code of the left side of the field, 0 if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public int getColourCodeL(int index) {
+		return (cells[index] >>> LEFT_SHIFT) & NIBBLE;
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the colour code of the vertical side of the field, 0 if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public int getColourCodeV(int index) {
+		return (cells[index] >>> VERTICAL_SHIFT) & NIBBLE;
+	}
+	
+	/**
+	 * @param index the index of the field to check.
+	 * @return the colour code of the right side of the field, 0 if the field is empty.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public int getColourCodeR(int index) {
+		return (cells[index] >>> RIGHT_SHIFT) & NIBBLE;
+	}
+	
+	/**
+	 * @return a mask with bit <code>i</code> set for every occupied field <code>i</code>.
+	 */
+	/*@pure */public long getOccupied() {
+		return occupied;
+	}
+	
+	/**
+	 * Finds the tile placed on the field identified by the given index.
+	 * @param index the index of the field.
+	 * @return the tile on the field, null if the field is empty or the tile is not known,
+	 * because the board was created from a list of fields.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public Tile getTile(int index) {
+		int id = (cells[index] >>> TILE_SHIFT) & TILE_MASK;
+		return id == 0 ? null : Tile.get(id - 1);
+	}
+	
+	/**
+	 * Finds the rotation of the tile placed on the field identified by the given index.
+	 * @param index the index of the field.
+	 * @return the rotation of the tile, -1 if <code>getTile(index)</code> is null.
+	 */
+	//@requires isValidField(index);
+	//@ensures getTile(index) == null ==> \result == -1;
+	/*@pure */public int getRotation(int index) {
+		if (getTile(index) == null) {
+			return -1;
+		}
+		return (cells[index] >>> ROTATION_SHIFT) & ROTATION_MASK;
+	}
+	
+	/**
+	 * @return a mask with bit <code>i</code> set when field <code>i</code> is empty and
+	 * has at least one occupied neighbour.
+	 */
+	//@ensures \forall int i; isValidField(i); 
+	//			((\result & (1L << i)) != 0) == (isEmpty(i) && hasOccupiedNeighbour(i));
+	/*@pure */public long getFrontier() {
+		return frontier;
+	}
+	
+	/**
+	 * Finds the <code>Zobrist</code> hash of the position on this board, covering the tile
+	 * and rotation on every field and whether the first tile has been played.
+	 * Equal positions have equal hashes.
+	 * @return the hash of the position.
+	 */
+	/*@pure */public long getHash() {
+		return firstPlay ? hash ^ Zobrist.firstPlay() : hash;
+	}
+	
+	/**
+	 * Finds the colours the occupied neighbours of a field require on each of its sides.
+	 * The code of a side is found at bits <code>4 * side</code> to <code>4 * side + 3</code>
+	 * and is a code of <code>ColourCompare.colourCode</code>, <code>ANY_COLOUR</code> when the
+	 * side is open or faces white, or <code>NO_COLOUR</code> when no colour fits.
+	 * @param index the index of the field.
+	 * @return the packed codes of the required colours.
+	 */
+	//@requires isValidField(index);
+	/*@pure */public int getConstraints(int index) {
+		return constraints[index];
 	}
 	
 	/**
@@ -62,7 +297,15 @@ public class Board {
 		return firstPlay;
 	}
 	
+	/**
+	 * @return a snapshot of all the fields of the <code>Board</code>.
+	 */
+	//@ensures \result.size() == MAX_FIELDS;
 	/*@pure */public List<Field> getFields() {
+		List<Field> fields = new ArrayList<>(MAX_FIELDS);
+		for (int i = 0; i < MAX_FIELDS; i++) {
+			fields.add(getField(i));
+		}
 		return fields;
 	}
 	
@@ -93,18 +336,15 @@ public class Board {
 	/*@requires tile != null;
 	  @requires isValidField(index);
 	  @ensures edges(index).size() > 0 ==> 
-	  	\result == ColourCompare.checkPermutation(tile, index, edges(index), getCopy(), rotation);
+	  	\result == ColourCompare.checkPermutation(tile, index, edges(index), this, rotation);
 	  @ensures edges(index).size() == 0 ==> 
-	  			\result == (boardEmpty() && SpectrangleBoardPrinter.BONUS.get(index) == 1); 
+	  			\result == (boardEmpty() && getBonus(index) == 1); 
 	 */
 	/* @pure */public boolean isValidMove(Tile tile, int index, int rotation) {
-		List<Character> neighbours = edges(index); 
-		
-		if (neighbours.size() >= 1) {
-			Board copy = getCopy();
-			return ColourCompare.checkPermutation(tile, index, neighbours, copy, rotation);
+		if (hasOccupiedNeighbour(index)) {
+			return ColourCompare.checkPermutation(tile, index, this, rotation);
 		} else {
-			return boardEmpty() && SpectrangleBoardPrinter.BONUS.get(index) == 1;
+			return boardEmpty() && getBonus(index) == 1;
 		}
 	}
 
@@ -118,7 +358,18 @@ public class Board {
 	 */
 	//@ensures \result == (int)Math.pow(row, 2) + row + column;
 	/*@pure */public static int getIndex(int row, int column) {
-		return (int) Math.pow(row, 2) + row + column;
+		return row * row + row + column;
+	}
+	
+	/**
+	 * Finds the bonus multiplier of the <code>Field</code> identified by the given index.
+	 * @param index the index of the field.
+	 * @return the bonus multiplier of the field.
+	 */
+	//@requires 0 <= index && index < MAX_FIELDS;
+	//@ensures \result == SpectrangleBoardPrinter.BONUS.get(index);
+	/*@pure */public static int getBonus(int index) {
+		return BONUS[index];
 	}
 	
 	/**
@@ -128,33 +379,28 @@ public class Board {
 	 */
 	/*
 	 * @requires isValidField(index);
-	 * @ensures \result == (fields.get(index).value() == 0);
+	 * @ensures \result == (getValue(index) == 0);
 	 */
 	/*@pure */public boolean isEmpty(int index) {
-		return getField(index).value() == 0;
+		return (occupied & (1L << index)) == 0;
 	}
 	
 	/**
 	 * Finds out if the <code>Board</code> is full.
-	 * @return true if all fields of the <code>Board</code> have a value of 0 or less,
+	 * @return true if all fields of the <code>Board</code> are occupied,
 	 * false otherwise.
 	 */
-	//@ensures \result == (\forall int i; isValidField(i); getField(i).value() <= 0);
+	//@ensures \result == (\forall int i; isValidField(i); getValue(i) > 0);
 	/*@pure */public boolean isFull() {
-		for (Field field : fields) {
-			if (field.value() <= 0) {
-				return false;
-			}
-		}
-		return true;
+		return occupied == FULL;
 	}
 	
 	/**
 	 * @return a copy of the current state of the <code>Board</code>
 	 */
-	//@ensures \result == new Board(getFields(), isFirstPlay());
+	//@ensures \result.getOccupied() == getOccupied();
 	/*@pure */public Board getCopy() {
-		return new Board(this.fields, this.firstPlay);
+		return new Board(this);
 	}
 	
 	/**
@@ -166,12 +412,12 @@ public class Board {
 	 * @requires isValidIndex(index);
 	 * @ensures \result == getField(index).value() * 
 				Math.max(1, edges(index).size()) * 
-				SpectrangleBoardPrinter.BONUS.get(index);
+				getBonus(index);
 	 */
 	/*@pure */public int getScore(int index) {
-		return getField(index).value() * 
-				Math.max(1, edges(index).size()) * 
-				SpectrangleBoardPrinter.BONUS.get(index);
+		return getValue(index) * 
+				Math.max(1, Long.bitCount(NEIGHBOUR_MASK[index] & occupied)) * 
+				getBonus(index);
 	}
 	
 	/**
@@ -186,19 +432,32 @@ public class Board {
 	 * @requires isValidIndex(index) && getField(index).value > 0;
 	 */
 	/*@pure */public List<Character> edges(int index) {
-		List<Character> neighbours = new ArrayList<>();
-		if (getNeighbour(index, 'L') != -1 && getField(getNeighbour(index, 'L')).value() > 0) {
+		List<Character> neighbours = new ArrayList<>(3);
+		int[] adjacent = NEIGHBOURS[index];
+		if (adjacent[LEFT] != NO_NEIGHBOUR && !isEmpty(adjacent[LEFT])) {
 			neighbours.add('L');
 		}
-		if (getNeighbour(index, 'V') != -1 && getField(getNeighbour(index, 'V')).value() > 0) {
+		if (adjacent[VERTICAL] != NO_NEIGHBOUR && !isEmpty(adjacent[VERTICAL])) {
 			neighbours.add('V');
 		}
-		if (getNeighbour(index, 'R') != -1 && getField(getNeighbour(index, 'R')).value() > 0) {
+		if (adjacent[RIGHT] != NO_NEIGHBOUR && !isEmpty(adjacent[RIGHT])) {
 			neighbours.add('R');
 		}
 		return neighbours;
 	}
 	
+	/**
+	 * Checks if the <code>Field</code> identified by the given index has at least one 
+	 * occupied neighbour.
+	 * @param index the index of the field to check.
+	 * @return true if at least one neighbour is occupied, false otherwise.
+	 */
+	//@requires isValidField(index);
+	//@ensures \result == (edges(index).size() > 0);
+	/*@pure */public boolean hasOccupiedNeighbour(int index) {
+		return (NEIGHBOUR_MASK[index] & occupied) != 0L;
+	}
+	
 	/**
 	 * Checks whether the given <code>neighbour</code> is valid.
 	 * @param neighbour the character to check.
@@ -222,29 +481,76 @@ public class Board {
 	 * @ensures isValidIndex(\result) || \result == -1;
 	 */
 	/*@pure */public int getNeighbour(int index, char neighbour) {
-		Integer[] indices = FIELD_MAPPING.get(index);
-		int row = indices[0];
-		int column = indices[1];
 		switch (neighbour) {
 			case 'V':
-				if (isEven(row + column) && row + 1 <= 5) {
-					return getIndex(row + 1, column);
-				} else if (!isEven(row + column) && row - 1 > -1) {
-					return getIndex(row - 1, column);
-				}
-				break;
+				return NEIGHBOURS[index][VERTICAL];
 			case 'L':
-				if (column - 1 >= -row) {
-					return getIndex(row, column - 1);
-				}
-				break;
+				return NEIGHBOURS[index][LEFT];
 			case 'R':
-				if (column + 1 <= row) {
-					return getIndex(row, column + 1);
+				return NEIGHBOURS[index][RIGHT];
+		}
+		return NO_NEIGHBOUR;
+	}
+	
+	/**
+	 * Finds the neighbour of the <code>Field</code> identified by 
+	 * the given <code>index</code> on the given side.
+	 * @param index the index of the <code>Field</code> to check.
+	 * @param side <code>LEFT</code>, <code>VERTICAL</code> or <code>RIGHT</code>.
+	 * @return the index of the neighbour, <code>NO_NEIGHBOUR</code> if no such neighbour exists.
+	 */
+	/*
+	 * @requires 0 <= index && index < MAX_FIELDS && 0 <= side && side < 3;
+	 * @ensures (0 <= \result && \result < MAX_FIELDS) || \result == NO_NEIGHBOUR;
+	 */
+	/*@pure */public static int getAdjacent(int index, int side) {
+		return NEIGHBOURS[index][side];
+	}
+	
+	/**
+	 * Finds all the fields the given tile can legally be placed on, in any rotation.
+	 * On an empty board these are the fields without a bonus.
+	 * @param tile the tile to place.
+	 * @return a mask with bit <code>i</code> set when the tile fits on field <code>i</code>.
+	 */
+	/*
+	 * @requires tile != null;
+	 * @ensures \forall int i; 0 <= i && i < MAX_FIELDS; 
+	 			((\result & (1L << i)) != 0) == (isEmpty(i) && (isValidMove(tile, i, 0) 
+	 			|| isValidMove(tile, i, 1) || isValidMove(tile, i, 2)));
+	 */
+	/*@pure */public long getLegalFields(Tile tile) {
+		if (boardEmpty()) {
+			return START;
+		}
+		if (tile.equals(Protocol.JOKER)) {
+			return frontier;
+		}
+		long legal = 0L;
+		for (long rest = frontier; rest != 0L; rest &= rest - 1) {
+			int i = Long.numberOfTrailingZeros(rest);
+			for (int rotation = 0; rotation < 3; rotation++) {
+				if (ColourCompare.checkPermutation(tile, i, this, rotation)) {
+					legal |= 1L << i;
+					break;
 				}
-				break;
+			}
 		}
-		return -1;
+		return legal;
+	}
+	
+	/**
+	 * Lists the indices of the fields set in the given mask, in ascending order.
+	 * @param fields a mask of fields.
+	 * @return the list of indices.
+	 */
+	//@ensures \result.size() == Long.bitCount(fields);
+	/*@pure */public static List<Integer> toIndices(long fields) {
+		List<Integer> indices = new ArrayList<>(Long.bitCount(fields));
+		for (long rest = fields; rest != 0L; rest &= rest - 1) {
+			indices.add(Long.numberOfTrailingZeros(rest));
+		}
+		return indices;
 	}
 	
 	/**
@@ -265,22 +571,16 @@ public class Board {
 	 */
 	//@requires isValidField(index);
 	//@ensures \result == isEven(FIELD_MAPPING.get(index)[0] + FIELD_MAPPING.get(index)[1]);
-	public boolean isUp(int index) {
-		Integer[] rc = FIELD_MAPPING.get(index);
-		return isEven(rc[0] + rc[1]);
+	/*@pure */public boolean isUp(int index) {
+		return (UP & (1L << index)) != 0;
 	}
 	
 	/**
 	 * @return true if the board is empty, false otherwise.
 	 */
-	//@ensures \result == (\forall int i; i < MAX_FIELDS; getField(i).value() == 0);
+	//@ensures \result == (\forall int i; i < MAX_FIELDS; getValue(i) == 0);
 	/*@pure */public boolean boardEmpty() {
-		for (Field field : fields) {
-			if (field.value() != 0) {
-				return false;
-			}
-		}
-		return true;
+		return occupied == 0L;
 	}
 	
 	/**
@@ -293,11 +593,10 @@ public class Board {
 		List<Character> right = new ArrayList<>();
 		
 		for (int i = 0; i < Board.MAX_FIELDS; i++) {
-			Field field = getField(i);
-			values.add(field.value());
-			vertical.add(field.getColourV());
-			left.add(field.getColourL());
-			right.add(field.getColourR());
+			values.add(getValue(i));
+			vertical.add(getColourV(i));
+			left.add(getColourL(i));
+			right.add(getColourR(i));
 		}
 		
 		return SpectrangleBoardPrinter.getBoardString(values, vertical, left, right);
@@ -327,47 +626,62 @@ public class Board {
 	    getField(index).getValue() == tile.value();
 	 */
 	public void setTile(int index, Tile tile, int rotation) {
-		if (firstPlay) {
-			firstPlay = false;
-		}
+		makeMove(index, tile, rotation);
+	}
+	
+	/**
+	 * Lets the given <code>tile</code> occupy the <code>Field</code> identified by the 
+	 * given <code>index</code>, like <code>setTile</code>, and returns a record with which
+	 * <code>unmakeMove</code> can restore the board to its current state.
+	 * The record holds the index in its lowest six bits, <code>isFirstPlay()</code> in bit six
+	 * and the previous contents of the field in its upper 32 bits.
+	 * @param index the index of the <code>Field</code> to occupy.
+	 * @param tile the tile to occupy.
+	 * @param rotation the rotation to use.
+	 * @return the undo record of this move.
+	 */
+	/*
+	 * @requires isValidIndex(index) && tile != null;
+	 * @ensures !isFirstPlay();
+	 * @ensures isValidRotation(rotation) ==> getValue(index) == tile.getValue();
+	 */
+	public long makeMove(int index, Tile tile, int rotation) {
+		long undo = index | (firstPlay ? UNDO_FIRST_PLAY : 0L) | ((long) cells[index] << 32);
+		firstPlay = false;
 		
-		if (!isUp(index) && !tile.isFlipped()) {
-			tile.flip();
-		} else if (isUp(index) && tile.isFlipped()) {
-			tile.flip();
+		if (rotation < Protocol.ROTATION1 || rotation > Protocol.ROTATION3) {
+			return undo;
 		}
-		
-		Field field = getField(index);
-		field.setValue(tile.getValue());
-		switch (rotation) {
-			case 0:
-				field.setColourL(tile.getColourL());
-				field.setColourR(tile.getColourR());
-				field.setColourV(tile.getColourV());
-				break;
-			case 1:
-				if (tile.isFlipped()) {
-					field.setColourL(tile.getColourR());
-					field.setColourR(tile.getColourV());
-					field.setColourV(tile.getColourL());
-				} else {
-					field.setColourL(tile.getColourV());
-					field.setColourR(tile.getColourL());
-					field.setColourV(tile.getColourR());
-				}
-				break;
-			case 2:
-				if (tile.isFlipped()) {
-					field.setColourL(tile.getColourV());
-					field.setColourR(tile.getColourL());
-					field.setColourV(tile.getColourR());
-				} else {
-					field.setColourL(tile.getColourR());
-					field.setColourR(tile.getColourV());
-					field.setColourV(tile.getColourL());
-				}
-				break;
-		}		
+		boolean up = isUp(index);
+		int cell = (tile.getValue() << VALUE_SHIFT)
+				| (ColourCompare.colourCode(
+						tile.getColour(ColourCompare.facing(up, rotation, LEFT))) << LEFT_SHIFT)
+				| (ColourCompare.colourCode(
+						tile.getColour(ColourCompare.facing(up, rotation, VERTICAL))) << VERTICAL_SHIFT)
+				| (ColourCompare.colourCode(
+						tile.getColour(ColourCompare.facing(up, rotation, RIGHT))) << RIGHT_SHIFT);
+		if (tile.isValid()) {
+			cell |= ((tile.getId() + 1) << TILE_SHIFT) | (rotation << ROTATION_SHIFT);
+		}
+		occupy(index, cell);
+		return undo;
+	}
+	
+	/**
+	 * Restores the board to its state before the move that returned the given record.
+	 * Moves have to be undone in the reverse order in which they were made.
+	 * @param undo the record returned by <code>makeMove</code>.
+	 */
+	//@ensures isFirstPlay() == ((undo & UNDO_FIRST_PLAY) != 0);
+	public void unmakeMove(long undo) {
+		int index = (int) (undo & UNDO_INDEX);
+		int cell = (int) (undo >>> 32);
+		if (cell == 0) {
+			remove(index);
+		} else {
+			occupy(index, cell);
+		}
+		firstPlay = (undo & UNDO_FIRST_PLAY) != 0;
 	}
 	
 	/**
@@ -380,12 +694,11 @@ public class Board {
 	   getField(i).getColourL() == '\u0000';
 	 */
 	public void reset() {
-		for (Field field : fields) {
-			field.setValue(0);
-			field.setColourL('\u0000');
-			field.setColourV('\u0000');
-			field.setColourR('\u0000');
-		}
+		Arrays.fill(cells, 0);
+		Arrays.fill(constraints, 0);
+		occupied = 0L;
+		frontier = 0L;
+		hash = 0L;
 		firstPlay = true;
 	}
 	
@@ -400,11 +713,131 @@ public class Board {
 	 		getField(index).getColourR() == '\u0000';
 	 */
 	public void remove(int index) {
-		Field field = getField(index);
-		field.setValue(0);
-		field.setColourL('\u0000');
-		field.setColourV('\u0000');
-		field.setColourR('\u0000');
+		if (cells[index] != 0) {
+			hash ^= key(index, cells[index]);
+		}
+		cells[index] = 0;
+		occupied &= ~(1L << index);
+		if (hasOccupiedNeighbour(index)) {
+			frontier |= 1L << index;
+		}
+		int[] adjacent = NEIGHBOURS[index];
+		for (int side = LEFT; side <= RIGHT; side++) {
+			int neighbour = adjacent[side];
+			if (neighbour != NO_NEIGHBOUR) {
+				constrain(neighbour, RIGHT - side, ANY_COLOUR);
+				if (isEmpty(neighbour) && !hasOccupiedNeighbour(neighbour)) {
+					frontier &= ~(1L << neighbour);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Stores the given value and colours in the field identified by the given index.
+	 * @param index the index of the field to occupy.
+	 * @param value the value of the tile.
+	 * @param left the colour facing the left neighbour.
+	 * @param vertical the colour facing the vertical neighbour.
+	 * @param right the colour facing the right neighbour.
+	 */
+	/*
+	 * @requires isValidField(index) && value > 0;
+	 * @ensures getValue(index) == value && !isEmpty(index);
+	 */
+	private void put(int index, int value, char left, char vertical, char right) {
+		occupy(index, (value << VALUE_SHIFT)
+				| (ColourCompare.colourCode(left) << LEFT_SHIFT)
+				| (ColourCompare.colourCode(vertical) << VERTICAL_SHIFT)
+				| (ColourCompare.colourCode(right) << RIGHT_SHIFT)
+				| identify(index, value, left, vertical, right));
+	}
+	
+	/**
+	 * Finds the tile and rotation that result in the given value and colours on the field
+	 * identified by the given index.
+	 * @param index the index of the field.
+	 * @param value the value of the field.
+	 * @param left the colour facing the left neighbour.
+	 * @param vertical the colour facing the vertical neighbour.
+	 * @param right the colour facing the right neighbour.
+	 * @return the tile and rotation packed at their position in a cell, 0 if no tile fits.
+	 */
+	/*@pure */private int identify(int index, int value, char left, char vertical, char right) {
+		boolean up = isUp(index);
+		char[] sides = new char[3];
+		for (int rotation = 0; rotation < 3; rotation++) {
+			sides[ColourCompare.facing(up, rotation, LEFT)] = left;
+			sides[ColourCompare.facing(up, rotation, VERTICAL)] = vertical;
+			sides[ColourCompare.facing(up, rotation, RIGHT)] = right;
+			Tile tile = Tile.valueOf(sides[LEFT], sides[VERTICAL], sides[RIGHT], value);
+			if (tile.isValid()) {
+				return ((tile.getId() + 1) << TILE_SHIFT) | (rotation << ROTATION_SHIFT);
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Finds the <code>Zobrist</code> key of the given cell on the given field.
+	 * @param index the index of the field.
+	 * @param cell the packed contents of the field.
+	 * @return the key of the cell.
+	 */
+	//@requires cell != 0;
+	/*@pure */private static long key(int index, int cell) {
+		int id = (cell >>> TILE_SHIFT) & TILE_MASK;
+		if (id == 0) {
+			return Zobrist.contents(index, cell);
+		}
+		return Zobrist.placement(index, id - 1, (cell >>> ROTATION_SHIFT) & ROTATION_MASK);
+	}
+	
+	/**
+	 * Stores the given packed cell in the field identified by the given index and updates
+	 * the frontier and the constraints of the neighbours.
+	 * @param index the index of the field to occupy.
+	 * @param cell the packed value, colours, tile and rotation of the field.
+	 */
+	//@requires isValidField(index) && cell != 0;
+	private void occupy(int index, int cell) {
+		if (cells[index] != 0) {
+			hash ^= key(index, cells[index]);
+		}
+		hash ^= key(index, cell);
+		cells[index] = cell;
+		occupied |= 1L << index;
+		frontier = (frontier | NEIGHBOUR_MASK[index]) & ~occupied;
+		//The left neighbour meets this field on its right side and the other way around.
+		int[] adjacent = NEIGHBOURS[index];
+		for (int side = LEFT; side <= RIGHT; side++) {
+			if (adjacent[side] != NO_NEIGHBOUR) {
+				int code = (cells[index] >>> (LEFT_SHIFT + 4 * side)) & NIBBLE;
+				constrain(adjacent[side], RIGHT - side, requirement(code));
+			}
+		}
+	}
+	
+	/**
+	 * Sets the colour required on the given side of the field identified by the given index.
+	 * @param index the index of the field.
+	 * @param side the side of the field.
+	 * @param code the code of the required colour.
+	 */
+	private void constrain(int index, int side, int code) {
+		int shift = 4 * side;
+		constraints[index] = (constraints[index] & ~(NIBBLE << shift)) | (code << shift);
+	}
+	
+	/**
+	 * @param code the colour code of an occupied side.
+	 * @return the code the neighbouring side is required to have.
+	 */
+	/*@pure */private static int requirement(int code) {
+		if (code == ColourCompare.colourCode(Protocol.WHITE)) {
+			return ANY_COLOUR;
+		}
+		return code == 0 ? NO_COLOUR : code;
 	}
 	
 	/**
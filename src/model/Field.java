@@ -81,6 +81,29 @@ public class Field {
 		return this.colourR;
 	}
 
+	@Override
+	/*
+	 * @ensures o instanceof Field ==> \result == (value() == ((Field) o).value() &&
+	 			getColourL() == ((Field) o).getColourL() &&
+	 			getColourV() == ((Field) o).getColourV() &&
+	 			getColourR() == ((Field) o).getColourR());
+	 */
+	public boolean equals(Object o) {
+		if (o instanceof Field) {
+			Field other = (Field) o;
+			return value() == other.value()
+					&& getColourL() == other.getColourL()
+					&& getColourV() == other.getColourV()
+					&& getColourR() == other.getColourR();
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return ((value() * 31 + getColourL()) * 31 + getColourV()) * 31 + getColourR();
+	}
+
 	@Override
 	public String toString() {
 		return "Field value: " + value() + ", left colour: " + getColourL() 
@@ -2,6 +2,7 @@ package model;
 
 import java.util.List;
 import java.util.Observable;
+import java.util.SplittableRandom;
 
 import exceptions.IllegalMove;
 import server.Controller;
@@ -21,6 +22,36 @@ public class Game extends Observable {
 	private Player currentPlayer;
 	private final Board board;
 	private final Bag bag;
+	private final SplittableRandom random;
+	private boolean checked;
+	private long checkedKey;
+	private boolean stuck;
+
+	/**
+	 * Creates a new <code>Game</code> instance without an observer, for games played
+	 * without a server. Creating a new <code>Board</code> and <code>Bag</code>.
+	 * @param preference the preference of the entire game.
+	 */
+	public Game(int preference) {
+		this(preference, new SplittableRandom());
+	}
+
+	/**
+	 * Creates a new <code>Game</code> instance without an observer, taking all its random
+	 * choices from the given source, so games with the same seed and the same moves are
+	 * the same. Creating a new <code>Board</code> and <code>Bag</code>.
+	 * @param preference the preference of the entire game.
+	 * @param random the random source of the game.
+	 */
+	//@requires random != null;
+	//@ensures getRandom() == random;
+	public Game(int preference, SplittableRandom random) {
+		players = new ArrayList<>();
+		board = new Board();
+		bag = new Bag(random.split());
+		this.random = random;
+		this.preference = preference;
+	}
 
 	/**
 	 * Creates a new <code>Game</code> instance with the given id. Creating a new
@@ -29,11 +60,8 @@ public class Game extends Observable {
 	 * @param cont the controller to sue as an observer.
 	 */
 	public Game(int preference, Controller cont) {
+		this(preference);
 		this.addObserver(cont);
-		players = new ArrayList<>();
-		board = new Board();
-		bag = new Bag();
-		this.preference = preference;
 	}
 
 	// Queries
@@ -90,6 +118,35 @@ public class Game extends Observable {
 		return board.getCopy();
 	}
 
+	/**
+	 * Finds the hash of the state of this game, combining the <code>Zobrist</code> hash of
+	 * the board with the tiles in the hand of every player and the player whose turn it is.
+	 * The tiles left in the bag follow from the board and the hands.
+	 * @return the hash of the state of the game.
+	 */
+	/*@pure */public long getStateHash() {
+		long hash = board.getHash();
+		for (int seat = 0; seat < players.size(); seat++) {
+			Player player = players.get(seat);
+			for (Tile tile : player.getHand()) {
+				if (tile.isValid()) {
+					hash ^= Zobrist.hand(seat, tile.getId());
+				}
+			}
+			if (player == currentPlayer) {
+				hash ^= Zobrist.turn(seat);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the random source of this game.
+	 */
+	/*@pure */public SplittableRandom getRandom() {
+		return random;
+	}
+
 	/**
 	 * @return the <code>Bag</code> used in this game.
 	 */
@@ -100,18 +157,55 @@ public class Game extends Observable {
 	/**
 	 * Determines if a game is over. Conditions for a game over are: a) the board is
 	 * full. b) the board is not full, but no player can make another move.
+	 * Whether any player can move is only checked again once the board or the hands
+	 * changed, so checking an unchanged game takes constant time.
 	 * 
 	 * @return true if the game is over, false otherwise.
 	 */
-	/*@pure */public boolean gameOver() {
-		for (Player player : players) {
-			if (((player.hasPlay(getBoard().getCopy()) || bag.getSize() > 0) 
-					&& !getBoard().isFull()) 
-					|| getBoard().boardEmpty()) {
-				return false;
+	public boolean gameOver() {
+		if (players.isEmpty()) {
+			return true;
+		}
+		if (board.boardEmpty()) {
+			return false;
+		}
+		if (board.isFull()) {
+			return true;
+		}
+		if (bag.getSize() > 0) {
+			return false;
+		}
+		//Only the moves of the players are left to check.
+		long key = getPlayKey();
+		if (!checked || key != checkedKey) {
+			stuck = true;
+			for (Player player : players) {
+				if (player.hasPlay(board)) {
+					stuck = false;
+					break;
+				}
+			}
+			checked = true;
+			checkedKey = key;
+		}
+		return stuck;
+	}
+
+	/**
+	 * Finds the key of everything that decides whether a player can move: the board and
+	 * the valid tiles in the hand of every player.
+	 * @return the key of the moves of the players.
+	 */
+	/*@pure */private long getPlayKey() {
+		long key = board.getHash() ^ players.size();
+		for (int seat = 0; seat < players.size(); seat++) {
+			for (Tile tile : players.get(seat).getHand()) {
+				if (tile.isValid()) {
+					key += Zobrist.hand(seat, tile.getId());
+				}
 			}
 		}
-		return true;
+		return key;
 	}
 	/**
 	 * Checks if the rotation specified is valid.
@@ -214,6 +308,44 @@ public class Game extends Observable {
 		}
 	}
 
+	/**
+	 * Plays the given tile of the current player on the given field, removes it from their
+	 * hand and deals them a new one.
+	 * @param tile the tile to play.
+	 * @param index the index of the field to play the tile on.
+	 * @param rotation the rotation of the tile.
+	 * @return the points the move scores.
+	 * @throws IllegalMove when the current player does not have the tile or the move is not legal.
+	 */
+	/* @requires tile != null && getCurrentPlayer() != null;
+	   @ensures !getBoard().isEmpty(index) && \result == getBoard().getScore(index);
+	 */
+	public int playTile(Tile tile, int index, int rotation) throws IllegalMove {
+		if (!getCurrentPlayer().hasTileInHand(tile)) {
+			throw new IllegalMove("Error: tile not in hand");
+		}
+		attemptMove(tile, index, rotation);
+		getCurrentPlayer().removeTile(tile);
+		bag.dealHand(getCurrentPlayer(), 1);
+		return board.getScore(index);
+	}
+
+	/**
+	 * Removes the given tile from the hand of the current player and deals them a new one
+	 * if the bag is not empty. The replaced tile leaves the game.
+	 * @param tile the tile to replace.
+	 * @throws IllegalMove when the current player does not have the tile.
+	 */
+	//@requires tile != null && getCurrentPlayer() != null;
+	//@ensures !getCurrentPlayer().hasTileInHand(tile);
+	public void replaceTile(Tile tile) throws IllegalMove {
+		if (!getCurrentPlayer().hasTileInHand(tile)) {
+			throw new IllegalMove("Error: tile not in hand");
+		}
+		getCurrentPlayer().removeTile(tile);
+		bag.dealHand(getCurrentPlayer(), 1);
+	}
+
 	/**
 	 * Removes the given tile from the players hand and gives him a new one.
 	 * @param tile the tile to exchange.
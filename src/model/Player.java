@@ -1,9 +1,6 @@
 package model;
 import java.util.*;
 
-import util.ColourCompare;
-import util.Protocol;
-
 import java.io.*;
 import java.net.*;
 
@@ -216,27 +213,17 @@ public abstract class Player {
 	 */
 	//@requires board != null;
 	/*@pure */public boolean hasPlay(Board board) {
-		if (board.isFull()) {
+		if (board.boardEmpty()) {
+			//Every tile fits on a start field of the empty board.
+			return !getHand().isEmpty();
+		}
+		if (board.getFrontier() == 0L) {
 			return false;
 		}
 
-		for (int i = 0; i < Board.MAX_FIELDS; i++) {
-			List<Character> neighbours = board.edges(i);
-
-			if (board.isEmpty(i) && neighbours.size() > 0) {
-				for (Tile tile : this.getHand()) {
-					for (int j = 0; j < 3; j++) {
-						if (ColourCompare.checkPermutation(tile, i, neighbours, board, j)) {
-							return true;
-						}
-					}
-					if (tile.equals(Protocol.JOKER)) {
-						return true;
-					}
-				}
-
-			} else if (board.isEmpty(i) && board.boardEmpty()) {
-				return SpectrangleBoardPrinter.BONUS.get(i) == 1;
+		for (Tile tile : this.getHand()) {
+			if (board.getLegalFields(tile) != 0L) {
+				return true;
 			}
 		}
 		return false;
@@ -244,6 +231,7 @@ public abstract class Player {
 	
 	/**
 	 * Finds the indices of all the fields the player can put a tile on, per tile.
+	 * Every index is listed once, however many rotations fit on it.
 	 * 
 	 * @param board a copy of the board to use in the checks.
 	 * @return a map with tiles as keys and a list of their possible locations as
@@ -251,24 +239,39 @@ public abstract class Player {
 	 */
 	/*@pure */public Map<Tile, List<Integer>> getPlays(Board board) {
 		Map<Tile, List<Integer>> result = new HashMap<>();
-		if (!hasPlay(board)) {
-			return result; 
+		long[] fields = getLegalFields(board);
+		boolean any = board.boardEmpty();
+		for (Tile tile : this.getHand()) {
+			long legal = tile.isValid() ? fields[tile.getId()] : board.getLegalFields(tile);
+			any |= legal != 0L;
+			result.put(tile, Board.toIndices(legal));
 		}
-
+		if (!any) {
+			result.clear();
+		}
+		return result;
+	}
+	
+	/**
+	 * Finds the fields every valid tile in the hand can be placed on.
+	 * Tiles occurring more than once in the hand are checked once.
+	 * 
+	 * @param board a copy of the board to use in the checks.
+	 * @return the masks of legal fields indexed by tile id, 0 for tiles not in the hand.
+	 */
+	//@requires board != null;
+	//@ensures \result.length == Tile.NUMBER_OF_TILES;
+	/*@pure */public long[] getLegalFields(Board board) {
+		long[] fields = new long[Tile.NUMBER_OF_TILES];
+		long checked = 0L;
 		for (Tile tile : this.getHand()) {
-			List<Integer> list = new ArrayList<>();
-			for (int i = 0; i < Board.MAX_FIELDS; i++) {
-				List<Character> neighbours = board.edges(i);
-				if (board.isEmpty(i) && neighbours.size() > 0) {
-					ColourCompare.compare(tile, i, neighbours, board, list);
-				} else if (board.isEmpty(i) && board.boardEmpty() && 
-						SpectrangleBoardPrinter.BONUS.get(i) == 1) {
-					list.add(i);
-				}
+			int id = tile.getId();
+			if (id != Tile.NO_ID && (checked & (1L << id)) == 0) {
+				checked |= 1L << id;
+				fields[id] = board.getLegalFields(tile);
 			}
-			result.put(tile, list);
 		}
-		return result;
+		return fields;
 	}
 	
 	 /**
@@ -1,91 +1,185 @@
 package model;
 
+import util.ColourCompare;
 import util.Protocol;
 
 /**
  * This is the class describing a Tile in the Spectrangle game.
+ * Tiles are immutable. The 36 tiles of the game are kept in a registry and can be
+ * identified by their id, the orientation of a placed tile is described by the
+ * field it is placed on and its rotation instead of by the tile itself.
  * @author Alina Maximova, s2032074
  *
  */
 public class Tile {
+	public static final int NUMBER_OF_TILES = 36;
+	public static final int NO_ID = -1;
+	private static final String[] CANONICAL = {
+		"RRR6", "BBB6", "GGG6", "YYY6", "PPP6",
+		"RRY5", "RRP5", "BBR5", "BBP5", "GGR5", "GGB5", "YYG5", "YYB5", "PPY5", "PPG5",
+		"RRB4", "RRG4", "BBG4", "BBY4", "GGY4", "GGP4", "YYR4", "YYP4", "PPR4", "PPB4",
+		"YBP3", "RGY3", "BGP3", "GRB3",
+		"BRP2", "YPR2", "YPG2",
+		"GRP1", "BYG1", "RYB1",
+		"WWW1"
+	};
+	private static final Tile[] REGISTRY = new Tile[NUMBER_OF_TILES];
+	private static final byte[] IDS = new byte[1 << 12];
 	private final int value;
-	private char side1;
-	private char side2;
-	private char side3;
-	private boolean flipped = false;
+	private final char side1;
+	private final char side2;
+	private final char side3;
+	private final int id;
+	private final int codes;
+	
+	static {
+		//Creates the canonical instance of every tile of the game.
+		for (int i = 0; i < NUMBER_OF_TILES; i++) {
+			String tile = CANONICAL[i];
+			REGISTRY[i] = new Tile(tile.charAt(0), tile.charAt(1), tile.charAt(2), 
+					tile.charAt(3) - '0', i);
+			IDS[key(tile.charAt(0), tile.charAt(1), tile.charAt(2), tile.charAt(3) - '0')] = 
+					(byte) (i + 1);
+		}
+	}
 	
 	/**
 	 * Class Tile constructor.
+	 * Prefer <code>valueOf</code>, which returns the shared instance of valid tiles.
 	 * @param s1 the letter representing the color of 1/3 of the tile
 	 * @param s2 the letter representing the color of 1/3 of the tile
 	 * @param s3 the letter representing the color of 1/3 of the tile
 	 * @param value the value of the tile
 	 */
 	public Tile(char s1, char s2, char s3, int value) {
+		this(s1, s2, s3, value, findId(s1, s2, s3, value));
+	}
+	
+	/**
+	 * Class Tile constructor with a known id.
+	 * @param s1 the letter representing the color of 1/3 of the tile
+	 * @param s2 the letter representing the color of 1/3 of the tile
+	 * @param s3 the letter representing the color of 1/3 of the tile
+	 * @param value the value of the tile
+	 * @param id the id of the tile in the registry, <code>NO_ID</code> if it is not valid.
+	 */
+	private Tile(char s1, char s2, char s3, int value, int id) {
 		this.side1 = s1;
 		this.side2 = s2;
 		this.side3 = s3;
 		this.value = value;
+		this.id = id;
+		this.codes = (ColourCompare.findColourCode(s1) & 0xF)
+				| (ColourCompare.findColourCode(s2) & 0xF) << 4
+				| (ColourCompare.findColourCode(s3) & 0xF) << 8;
 	}
 	
 	/**
-	 * Method counts and returns the value of the tile.
-	 * @return the value of the Tile
+	 * Finds the tile with the given colours and value.
+	 * @param s1 the colour of the left side.
+	 * @param s2 the colour of the vertical side.
+	 * @param s3 the colour of the right side.
+	 * @param value the value of the tile.
+	 * @return the shared instance if the tile is valid, a new invalid tile otherwise.
 	 */
-	/*@pure */public int getValue() {
-		return value;
+	//@ensures \result.equals(new Tile(s1, s2, s3, value));
+	/*@pure */public static Tile valueOf(char s1, char s2, char s3, int value) {
+		int id = findId(s1, s2, s3, value);
+		return id == NO_ID ? new Tile(s1, s2, s3, value, NO_ID) : REGISTRY[id];
 	}
 	
 	/**
-	 * Method for flipping a tile.
+	 * Parses a tile from its four character protocol form, for example "RRY5".
+	 * @param tile the protocol form of the tile.
+	 * @return the shared instance if the tile is valid, a new invalid tile otherwise.
+	 * @throws IllegalArgumentException when the given text is not of the protocol form.
 	 */
-	/*
-	 * @ensures getColourL() == \old(getColourR()) &&
-	 			getColourR() == \old(getColourL()) &&
-	 			isFlipped() == !\old(isFlipped());
+	//@requires tile != null;
+	/*@pure */public static Tile parse(CharSequence tile) {
+		if (tile.length() != 4 || !Character.isDigit(tile.charAt(3))) {
+			throw new IllegalArgumentException("Not a tile: " + tile);
+		}
+		return valueOf(tile.charAt(0), tile.charAt(1), tile.charAt(2), 
+				Character.digit(tile.charAt(3), 10));
+	}
+	
+	/**
+	 * Finds the valid tile with the given id.
+	 * @param id the id of the tile.
+	 * @return the shared instance of the tile.
 	 */
-	public void flip() {
-		char tmp;
-		tmp = side1;
-		side1 = side3;
-		side3 = tmp;
-		flipped = !flipped;
+	//@requires 0 <= id && id < NUMBER_OF_TILES;
+	//@ensures \result.getId() == id;
+	/*@pure */public static Tile get(int id) {
+		return REGISTRY[id];
 	}
+	
+	/**
+	 * @return the shared instances of all the valid tiles, ordered by id.
+	 */
+	//@ensures \result.length == NUMBER_OF_TILES;
+	/*@pure */public static Tile[] getValidTiles() {
+		return REGISTRY.clone();
+	}
+	
 	/**
-	 * Method for getting whether the tile is flipped.
-	 * @return true if the tile is flipped
+	 * @return the id of this tile, <code>NO_ID</code> if the tile is not valid.
 	 */
-	/*@pure */public boolean isFlipped() {
-		return flipped;
+	//@ensures isValid() ==> get(\result).equals(this);
+	/*@pure */public int getId() {
+		return id;
 	}
+	
 	/**
-	 * Method for getting a graphical representation of the flipped tile.
+	 * Method counts and returns the value of the tile.
+	 * @return the value of the Tile
+	 */
+	/*@pure */public int getValue() {
+		return value;
+	}
+	
+	/**
+	 * Method for getting a graphical representation of the tile pointing upwards.
 	 * @param rotation the rotation with which to display the tile. 
 	 * @return the string representation of a tile.
 	 */
 	//@ensures \result != null;
 	/*@pure */public String graphicRepresentation(int rotation) {
+		return graphicRepresentation(rotation, true);
+	}
+	
+	/**
+	 * Method for getting a graphical representation of the tile.
+	 * A tile pointing downwards is shown flipped, its left and right sides swapped.
+	 * @param rotation the rotation with which to display the tile. 
+	 * @param up whether the tile points upwards or downwards.
+	 * @return the string representation of a tile.
+	 */
+	//@ensures \result != null;
+	/*@pure */public String graphicRepresentation(int rotation, boolean up) {
 		String result = "";
-		if (flipped) {
+		if (!up) {
+			char left = getColourR();
+			char right = getColourL();
 			switch (rotation) {
 				case 0:
 					result += "-------- \n";
 					result += "\\   " + getColourV() + "  / \n";
-					result += " \\" + getColourL() + "  " + getColourR() + "/  \n";
+					result += " \\" + left + "  " + right + "/  \n";
 					result += "  \\" + getValue() + " /   \n";
 					result += "   \\/     \n";
 					break;
 				case 1:
 					result += "-------- \n";
-					result += "\\   " + getColourL() + "  / \n";
-					result += " \\" + getColourR() + "  " + getColourV() + "/  \n";
+					result += "\\   " + left + "  / \n";
+					result += " \\" + right + "  " + getColourV() + "/  \n";
 					result += "  \\" + getValue() + " /   \n";
 					result += "   \\/     \n";
 					break;
 				case 2:
 					result += "-------- \n";
-					result += "\\   " + getColourR() + "  / \n";
-					result += " \\" + getColourV() + "  " + getColourL() + "/  \n";
+					result += "\\   " + right + "  / \n";
+					result += " \\" + getColourV() + "  " + left + "/  \n";
 					result += "  \\" + getValue() + " /   \n";
 					result += "   \\/     \n";
 					break;
@@ -141,6 +235,32 @@ public class Tile {
 	/*@pure */public char getColourR() {
 		return side3;
 	}
+	/**
+	 * Gets the color of the given side.
+	 * @param side <code>Board.LEFT</code>, <code>Board.VERTICAL</code> or 
+	 * <code>Board.RIGHT</code>.
+	 * @return the color of the side.
+	 */
+	/*@pure */public char getColour(int side) {
+		switch (side) {
+			case Board.LEFT:
+				return side1;
+			case Board.RIGHT:
+				return side3;
+			default:
+				return side2;
+		}
+	}
+	/**
+	 * Gets the code of the color of the given side.
+	 * @param side <code>Board.LEFT</code>, <code>Board.VERTICAL</code> or 
+	 * <code>Board.RIGHT</code>.
+	 * @return the code of the color as given by <code>ColourCompare.colourCode</code>,
+	 * 15 if the color is not a spectrangle color.
+	 */
+	/*@pure */public int getColourCode(int side) {
+		return (codes >>> (side << 2)) & 0xF;
+	}
 	/**
 	 * Converts the tile to string for easier understanding of a user.
 	 * @return the the String representation of the tile
@@ -152,17 +272,9 @@ public class Tile {
 	 * Checking if the tile exists.
 	 * @return true if the tile is valid (has correct colors)
 	 */
-	//@ensures \result == true || \result == false;
+	//@ensures \result == (getId() != NO_ID);
 	/*@pure */public boolean isValid() {
-		for (Tile tile : Protocol.VALIDTILES) {
-			if (tile.getColourL() == getColourL() &&
-					tile.getColourR() == getColourR() &&
-					tile.getColourV() == getColourV() &&
-					tile.getValue() == getValue()) {
-				return true;
-			}
-		}
-		return false;
+		return id != NO_ID;
 	}
 	/**
 	 * Checking if the tile is a Joker.
@@ -175,34 +287,6 @@ public class Tile {
 		return side1 == Protocol.WHITE && side2 == Protocol.WHITE && side3 == Protocol.WHITE;
 	}
 	
-	/**
-	 * Setting the color of the first side.
-	 * @param s1 color of the 1/3 of the tile to set
-	 */
-	//@ensures getColourL() == s1;
-	public void setColourL(char s1) {
-		side1 = s1;
-	}
-	
-	/**
-	 * 
-	 * Setting the color of the second side.
-	 * @param s2 color of the 1/3 of the tile to set
-	 */
-	//@ensures getColourV() == s2;
-	public void setColourV(char s2) {
-		side2 = s2;
-	}
-	
-	/**
-	 * Setting the color of the third side.
-	 * @param s3 color of the 1/3 of the tile to set
-	 */
-	//@ensures getColourR() == s3;
-	public void setColourR(char s3) {
-		side3 = s3;
-	}
-
 	@Override
 	/*
 	 * @requires o != null;
@@ -222,4 +306,46 @@ public class Tile {
 		}
 		
 	}
+	
+	@Override
+	/*
+	 * @ensures isValid() ==> \result == getId();
+	 */
+	public int hashCode() {
+		if (id != NO_ID) {
+			return id;
+		}
+		return ((side1 * 31 + side2) * 31 + side3) * 31 + value;
+	}
+	
+	/**
+	 * Finds the id of the tile with the given colours and value.
+	 * @param s1 the colour of the left side.
+	 * @param s2 the colour of the vertical side.
+	 * @param s3 the colour of the right side.
+	 * @param value the value of the tile.
+	 * @return the id of the tile, <code>NO_ID</code> if the tile is not valid.
+	 */
+	/*@pure */private static int findId(char s1, char s2, char s3, int value) {
+		int key = key(s1, s2, s3, value);
+		return key < 0 ? NO_ID : IDS[key] - 1;
+	}
+	
+	/**
+	 * Packs the given colours and value into a key of twelve bits.
+	 * @param s1 the colour of the left side.
+	 * @param s2 the colour of the vertical side.
+	 * @param s3 the colour of the right side.
+	 * @param value the value of the tile.
+	 * @return the key, -1 if a colour or the value can not be packed.
+	 */
+	/*@pure */private static int key(char s1, char s2, char s3, int value) {
+		int c1 = ColourCompare.findColourCode(s1);
+		int c2 = ColourCompare.findColourCode(s2);
+		int c3 = ColourCompare.findColourCode(s3);
+		if (c1 <= 0 || c2 <= 0 || c3 <= 0 || value <= 0 || value > 7) {
+			return -1;
+		}
+		return (c1 << 9) | (c2 << 6) | (c3 << 3) | value;
+	}
 }
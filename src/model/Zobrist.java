@@ -0,0 +1,105 @@
+package model;
+
+import java.util.SplittableRandom;
+
+/**
+ * A class holding the random keys used to hash the state of a game of spectrangle.
+ * A position is hashed by combining the keys of all its parts with exclusive or, so the
+ * hash can be updated incrementally when a part changes.
+ * The keys are generated from a fixed seed, so the hashes of equal positions are equal
+ * on the server and on every client.
+ * @author P.M. Bos
+ */
+public final class Zobrist {
+	private static final long SEED = 0x5BEC7A4A1E5L;
+	private static final int ROTATIONS = 3;
+	private static final long[] PLACEMENT =
+			new long[Board.MAX_FIELDS * Tile.NUMBER_OF_TILES * ROTATIONS];
+	private static final long[][] HAND = new long[Game.MAX_PLAYERS][Tile.NUMBER_OF_TILES];
+	private static final long[] TURN = new long[Game.MAX_PLAYERS];
+	private static final long FIRST_PLAY;
+
+	static {
+		SplittableRandom random = new SplittableRandom(SEED);
+		for (int i = 0; i < PLACEMENT.length; i++) {
+			PLACEMENT[i] = random.nextLong();
+		}
+		for (long[] seat : HAND) {
+			for (int i = 0; i < seat.length; i++) {
+				seat[i] = random.nextLong();
+			}
+		}
+		for (int i = 0; i < TURN.length; i++) {
+			TURN[i] = random.nextLong();
+		}
+		FIRST_PLAY = random.nextLong();
+	}
+
+	/**
+	 * Zobrist only has static members.
+	 */
+	private Zobrist() {
+	}
+
+	/**
+	 * Finds the key of the given tile placed on the given field in the given rotation.
+	 * Rotations of a tile with three sides of the same colour share their key, as they
+	 * result in the same position.
+	 * @param index the index of the field.
+	 * @param id the id of the tile.
+	 * @param rotation the rotation of the tile.
+	 * @return the key of the placement.
+	 */
+	/*@requires 0 <= index && index < Board.MAX_FIELDS
+	  			&& 0 <= id && id < Tile.NUMBER_OF_TILES
+	  			&& 0 <= rotation && rotation < 3;
+	 */
+	/*@pure */public static long placement(int index, int id, int rotation) {
+		Tile tile = Tile.get(id);
+		if (tile.getColourL() == tile.getColourV() && tile.getColourV() == tile.getColourR()) {
+			rotation = 0;
+		}
+		return PLACEMENT[(index * Tile.NUMBER_OF_TILES + id) * ROTATIONS + rotation];
+	}
+
+	/**
+	 * Finds the key of a field holding contents that are not a valid tile.
+	 * @param index the index of the field.
+	 * @param contents the packed value and colours of the field.
+	 * @return the key of the contents.
+	 */
+	/*@pure */public static long contents(int index, int contents) {
+		long key = SEED + ((long) index << 32 | contents & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+		key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+		key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+		return key ^ (key >>> 31);
+	}
+
+	/**
+	 * Finds the key of the given tile in the hand of the player on the given seat.
+	 * @param seat the position of the player in the game.
+	 * @param id the id of the tile.
+	 * @return the key of the tile in the hand.
+	 */
+	//@requires 0 <= seat && seat < Game.MAX_PLAYERS && 0 <= id && id < Tile.NUMBER_OF_TILES;
+	/*@pure */public static long hand(int seat, int id) {
+		return HAND[seat][id];
+	}
+
+	/**
+	 * Finds the key of the turn of the player on the given seat.
+	 * @param seat the position of the player in the game.
+	 * @return the key of the turn.
+	 */
+	//@requires 0 <= seat && seat < Game.MAX_PLAYERS;
+	/*@pure */public static long turn(int seat) {
+		return TURN[seat];
+	}
+
+	/**
+	 * @return the key of a board on which the first tile has not been played.
+	 */
+	/*@pure */public static long firstPlay() {
+		return FIRST_PLAY;
+	}
+}
@@ -1,6 +1,11 @@
 package model.test;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
 import model.Bag;
 import model.ComputerPlayer;
 import model.Player;
@@ -39,6 +44,8 @@ public class BagTest {
 		list.getTiles().remove(0);
 		list.add(tile);
 		assertTrue(list.getTiles().contains(tile));
+		assertThrows(IllegalStateException.class, () -> list.add(tile1));
+		assertEquals(list.getSize(), Bag.SIZE);
 	}
 	@Test
 	void testShuffle() {
@@ -53,5 +60,37 @@ public class BagTest {
 		bag.dealHand(player, 2);
 		assertEquals(player.numInHand(), 2);
 	}
+	
+	@Test
+	void testDealHands() {
+		List<Player> players = new ArrayList<>();
+		players.add(new ComputerPlayer("first", 2));
+		players.add(new ComputerPlayer("second", 2));
+		bag.dealHands(players, 4);
+		assertEquals(bag.getSize(), Bag.SIZE - 8);
+		for (Player player : players) {
+			assertEquals(player.numInHand(), 4);
+			for (Tile dealt : player.getHand()) {
+				assertFalse(bag.getTiles().contains(dealt));
+			}
+		}
+	}
+	
+	@Test
+	void testSeededDraws() {
+		Bag first = new Bag(new SplittableRandom(42));
+		Bag second = new Bag(new SplittableRandom(42));
+		for (int i = 0; i < Bag.SIZE; i++) {
+			Tile drawn = first.draw();
+			assertEquals(drawn, second.draw());
+			assertFalse(first.getTiles().contains(drawn));
+		}
+		assertEquals(first.getSize(), 0);
+		
+		Player player = new ComputerPlayer("test", 2);
+		bag.dealHand(player, Bag.SIZE + 1);
+		assertEquals(player.numInHand(), Bag.SIZE);
+		assertEquals(bag.getSize(), 0);
+	}
 
 }
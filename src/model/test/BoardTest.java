@@ -2,6 +2,7 @@ package model.test;
 import model.Board;
 import model.SpectrangleBoardPrinter;
 import model.Tile;
+import util.ColourCompare;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -88,13 +89,153 @@ class BoardTest {
 		assertEquals(board.getField(4).value(), 0);
 	}
 	
+	@Test
+	void testOccupiedMask() {
+		assertTrue(board.boardEmpty());
+		assertEquals(board.getOccupied(), 0L);
+		board.setTile(4, new Tile('B', 'G', 'G', 3), 0);
+		assertFalse(board.boardEmpty());
+		assertEquals(board.getOccupied(), 1L << 4);
+		assertEquals(board.getValue(4), 3);
+		board.remove(4);
+		assertTrue(board.boardEmpty());
+		for (int i = 0; i < Board.MAX_FIELDS; i++) {
+			board.setTile(i, new Tile('R', 'R', 'R', 6), 0);
+		}
+		assertTrue(board.isFull());
+		assertEquals(board.getOccupied(), Board.FULL);
+	}
+	
 	@Test
 	void testGetNeighbour() {
 		assertEquals(board.getNeighbour(11, 'V'), 19);
 	}
 	
+	@Test
+	void testNeighbourTable() {
+		for (int i = 0; i < Board.MAX_FIELDS; i++) {
+			int left = Board.getAdjacent(i, Board.LEFT);
+			int vertical = Board.getAdjacent(i, Board.VERTICAL);
+			int right = Board.getAdjacent(i, Board.RIGHT);
+			assertEquals(board.getNeighbour(i, 'L'), left);
+			assertEquals(board.getNeighbour(i, 'V'), vertical);
+			assertEquals(board.getNeighbour(i, 'R'), right);
+			if (left != Board.NO_NEIGHBOUR) {
+				assertEquals(Board.getAdjacent(left, Board.RIGHT), i);
+			}
+			if (vertical != Board.NO_NEIGHBOUR) {
+				assertEquals(Board.getAdjacent(vertical, Board.VERTICAL), i);
+				assertNotEquals(board.isUp(vertical), board.isUp(i));
+			}
+			assertEquals(Board.getBonus(i), (int) SpectrangleBoardPrinter.BONUS.get(i));
+		}
+	}
+	
+	@Test
+	void testRotationsAgainstNeighbour() {
+		board.setTile(0, new Tile('R', 'R', 'R', 6), 0);
+		Tile tile = new Tile('G', 'R', 'B', 3);
+		assertTrue(board.isValidMove(tile, 2, 0));
+		assertFalse(board.isValidMove(tile, 2, 1));
+		assertFalse(board.isValidMove(tile, 2, 2));
+		for (int rotation = 0; rotation < 3; rotation++) {
+			assertEquals(ColourCompare.checkPermutation(tile, 2, board, rotation),
+					ColourCompare.checkPermutation(tile, 2, board.edges(2), board, rotation));
+		}
+	}
+	
 	@Test
 	void testToString() {
 		System.out.println(board);
 	}
+	
+	@Test
+	void testFrontier() {
+		assertEquals(0L, board.getFrontier());
+		board.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		assertEquals(1L << 2, board.getFrontier());
+		board.setTile(2, Tile.valueOf('W', 'W', 'W', 1), 0);
+		assertEquals((1L << 1) | (1L << 3), board.getFrontier());
+		board.remove(0);
+		assertEquals((1L << 0) | (1L << 1) | (1L << 3), board.getFrontier());
+		board.remove(2);
+		assertEquals(0L, board.getFrontier());
+		board.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		board.reset();
+		assertEquals(0L, board.getFrontier());
+	}
+	
+	@Test
+	void testConstraints() {
+		board.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		int red = ColourCompare.colourCode('R');
+		assertEquals(red << (4 * Board.VERTICAL), board.getConstraints(2));
+		board.setTile(2, Tile.valueOf('W', 'W', 'W', 1), 0);
+		assertEquals(Board.ANY_COLOUR, board.getConstraints(1));
+		board.remove(0);
+		assertEquals(Board.ANY_COLOUR, board.getConstraints(2));
+		assertTrue(board.getCopy().isValidMove(Tile.valueOf('B', 'B', 'B', 6), 0, 0));
+	}
+	
+	@Test
+	void testMakeUnmakeMove() {
+		Board before = board.getCopy();
+		long first = board.makeMove(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		long second = board.makeMove(2, Tile.valueOf('G', 'R', 'B', 3), 1);
+		assertFalse(board.isFirstPlay());
+		assertEquals(Tile.valueOf('G', 'R', 'B', 3), board.getTile(2));
+		assertEquals(1, board.getRotation(2));
+		assertEquals(board.getCopy().getScore(2), board.getScore(2));
+		
+		board.unmakeMove(second);
+		assertTrue(board.isEmpty(2));
+		assertEquals(1L << 2, board.getFrontier());
+		board.unmakeMove(first);
+		assertTrue(board.isFirstPlay());
+		assertTrue(board.boardEmpty());
+		assertEquals(before.toString(), board.toString());
+		assertEquals(0L, board.getFrontier());
+		for (int i = 0; i < Board.MAX_FIELDS; i++) {
+			assertEquals(before.getConstraints(i), board.getConstraints(i));
+			assertNull(board.getTile(i));
+			assertEquals(-1, board.getRotation(i));
+		}
+	}
+	
+	@Test
+	void testCopyIsIndependent() {
+		board.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		Board copy = board.getCopy();
+		copy.setTile(2, Tile.valueOf('R', 'R', 'R', 6), 0);
+		copy.remove(0);
+		assertFalse(board.isEmpty(0));
+		assertTrue(board.isEmpty(2));
+		assertEquals(1L << 2, board.getFrontier());
+	}
+	
+	@Test
+	void testHash() {
+		long empty = board.getHash();
+		assertEquals(empty, new Board().getHash());
+		long undo = board.makeMove(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		long placed = board.getHash();
+		assertNotEquals(empty, placed);
+		
+		Board other = new Board();
+		other.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 2);
+		assertEquals(placed, other.getHash());
+		assertEquals(placed, new Board(board.getFields(), false).getHash());
+		
+		board.setTile(2, Tile.valueOf('G', 'R', 'B', 3), 0);
+		other.setTile(2, Tile.valueOf('G', 'R', 'B', 3), 1);
+		assertNotEquals(board.getHash(), other.getHash());
+		assertEquals(board.getHash(), board.getCopy().getHash());
+		
+		board.remove(2);
+		assertEquals(placed, board.getHash());
+		board.unmakeMove(undo);
+		assertEquals(empty, board.getHash());
+		other.reset();
+		assertEquals(empty, other.getHash());
+	}
 }
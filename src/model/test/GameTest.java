@@ -13,6 +13,7 @@ import model.*;
 import server.Controller;
 import server.ServerUI;
 import strategies.StupidStrategy;
+import util.Protocol;
 class GameTest {
 	//May throw null pointer exceptions due to the handle console input thread not being 
 	//initialized properly.
@@ -108,5 +109,78 @@ class GameTest {
 		game.exchangeTile(game.getCurrentPlayer().getHand().get(0));
 		assertNotEquals(game.getCurrentPlayer().getHand(), list);
 	}
+	
+	@Test
+	void testPlayTile() throws IllegalMove {
+		game.addPlayer(player1);
+		game.setCurrentPlayer(player1);
+		assertThrows(IllegalMove.class, () -> game.playTile(tile, 0, 0));
+		
+		//Takes the tile out of the bag, so it cannot be dealt again.
+		game.getBag().getTiles().remove(tile);
+		player1.add(tile);
+		int size = game.getBag().getSize();
+		assertEquals(game.playTile(tile, 0, 0), game.getBoard().getScore(0));
+		assertFalse(player1.hasTileInHand(tile));
+		assertEquals(player1.getHand().size(), 1);
+		assertEquals(game.getBag().getSize(), size - 1);
+		
+		Tile replaced = player1.getHand().get(0);
+		game.replaceTile(replaced);
+		assertFalse(player1.hasTileInHand(replaced));
+		assertEquals(player1.getHand().size(), 1);
+		assertEquals(game.getBag().getSize(), size - 2);
+	}
+	
+	@Test
+	void testReplaceTileNotInHand() {
+		game.addPlayer(player1);
+		game.setCurrentPlayer(player1);
+		//Takes the tile out of the bag, so it cannot be dealt.
+		game.getBag().getTiles().remove(tile);
+		game.getBag().dealHand(player1, 4);
+		int size = game.getBag().getSize();
+		
+		//A tile the player does not have cannot be replaced for a fifth one.
+		assertThrows(IllegalMove.class, () -> game.replaceTile(tile));
+		assertEquals(player1.getHand().size(), 4);
+		assertEquals(game.getBag().getSize(), size);
+	}
+	
+	@Test
+	void testGameOver() throws IllegalMove {
+		game.addPlayer(player1);
+		game.addPlayer(player2);
+		game.setCurrentPlayer(player1);
+		assertFalse(game.gameOver());
+		
+		while (game.getBag().getSize() > 0) {
+			game.getBag().draw();
+		}
+		game.attemptMove(tile, 0, 0);
+		assertTrue(game.gameOver());
+		player2.add(Protocol.JOKER);
+		assertFalse(game.gameOver());
+		player2.removeTile(Protocol.JOKER);
+		assertTrue(game.gameOver());
+	}
+	
+	@Test
+	void testStateHash() {
+		game.addPlayer(player1);
+		game.addPlayer(player2);
+		game.setCurrentPlayer(player1);
+		long start = game.getStateHash();
+		assertEquals(game.getBoard().getHash(), start ^ Zobrist.turn(0));
+		
+		player1.add(tile);
+		long dealt = game.getStateHash();
+		assertNotEquals(start, dealt);
+		game.setCurrentPlayer(player2);
+		assertNotEquals(dealt, game.getStateHash());
+		game.setCurrentPlayer(player1);
+		player1.removeTile(tile);
+		assertEquals(start, game.getStateHash());
+	}
 
 }
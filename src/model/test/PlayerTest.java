@@ -1,5 +1,6 @@
 package model.test;
 import model.*;
+import util.Protocol;
 import strategies.StupidStrategy;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -77,6 +78,7 @@ class PlayerTest {
 	
 	@Test
 	void testHasPlay() {
+		assertFalse(player.hasPlay(board.getCopy()));
 		bag.dealHand(player, 4);
 		assertTrue(player.hasPlay(board.getCopy()));
 		player.removeTile(0);
@@ -100,4 +102,18 @@ class PlayerTest {
 			System.out.println(entry.getKey() + " " + entry.getValue());
 		}
 	}
+	
+	@Test
+	void testGetPlaysOfEqualTiles() {
+		player.add(new Tile('R', 'R', 'R', 6));
+		player.add(new Tile('R', 'R', 'R', 6));
+		board.setTile(0, Tile.valueOf('R', 'R', 'R', 6), 0);
+		Map<Tile, List<Integer>> map = player.getPlays(board.getCopy());
+		assertEquals(1, map.size());
+		assertEquals(List.of(2), map.get(Tile.valueOf('R', 'R', 'R', 6)));
+		
+		long[] fields = player.getLegalFields(board);
+		assertEquals(1L << 2, fields[Tile.valueOf('R', 'R', 'R', 6).getId()]);
+		assertEquals(Board.START, new Board().getLegalFields(Protocol.JOKER));
+	}
 }
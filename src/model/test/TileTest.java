@@ -1,6 +1,7 @@
 package model.test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import model.Board;
 import model.Tile;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -50,19 +51,34 @@ public class TileTest {
 		assertFalse(tile.isJoker());
 	}
 	@Test
-	void testSetSide1() {
-		tile.setColourL('W');
-		assertEquals(tile.getColourL(), 'W');
+	void testRegistry() {
+		Tile[] tiles = Tile.getValidTiles();
+		assertEquals(Tile.NUMBER_OF_TILES, tiles.length);
+		for (int i = 0; i < tiles.length; i++) {
+			assertEquals(i, tiles[i].getId());
+			assertSame(tiles[i], Tile.get(i));
+			assertTrue(tiles[i].isValid());
+		}
+		assertEquals(Tile.NO_ID, notValTile.getId());
+		assertSame(Tile.get(tile.getId()), Tile.valueOf('R', 'R', 'R', 6));
+		assertTrue(Tile.get(Tile.NUMBER_OF_TILES - 1).isJoker());
 	}
 	@Test
-	void testSetSide2() {
-		tile.setColourV('W');
-		assertEquals(tile.getColourV(), 'W');
+	void testParse() {
+		assertSame(Tile.valueOf('R', 'R', 'R', 6), Tile.parse("RRR6"));
+		assertSame(Tile.valueOf('W', 'W', 'W', 1), Tile.parse("WWW1"));
+		assertEquals(tile, Tile.parse("RRR6"));
+		assertFalse(Tile.parse("RRR5").isValid());
+		assertFalse(Tile.parse("rGb1").isValid());
+		assertThrows(IllegalArgumentException.class, () -> Tile.parse("RRR"));
+		assertThrows(IllegalArgumentException.class, () -> Tile.parse("RRRR"));
 	}
 	@Test
-	void testSetSide3() {
-		tile.setColourR('W');
-		assertEquals(tile.getColourR(), 'W');
+	void testGetColour() {
+		Tile mixed = Tile.parse("GRB3");
+		assertEquals('G', mixed.getColour(Board.LEFT));
+		assertEquals('R', mixed.getColour(Board.VERTICAL));
+		assertEquals('B', mixed.getColour(Board.RIGHT));
 	}
 	
 	@Test
@@ -70,13 +86,19 @@ public class TileTest {
 		assertNotEquals(jokerTile, tile);
 	}
 	
+	@Test
+	void testHashCode() {
+		assertEquals(tile.hashCode(), new Tile('R', 'R', 'R', 6).hashCode());
+		assertEquals(notValTile.hashCode(), new Tile('r', 'G', 'b', -1).hashCode());
+		assertEquals(tile.getId(), tile.hashCode());
+	}
+	
 	@Test
 	void testString() {
 		System.out.println(tile.graphicRepresentation(0));
 		System.out.println(tile.graphicRepresentation(1));
-		tile.flip();
-		System.out.println(tile.graphicRepresentation(0));
-		System.out.println(tile.graphicRepresentation(1));
+		System.out.println(tile.graphicRepresentation(0, false));
+		System.out.println(tile.graphicRepresentation(1, false));
 	}
 
 }
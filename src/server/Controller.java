@@ -2,16 +2,18 @@ package server;
 
 import java.io.IOException;
 //import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Observable;
 import java.util.Observer;
-import java.util.Random;
-//import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import exceptions.IllegalMove;
+import exceptions.NotOfProtocol;
 import model.Game;
 import model.Player;
-import model.Tile;
 import util.Protocol;
 
 /**
@@ -21,9 +23,16 @@ import util.Protocol;
 public class Controller extends Thread implements Observer {
 	private final Game game;
 	private final int id;
-	private boolean gameStarted = false;
+	public static final long DEFAULT_FILL_WINDOW = 30000;
+	private volatile boolean gameStarted = false;
+	private boolean open = false;
+	private long fillWindow = DEFAULT_FILL_WINDOW;
+	private Future<?> fillTimer;
 	private final ServerUI tui;
-	private boolean forceGameOver = false;
+	private volatile boolean forceGameOver = false;
+	private final Map<Player, LineReader> readers = new HashMap<>();
+	private final MoveParser parser = new MoveParser();
+	private volatile MoveTimeout moveTimeout = MoveTimeout.DEFAULT;
 
 	/**
 	 * Creates a controller with the given id, preference and ui.
@@ -61,33 +70,33 @@ public class Controller extends Thread implements Observer {
 	}
 
 	/**
-	 * Waits for the game to reach the preferred amount of players, or the minimal
-	 * amount.
+	 * @return the timer starting the game once the fill window passed, null if none was set.
 	 */
-	public synchronized void run() {
-		//Starts a game controller.
-		try {
-			//Will wait until the game starts or the game is forced to terminate.
-			while (!gameStarted && !forceGameOver) {
-				tui.write("Waiting for start conditions to be met", "Game Controller#" + id);
-				this.wait();
-				tui.write("Start conditions  met, starting...", "Game Controller#" + id);
-				try {
-					//Will wait for 30 seconds if the players do not care how many they play with.
-					if (game.getPreference() == -1) {
-						Thread.sleep(30000);
-					}
-				} catch (InterruptedException e) {
-					tui.writeError(e, "Game Controller#" + id);
-				}
-				//Indicates the game has started.
-				gameStarted = true;
-			}
-		} catch (InterruptedException | IllegalMonitorStateException e) {
-			tui.writeError(e, "Game Controller#" + id);
-		}
+	/*@pure */public synchronized Future<?> getFillTimer() {
+		return fillTimer;
+	}
+
+	/**
+	 * @return the time a player of this game gets to make a move.
+	 */
+	/*@pure */public MoveTimeout getMoveTimeout() {
+		return moveTimeout;
+	}
 
+	/**
+	 * Sets the time a player of this game gets to make a move.
+	 * @param moveTimeout the new move timeout.
+	 */
+	//@requires moveTimeout != null;
+	//@ensures getMoveTimeout() == moveTimeout;
+	public void setMoveTimeout(MoveTimeout moveTimeout) {
+		this.moveTimeout = moveTimeout;
+	}
 
+	/**
+	 * Plays the game once its lobby started it, then cleans up.
+	 */
+	public void run() {
 		try {
 			//If the game is not forced to terminate, 
 			//will select a starting player and run the game.
@@ -103,6 +112,20 @@ public class Controller extends Thread implements Observer {
 		}
 	}
 
+	/**
+	 * Opens the lobby of this game: from now on the controller starts the game on its own
+	 * thread as soon as the start requirements are met.
+	 * @param window the time in milliseconds to wait for more players once the minimal
+	 * amount joined, when the players do not care how many they play with.
+	 */
+	//@requires window >= 0;
+	public synchronized void open(long window) {
+		tui.write("Waiting for start conditions to be met", "Game Controller#" + id);
+		this.fillWindow = window;
+		this.open = true;
+		checkStart();
+	}
+
 	/**
 	 * Checks if the start requirements are met when the number of players of the
 	 * game increases. Decreases the number of players if a client is unreachable.
@@ -111,11 +134,70 @@ public class Controller extends Thread implements Observer {
 	public synchronized void update(Observable o, Object arg) {
 		//Checks if the game is ready to start each time the player count increases.
 		tui.write("Number of players: " + game.getNumberOfPlayers(), "Game Controller#" + id);
-		if ((game.getNumberOfPlayers() == game.getPreference() || game.getPreference() == -1)
-				&& game.getNumberOfPlayers() >= Game.MIN_PLAYERS 
-				&& game.getNumberOfPlayers() <= Game.MAX_PLAYERS) {
-			notify();
+		if (open) {
+			checkStart();
+		}
+	}
+
+	/**
+	 * Starts the game when it reached the preferred number of players. When the players do
+	 * not care how many they play with, starts it at once when it is full, or when the fill
+	 * window passed after the minimal number of players joined.
+	 */
+	private synchronized void checkStart() {
+		int players = game.getNumberOfPlayers();
+		if (gameStarted || players < Game.MIN_PLAYERS || players > Game.MAX_PLAYERS) {
+			return;
+		}
+		if (game.getPreference() == -1) {
+			if (players == Game.MAX_PLAYERS) {
+				launch();
+			} else if (fillTimer == null) {
+				tui.write("Start conditions met, starting in " + fillWindow + " ms...",
+						"Game Controller#" + id);
+				fillTimer = Scheduler.schedule(this::launch, fillWindow);
+			}
+		} else if (players == game.getPreference()) {
+			launch();
+		}
+	}
+
+	/**
+	 * Stops the game makers from adding players, then starts the game on its own thread.
+	 * Does nothing when the game has already started. A game of players without a
+	 * connection, such as the players of the tests, is sealed but not played, as there is
+	 * no one to ask for moves.
+	 */
+	private void launch() {
+		GameMakerThread.seal(this);
+		synchronized (this) {
+			if (gameStarted) {
+				return;
+			}
+			//Indicates the game has started.
+			gameStarted = true;
+			if (fillTimer != null) {
+				fillTimer.cancel(false);
+			}
+		}
+		if (!isConnected()) {
+			tui.write("Players are not connected, not playing", "Game Controller#" + id);
+			return;
+		}
+		tui.write("Start conditions  met, starting...", "Game Controller#" + id);
+		Threads.start(this, getName());
+	}
+
+	/**
+	 * @return true if every player of the game is connected by a socket.
+	 */
+	/*@pure */private boolean isConnected() {
+		for (Player player : game.getPlayers()) {
+			if (player.getSocket() == null) {
+				return false;
+			}
 		}
+		return true;
 	}
 
 	/**
@@ -139,9 +221,7 @@ public class Controller extends Thread implements Observer {
 		//Plays the game until it terminates.
 		
 		//Deals 4 tiles to the players.
-		for (Player player : game.getPlayers()) {
-			dealPlayerTiles(player, 4);
-		}
+		game.getBag().dealHands(game.getPlayers(), 4);
 		//Tells the clients the game has started.
 		tellAllPlayers(constructGameStarted());
 
@@ -150,72 +230,43 @@ public class Controller extends Thread implements Observer {
 			try {
 				//Sends a move request and waits on input from the client.
 				tellPlayer(game.getCurrentPlayer(), Protocol.MOVEREQUEST);
-				Tile tile = null;
-				Tile copy;
-				int index = -1;
-				int rotation = -1;
 				try {
-					//Uses a future type to put a time-out on the retrieval of input.
-					//If a client exceeds this time-out a move will be made for them
-					//as specified in the protocol
-					GetInputOnTimeout getMove = new 
-							GetInputOnTimeout(Protocol.RETRIES, Protocol.TIMEOUT,
-							game.getCurrentPlayer().getInput(),
-							Protocol.TIMEUNIT);
-					String move;
-
+					//If a client exceeds the time-out it is kicked, as specified in the
+					//protocol.
+					String line;
 					try {
-						//Fetches the move. Replaces any white-spaces that may be introduced
-						//due to reading attempts on the client whilst a move is being sent.
-						//These attempts are to ensure the client is still connected while the
-						//server waits for input.
-						move = getMove.readLine();
-						move = move.replaceAll(" ", "");
+						line = readMove(game.getCurrentPlayer());
 					} catch (InterruptedException e) {
+						line = null;
+					}
+					if (line == null) {
 						tui.write("Timed-out", "Game Controller#" + id);
-						move = Protocol.ACTIONONTIMEOUT;
+						throw new IllegalMove("Error: timed out");
 					}
 
-					//If the server receives a non-null response, interprets it.
-					String[] partsOfMove = move.split(Protocol.DELIMITER);
-
-					switch (partsOfMove[0]) {
+					//Interprets the move, ignoring any white-spaces clients may send between
+					//its parts.
+					Move move = parser.parse(line);
+					switch (move.getType()) {
 						case Protocol.MOVE:
-							tile = getTile(partsOfMove);
-							index = getIndex(partsOfMove[3]);
-							rotation = getRotation(move);
-							copy = new Tile(tile.getColourL(), tile.getColourV(),
-									tile.getColourR(), tile.getValue());
-
-							game.attemptMove(copy, index, rotation);
-							game.getCurrentPlayer().
-								updateScore(game.getBoard().getScore(index));
+							//Plays the tile, then deals the player a new one.
+							game.getCurrentPlayer().updateScore(game.playTile(move.getTile(),
+									move.getIndex(), move.getRotation()));
 							break;
 						case Protocol.TILEREPLACE:
-							tile = getTile(partsOfMove);
+							//Replaces the tile with a new one.
+							game.replaceTile(move.getTile());
 							break;
 						case Protocol.SKIP:
 							break;
-						default:
-							tui.write("Warning: command possibly invalid",
-									"Game Controller#" + id);
-							break;
 					}
 
-					//Removes the played or to be replaced tile from the player's hand.
-					//Then deals them a new one.
-					if (partsOfMove[0].equals(Protocol.MOVE)
-							|| partsOfMove[0].equals(Protocol.TILEREPLACE)) {
-
-						game.getCurrentPlayer().removeTile(tile);
-						game.getBag().dealHand(game.getCurrentPlayer(), 1);
-					}
 					//Informs the clients of the turn made.
-					tellAllPlayers(constructTurnMade(tile, index, rotation, partsOfMove));
+					tellAllPlayers(constructTurnMade(move));
 
-				} catch (IllegalMove e) {
-					//In case of an illegal move this exception is thrown and the player will
-					//be kicked.
+				} catch (IllegalMove | NotOfProtocol e) {
+					//In case of an illegal move or a move not following the protocol the
+					//player will be kicked.
 					tui.writeError(e, "Game Controller#" + id);
 					game.getPlayers().remove(game.getCurrentPlayer());
 					game.getCurrentPlayer().shutdown();
@@ -242,25 +293,37 @@ public class Controller extends Thread implements Observer {
 		tellAllPlayers(constructGameOver());
 	}
 
+	/**
+	 * Waits for the next move of the given player. On virtual threads a reader per player
+	 * blocks on its input, otherwise the game blocks on it with a read timeout.
+	 * @param player the player to read from.
+	 * @return the move read, null if the player did not move in time.
+	 * @throws InterruptedException when the reading is interrupted.
+	 * @throws IOException when the client disconnected.
+	 */
+	private String readMove(Player player) throws InterruptedException, IOException {
+		if (Threads.isVirtual()) {
+			LineReader reader = readers.computeIfAbsent(player,
+				p -> LineReader.start(p.getInput(), "Reader of " + p.name()));
+			return reader.readLine(moveTimeout.toTotalMillis(), TimeUnit.MILLISECONDS);
+		}
+		//Uses the read timeout of the socket to put a time-out on the retrieval of input.
+		GetInputOnTimeout getMove = new GetInputOnTimeout(moveTimeout.getTries(),
+				moveTimeout.getTimeout(), player.getSocket(), player.getInput(),
+				moveTimeout.getUnit());
+		return getMove.readLine();
+	}
+
 	/**
 	 * Selects the starting player of a game of spectrangle and sets that player as
 	 * current player.
 	 */ 
 	//@ensures getGame().getCurrentPlayer() != null;
 	private void setStartingPlayer() {
-		Random random = new Random();
-		int index = random.nextInt(game.getNumberOfPlayers());
+		int index = game.getRandom().nextInt(game.getNumberOfPlayers());
 		game.setCurrentPlayer(game.getPlayers().get(index));
 	}
 
-	/*
-	 * @requires player != null && num >= 0;
-	 * @ensures player.getNumInHand() >= num;
-	 */
-	private void dealPlayerTiles(Player player, int number) {
-		game.getBag().dealHand(player, number);
-	}
-
 	/**
 	 * Sends the given message to all players in the game.
 	 * 
@@ -294,14 +357,7 @@ public class Controller extends Thread implements Observer {
 	 * @return a <code>String</code> indicating the game is over.
 	 */
 	public String constructGameOver() {
-		List<Player> players = game.getPlayers();
-		StringBuilder result = new StringBuilder();
-		result.append(Protocol.GAMEOVER + Protocol.DELIMITER);
-		for (Player player : players) {
-			result.append(player.name()).append(Protocol.DELIMITER).append(player.getScore()).append(Protocol.DELIMITER);
-		}
-
-		return result.toString();
+		return Messages.gameOver(game);
 	}
 
 	/**
@@ -309,118 +365,26 @@ public class Controller extends Thread implements Observer {
 	 */
 	//@requires getGame().getCurrentPlayer() != null;
 	private String constructKick() {
-		return Protocol.PLAYERKICKED + Protocol.DELIMITER + game.getCurrentPlayer().name();
+		return Messages.kick(game.getCurrentPlayer());
 	}
 
 	/**
 	 * @return the string representation of the game started message.
 	 */
 	private String constructGameStarted() { 
-		StringBuilder result = new StringBuilder();
-		result.append(Protocol.GAMESTARTED + Protocol.DELIMITER);
-		result.append("|");
-		for (Player player : game.getPlayers()) {
-			for (Tile tile : player.getHand()) {
-				result.append(tile.getColourL()).append(tile.getColourV())
-						.append(tile.getColourR()).append(tile.getValue());
-				result.append(Protocol.DELIMITER);
-			}
-			result.append(player.name());
-			result.append("|");
-		}
-		return result.toString();
+		return Messages.gameStarted(game);
 	}
 
 	/**
-	 * Constructs a turn made message depending on what move was made.
-	 * @param old the tile used in the play.
-	 * @param index the index the tile was placed on.
-	 * @param rotation the rotation that was used.
-	 * @param move the type of move that was made.
+	 * Constructs a turn made message for the given move of the current player.
+	 * @param move the move that was made.
 	 * @return a <code>String</code> indicating that a turn has been made.
 	 */
-	public String constructTurnMade(Tile old, int index, int rotation, String[] move) {
-		StringBuilder result = new StringBuilder();
-		result.append(Protocol.TURNMADE + Protocol.DELIMITER);
-
-		switch (move[0]) {
-			case Protocol.MOVE:
-				result.append(Protocol.MOVESHORT + Protocol.DELIMITER);
-				result.append(game.getCurrentPlayer().name()).append(Protocol.DELIMITER);
-	
-				for (Tile tile : game.getCurrentPlayer().getHand()) {
-					result.append(tile.getColourL()).append(tile.getColourV()).append(tile.getColourR())
-							.append(tile.getValue()).append(Protocol.DELIMITER);
-				}
-				result.append(old.getColourL()).append(old.getColourV()).append(old.getColourR())
-						.append(old.getValue()).append(Protocol.DELIMITER);
-				result.append(rotation).append(Protocol.DELIMITER);
-				result.append(index);
-				break;
-			case Protocol.TILEREPLACE:
-				result.append(Protocol.REPLACESHORT + Protocol.DELIMITER);
-				result.append(game.getCurrentPlayer().name()).append(Protocol.DELIMITER);
-	
-				for (Tile tile : game.getCurrentPlayer().getHand()) {
-					result.append(tile.getColourL()).append(tile.getColourV()).append(tile.getColourR())
-							.append(tile.getValue()).append(Protocol.DELIMITER);
-				}
-	
-				result.append(old.getColourL()).append(old.getColourV()).append(old.getColourR())
-						.append(old.getValue()).append(Protocol.DELIMITER);
-				break;
-			case Protocol.SKIP:
-				result.append(Protocol.SKIPSHORT + Protocol.DELIMITER);
-				result.append(game.getCurrentPlayer().name()).append(Protocol.DELIMITER);
-	
-				for (Tile tile : game.getCurrentPlayer().getHand()) {
-					result.append(tile.getColourL()).append(tile.getColourV()).append(tile.getColourR())
-							.append(tile.getValue()).append(Protocol.DELIMITER);
-				}
-				break;
-		}
+	//@requires move != null;
+	public String constructTurnMade(Move move) {
+		String result = Messages.turnMade(game, move);
 		tui.write("Turn made: " + result, "Game Controller#" + id);
-		return result.toString();
-	}
-
-	/**
-	 * Finds the first tile in the given argument if it complies with the protocol.
-	 * 
-	 * @param arg the argument to extract a tile from.
-	 * @return a <code>Tile</code> extracted from the string, null if it doesn't
-	 *         comply.
-	 */
-	public Tile getTile(String[] arg) {
-		Tile tile;
-		char[] colours = arg[1].toCharArray();
-		tile = new Tile(colours[0], colours[1], colours[2], 
-				Integer.parseInt("" + colours[3]));
-		return tile;
-	}
-
-	/**
-	 * Finds the index in the given argument if it complies with the protocol.
-	 * 
-	 * @param arg the argument to extract an index from.
-	 * @return a <code>int</code> extracted from the string.
-	 */
-	public int getIndex(String arg) {
-		return Integer.parseInt(arg);
-	}
-
-	/**
-	 * Finds the rotation in the given argument if it complies with the protocol.
-	 * 
-	 * @param arg the argument to extract a rotation from.
-	 * @return an <code>int</code> extracted from the string, -1 if it doesn't
-	 *         comply.
-	 */
-	public int getRotation(String arg) {
-		String[] move = arg.split(Protocol.DELIMITER);
-		if (move[0].equals(Protocol.MOVE)) {
-			return Integer.parseInt(move[2]);
-		}
-		return -1;
+		return result;
 	}
 
 }
@@ -1,46 +1,81 @@
 package server;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.locks.Condition;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import model.Game;
 import model.Player;
 
+/**
+ * A worker seating the players of its queue in games. Any number of workers may run at the
+ * same time: they share one bucket per preference (2, 3, 4 or any), each with its own lock
+ * and at most one open game still taking players. A player is seated in the open game of
+ * the bucket of its preference, or a new one, so seating a player takes constant time no
+ * matter how many games there are. A player who does not care how many players there are
+ * is seated in any open game.
+ */
 public class GameMakerThread extends Thread {
 	//@invariant getQueue() != null && getGames() != null;
-	private List<Player> queue;
-	private static List<Controller> games;
-	private static final Lock LOCK = new ReentrantLock();
-	private static final Condition PLAYERADDED = LOCK.newCondition();
+	public static final int WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+	private static final List<Controller> games = Collections.synchronizedList(new ArrayList<>());
+	private static final Bucket[] BUCKETS = new Bucket[Game.MAX_PLAYERS + 1];
+	private static final AtomicInteger IDS = new AtomicInteger();
+	private final BlockingQueue<Player> queue;
 	private final ServerUI tui;
+	private volatile MoveTimeout moveTimeout = MoveTimeout.DEFAULT;
+	private volatile long fillWindow = Controller.DEFAULT_FILL_WINDOW;
+
+	static {
+		//Bucket 0 holds the games of players who do not care how many players there are.
+		BUCKETS[0] = new Bucket();
+		for (int i = Game.MIN_PLAYERS; i <= Game.MAX_PLAYERS; i++) {
+			BUCKETS[i] = new Bucket();
+		}
+	}
+
+	/**
+	 * The games of one preference, with the game that is still taking players.
+	 */
+	private static final class Bucket {
+		private final Lock lock = new ReentrantLock();
+		private Controller open;
+	}
 
 	/**
 	 * Creates a GameMakerThread initialising the queue and games to 
-	 * an empty list.
+	 * an empty list. Only to be called before any player is queued.
 	 * @param tui the user interface to write to.
 	 */
 	public GameMakerThread(ServerUI tui) {
 		this.setName("GameMaker");
-		queue = new ArrayList<>();
-		games = new ArrayList<>();
+		queue = new LinkedBlockingQueue<>();
+		games.clear();
+		for (Bucket bucket : BUCKETS) {
+			if (bucket != null) {
+				bucket.open = null;
+			}
+		}
 		this.tui = tui;
 	}
 	
 	//Queries
 	
 	/**
-	 * @return a list of players currently in the queue.
+	 * @return the players currently in the queue.
 	 */
-	/*@pure */public List<Player> getQueue() {
+	/*@pure */public BlockingQueue<Player> getQueue() {
 		return queue;
 	}
 	
 	
 	/**
-	 * @return a list of currently active, unstarted games.
+	 * @return a list of currently active games, in the order they were made.
 	 */
 	/*@pure */public static List<Controller> getGames() {
 		return games;
@@ -49,59 +84,17 @@ public class GameMakerThread extends Thread {
 	//Commands
 	
 	/**
-	 * Permanently starts waiting for a <code>Player</code> to be added to the queue.
-	 * When it is, attempts to find a <code>Game</code> for each <code>Player</code> in the
-	 * list at that moment.
-	 * If it cannot, creates a new <code>Game</code> and adds to <code>Player</code> to 
-	 * that <code>Game</code>.
+	 * Permanently waits for a <code>Player</code> to be added to the queue and seats it
+	 * in a <code>Game</code>, until interrupted.
 	 */
 	public void run() {
 		//Runs until instructed to stop.
 		while (true) {
-			//Locks because there is a possibility for multiple game makers to exist,
-			//not implemented.
-			LOCK.lock();
 			try {
-				while (queue.size() == 0) {
-					//Waits for a player to be added to the queue.
-					PLAYERADDED.await();
-				}
+				seat(queue.take());
 			} catch (InterruptedException e) {
 				break;
 			}
-			
-			//Processes the queue.
-			int size = queue.size();
-			for (int i = 0; i < size; i++) {
-				boolean found = false;
-				for (Controller game : games) {
-					//Checks if a game corresponds with the user's wishes.
-					if ((game.getGame().getNumberOfPlayers() < queue.get(i).getPreference() ||
-							queue.get(i).getPreference() == -1) && (
-							game.getGame().getNumberOfPlayers() + 1 <=
-							game.getGame().getPreference() ||
-							game.getGame().getPreference() == -1) &&
-							!game.hasStarted() &&
-							game.getGame().getNumberOfPlayers() <= Game.MAX_PLAYERS &&
-							game.getGame().getNumberOfPlayers() >= 0) {
-						//Adds the player to the game if a game is found.
-						game.getGame().addPlayer(queue.get(i));
-						found = true;
-					}
-				}
-				if (!found) {
-					//If a game is not found, creates a new one.
-					Controller controller = new Controller(games.size(),
-							queue.get(i).getPreference(), tui);
-					games.add(controller);
-					controller.start();
-					controller.getGame().addPlayer(queue.get(i));
-					tui.write("Player added", "GameMakerThread");
-				}
-			}
-			//Clears the queue.
-			queue.clear();
-			LOCK.unlock();
 		}
 	}
 	
@@ -111,13 +104,26 @@ public class GameMakerThread extends Thread {
 	 */
 	//@requires player != null;
 	public void addToQueue(Player player) {
-		try {
-			LOCK.lock();
-			queue.add(player);
-			PLAYERADDED.signal();
-		} finally {
-			LOCK.unlock();
-		}		
+		queue.add(player);
+	}
+	
+	/**
+	 * Sets the time players of the games made from now on get to make a move.
+	 * @param moveTimeout the move timeout of new games.
+	 */
+	//@requires moveTimeout != null;
+	public void setMoveTimeout(MoveTimeout moveTimeout) {
+		this.moveTimeout = moveTimeout;
+	}
+	
+	/**
+	 * Sets how long games made from now on wait for more players once the minimal amount
+	 * joined, when the players do not care how many they play with.
+	 * @param window the fill window in milliseconds.
+	 */
+	//@requires window >= 0;
+	public void setFillWindow(long window) {
+		this.fillWindow = window;
 	}
 	
 	/**
@@ -125,11 +131,87 @@ public class GameMakerThread extends Thread {
 	 * @param controller the controller to remove
 	 */
 	public void removeFromGames(Controller controller) {
+		games.remove(controller);
+	}
+
+	/**
+	 * Stops seating players in the game of the given controller, because it starts.
+	 * @param controller the controller of the game that starts.
+	 */
+	//@requires controller != null;
+	public static void seal(Controller controller) {
+		Bucket bucket = BUCKETS[bucket(controller.getGame().getPreference())];
+		bucket.lock.lock();
 		try {
-			LOCK.lock();
-			games.remove(controller);
+			if (bucket.open == controller) {
+				bucket.open = null;
+			}
 		} finally {
-			LOCK.unlock();
-		}	
+			bucket.lock.unlock();
+		}
+	}
+
+	/**
+	 * Seats the given player in an open game that corresponds with the wishes of the
+	 * player. If there is none, makes a new game for the player. Called by the worker for
+	 * every player of its queue; the player is seated at once, without queueing.
+	 * @param player the player to seat.
+	 */
+	//@requires player != null;
+	public void seat(Player player) {
+		int preference = bucket(player.getPreference());
+		if (preference == 0) {
+			//A player who does not care joins whichever game is open.
+			for (int i = Game.MIN_PLAYERS; i <= Game.MAX_PLAYERS; i++) {
+				if (seat(player, i, false)) {
+					return;
+				}
+			}
+		}
+		seat(player, preference, true);
+	}
+
+	/**
+	 * Seats the given player in the open game of the given bucket.
+	 * @param player the player to seat.
+	 * @param index the index of the bucket.
+	 * @param create whether to make a new game if the bucket has no open game.
+	 * @return true if the player was seated.
+	 */
+	private boolean seat(Player player, int index, boolean create) {
+		Bucket bucket = BUCKETS[index];
+		bucket.lock.lock();
+		try {
+			if (bucket.open == null) {
+				if (!create) {
+					return false;
+				}
+				//If a game is not found, creates a new one.
+				Controller controller = new Controller(IDS.getAndIncrement(),
+						index == 0 ? -1 : index, tui);
+				controller.setMoveTimeout(moveTimeout);
+				games.add(controller);
+				bucket.open = controller;
+				controller.open(fillWindow);
+				tui.write("Player added", getName());
+			}
+			Game game = bucket.open.getGame();
+			game.addPlayer(player);
+			//A full game takes no more players.
+			if (game.getNumberOfPlayers() == (index == 0 ? Game.MAX_PLAYERS : index)) {
+				bucket.open = null;
+			}
+			return true;
+		} finally {
+			bucket.lock.unlock();
+		}
+	}
+
+	/**
+	 * @param preference the preference of a player or a game.
+	 * @return the index of the bucket of the preference, 0 for any number of players.
+	 */
+	/*@pure */private static int bucket(int preference) {
+		return preference >= Game.MIN_PLAYERS && preference <= Game.MAX_PLAYERS ? preference : 0;
 	}
 }
@@ -2,58 +2,51 @@ package server;
 
 import java.io.BufferedReader;
 import java.io.IOException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 /**
  * A class which reads input from the input stream and stops after a given amount of time.
+ * The time-out is the read timeout of the socket, so reading needs no extra thread.
+ * All tries together make one deadline, which also holds for a line arriving in parts: it is
+ * read whole when it is complete in time. Without a socket there is no read timeout, so
+ * reading blocks until a line arrives.
  * @author constructed from the Internet.
  */
 public class GetInputOnTimeout {
 	private final int tries;
 	private final int timeout;
 	private final TimeUnit unit;
+	private final Socket socket;
 	private final BufferedReader in;
 	
-	public GetInputOnTimeout(int tries, int timeout, BufferedReader in,
+	public GetInputOnTimeout(int tries, int timeout, Socket socket, BufferedReader in,
 			TimeUnit unit) {
 	    this.tries = tries;
 	    this.timeout = timeout;
+	    this.socket = socket;
 	    this.in = in;
 	    this.unit = unit;
     }
 	
 	/**
 	 * Starts the timer and attempts to read from input.
-	 * @return the input read over the given stream.
-	 * @throws InterruptedException when the reading is interrupted.
+	 * @return the input read over the given stream, null if nothing was read in time.
 	 * @throws IOException when a client disconnects while reading.
 	 */
-	public String readLine() throws InterruptedException, IOException {
-	    ExecutorService ex = Executors.newSingleThreadExecutor();
-	    String input = null;
+	public String readLine() throws IOException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout) * tries;
+	    MakeMoveThread reader = new MakeMoveThread(in, socket, deadline);
 	    try {
-	        for (int i = 0; i < tries; i++) { 
-	        	//Instructs a future to fetch a result.
-	            Future<String> result = ex.submit(
-	                new MakeMoveThread(in));
-	            try { 
-	            	//Fetches the result.
-	                input = result.get(timeout, unit);
-	                break;
-	            } catch (ExecutionException e) {
-	                throw new IOException("Client disconnected!");
-	            } catch (TimeoutException e) {
-	                result.cancel(true);
-	            }
-	        }
+	    	//Blocks until a line arrives or the deadline expires.
+	        return reader.call();
+	    } catch (SocketTimeoutException e) {
+	    	return null;
 	    } finally {
-	        ex.shutdownNow();
+	    	if (socket != null && !socket.isClosed()) {
+	    		socket.setSoTimeout(0);
+	    	}
 	    }
-	    return input;
 	}
 }
@@ -159,8 +159,8 @@ public class HandleConnectionThread extends Thread {
 	//@requires extensions != null;
 	/*@pure */private String constructAccept(List<Character> extensions) {
 		StringBuilder extension = new StringBuilder();
-		while (extensions.iterator().hasNext()) {
-			extension.append(extensions.iterator().next());
+		for (char ext : extensions) {
+			extension.append(ext);
 		}
 		return Protocol.CONNECTACCEPT + Protocol.DELIMITER + extension.toString() + "\n";
 	}
@@ -0,0 +1,77 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A reader blocking on the input of one client for as long as the client is connected,
+ * queueing every line it reads. Unlike <code>GetInputOnTimeout</code> it does not poll the
+ * input, so a move is handed over as soon as it arrives. Meant to run on a virtual thread,
+ * which costs next to nothing while it blocks.
+ * @author pmbos
+ */
+public class LineReader implements Runnable {
+	//The queue holds this string, compared by identity, once the client disconnected.
+	private static final String DISCONNECTED = new String("");
+	private final BufferedReader input;
+	private final BlockingQueue<String> lines;
+
+	/**
+	 * Creates a reader for the given input. The reader does not read until it is run.
+	 * @param input the input of the client.
+	 */
+	public LineReader(BufferedReader input) {
+		this.input = input;
+		this.lines = new LinkedBlockingQueue<>();
+	}
+
+	/**
+	 * Starts a thread reading the given input, as described by <code>Threads</code>.
+	 * @param input the input of the client.
+	 * @param name the name of the thread.
+	 * @return the started reader.
+	 */
+	public static LineReader start(BufferedReader input, String name) {
+		LineReader reader = new LineReader(input);
+		Threads.start(reader, name);
+		return reader;
+	}
+
+	/**
+	 * Reads lines until the client disconnects. Empty lines are skipped.
+	 */
+	public void run() {
+		try {
+			String line;
+			while ((line = input.readLine()) != null) {
+				if (!line.isEmpty()) {
+					lines.add(line);
+				}
+			}
+		} catch (IOException e) {
+			//The client disconnected.
+		}
+		lines.add(DISCONNECTED);
+	}
+
+	/**
+	 * Waits for the next line of the client.
+	 * @param timeout the maximum time to wait.
+	 * @param unit the unit of the timeout.
+	 * @return the line read, null if no line arrived in time.
+	 * @throws InterruptedException when the waiting is interrupted.
+	 * @throws IOException when the client disconnected.
+	 */
+	public String readLine(long timeout, TimeUnit unit) throws InterruptedException,
+			IOException {
+		String line = lines.poll(timeout, unit);
+		if (line == DISCONNECTED) {
+			lines.add(DISCONNECTED);
+			throw new IOException("Client disconnected!");
+		}
+		return line;
+	}
+}
@@ -2,51 +2,85 @@ package server;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.util.concurrent.Callable;
-
-import util.Protocol;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The actual reading class of the timed reader.
+ * Blocks on the input until a line arrives, so a move is read as soon as it is sent; a
+ * disconnect is noticed by the end of the stream.
+ * Lines are put together by the reader itself instead of with <code>readLine</code> of
+ * the input, which drops the part of a line it read when the read timeout of the socket
+ * expires halfway. The part read so far is kept until the next call instead.
+ * Given a socket and a deadline, the read timeout of the socket is set to the time left
+ * before every read that would block, so a client sending a line slowly cannot keep the
+ * reader waiting past the deadline.
  * @author constructed from the Internet.
  */
 public class MakeMoveThread implements Callable<String> {
 	private final BufferedReader input;
+	private final StringBuilder line;
+	private final Socket socket;
+	private final long deadline;
 	
 	public MakeMoveThread(BufferedReader input) {
+		this(input, null, 0);
+	}
+	
+	/**
+	 * Creates a reader which stops reading at the given deadline.
+	 * @param socket the socket of the input, null to read without a deadline.
+	 * @param deadline the <code>System.nanoTime()</code> at which reading stops.
+	 */
+	public MakeMoveThread(BufferedReader input, Socket socket, long deadline) {
 		this.input = input;
+		this.line = new StringBuilder();
+		this.socket = socket;
+		this.deadline = deadline;
 	}
 	
 	/**
-	 * Reads data from the specified input stream.
+	 * Reads data from the specified input stream, skipping empty lines.
+	 * @throws SocketTimeoutException when the read timeout of the socket or the deadline
+	 * expires, the part of the line read so far is returned by the next call.
+	 * @throws IOException when the client disconnected.
 	 */
 	public synchronized String call() throws IOException {
-	    String in;
-	    do {
+	    while (true) {
+		    int c;
 		    try {
-		      // wait until we have data to complete a readLine()
-		    	int first = ' ';
-		        while (!input.ready()) { 
-		            Thread.sleep(Protocol.INPUTCHECKINTERVAL);
-		            first = input.read();
-		            if (first == -1) {
-		            	throw new IOException("Client disconnected!");
-		            }
-		        }
-		        //Reads from input and reconstructs the message if needed.
-		        in = input.readLine();
-		        if (first != ' ') {
-		        	in = (char) first + in;
-		        }
-		        
-		        break;
-		    } catch (InterruptedException e) {
-		        return null;
+		    	if (socket != null && !input.ready()) {
+		    		long left = deadline - System.nanoTime();
+		    		if (left <= 0) {
+		    			throw new SocketTimeoutException("Deadline expired");
+		    		}
+		    		//Rounds up, as a read timeout of 0 would never expire.
+		    		socket.setSoTimeout((int) Math.min(TimeUnit.NANOSECONDS.toMillis(left) + 1,
+		    				Integer.MAX_VALUE));
+		    	}
+		        c = input.read();
 		    } catch (SocketException e) {
 		    	throw new IOException("Client disconnected!");
 		    }
-	    } while ("".equals(in));
-	    return in;
+		    if (c == -1) {
+		    	throw new IOException("Client disconnected!");
+		    }
+		    if (c == '\n') {
+		    	int end = line.length();
+		    	if (end > 0 && line.charAt(end - 1) == '\r') {
+		    		end--;
+		    	}
+		    	String in = line.substring(0, end);
+		    	line.setLength(0);
+		    	if (!in.isEmpty()) {
+		    		return in;
+		    	}
+		    } else {
+		    	line.append((char) c);
+		    }
+	    }
 	}
 }
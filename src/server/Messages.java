@@ -0,0 +1,118 @@
+package server;
+
+import java.util.List;
+
+import model.Game;
+import model.Player;
+import model.Tile;
+import util.Protocol;
+
+/**
+ * A class constructing the messages the server sends to the clients during a game, shared
+ * by every kind of game controller.
+ * @author pmbos
+ */
+public final class Messages {
+
+	/**
+	 * Messages only has static members.
+	 */
+	private Messages() {
+	}
+
+	/**
+	 * @param game the game that is over.
+	 * @return a <code>String</code> indicating the game is over.
+	 */
+	/*@pure */public static String gameOver(Game game) {
+		List<Player> players = game.getPlayers();
+		StringBuilder result = new StringBuilder();
+		result.append(Protocol.GAMEOVER + Protocol.DELIMITER);
+		for (Player player : players) {
+			result.append(player.name()).append(Protocol.DELIMITER).append(player.getScore())
+					.append(Protocol.DELIMITER);
+		}
+
+		return result.toString();
+	}
+
+	/**
+	 * @param player the player that is kicked.
+	 * @return the string representation of the kick message.
+	 */
+	//@requires player != null;
+	/*@pure */public static String kick(Player player) {
+		return Protocol.PLAYERKICKED + Protocol.DELIMITER + player.name();
+	}
+
+	/**
+	 * @param game the game that started.
+	 * @return the string representation of the game started message.
+	 */
+	/*@pure */public static String gameStarted(Game game) {
+		StringBuilder result = new StringBuilder();
+		result.append(Protocol.GAMESTARTED + Protocol.DELIMITER);
+		result.append("|");
+		for (Player player : game.getPlayers()) {
+			for (Tile tile : player.getHand()) {
+				append(result, tile);
+			}
+			result.append(player.name());
+			result.append("|");
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Constructs a turn made message for the given move of the current player of the given
+	 * game.
+	 * @param game the game the turn was made in.
+	 * @param move the move that was made.
+	 * @return a <code>String</code> indicating that a turn has been made.
+	 */
+	//@requires game.getCurrentPlayer() != null && move != null;
+	/*@pure */public static String turnMade(Game game, Move move) {
+		Player current = game.getCurrentPlayer();
+		StringBuilder result = new StringBuilder();
+		result.append(Protocol.TURNMADE + Protocol.DELIMITER);
+
+		switch (move.getType()) {
+			case Protocol.MOVE:
+				result.append(Protocol.MOVESHORT + Protocol.DELIMITER);
+				result.append(current.name()).append(Protocol.DELIMITER);
+				for (Tile tile : current.getHand()) {
+					append(result, tile);
+				}
+				append(result, move.getTile());
+				result.append(move.getRotation()).append(Protocol.DELIMITER);
+				result.append(move.getIndex());
+				break;
+			case Protocol.TILEREPLACE:
+				result.append(Protocol.REPLACESHORT + Protocol.DELIMITER);
+				result.append(current.name()).append(Protocol.DELIMITER);
+				for (Tile tile : current.getHand()) {
+					append(result, tile);
+				}
+				append(result, move.getTile());
+				break;
+			case Protocol.SKIP:
+				result.append(Protocol.SKIPSHORT + Protocol.DELIMITER);
+				result.append(current.name()).append(Protocol.DELIMITER);
+				for (Tile tile : current.getHand()) {
+					append(result, tile);
+				}
+				break;
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Appends the protocol representation of the given tile and a delimiter.
+	 * @param result the builder to append to.
+	 * @param tile the tile to append.
+	 */
+	private static void append(StringBuilder result, Tile tile) {
+		result.append(tile.getColourL()).append(tile.getColourV()).append(tile.getColourR())
+				.append(tile.getValue()).append(Protocol.DELIMITER);
+	}
+}
@@ -0,0 +1,96 @@
+package server;
+
+import model.Tile;
+import util.Protocol;
+
+/**
+ * A move a player sent during a game: a tile placed on the board, a tile replaced or a
+ * skipped turn. The record is mutable so a <code>MoveParser</code> can reuse it for every
+ * move of a game; it is only valid until the next move is parsed into it.
+ * @author pmbos
+ */
+public final class Move {
+	private String type;
+	private Tile tile;
+	private int rotation;
+	private int index;
+
+	/**
+	 * Creates a skipped turn.
+	 */
+	public Move() {
+		skip();
+	}
+
+	// Queries
+
+	/**
+	 * @return the kind of move: <code>Protocol.MOVE</code>, <code>Protocol.TILEREPLACE</code>
+	 * or <code>Protocol.SKIP</code>.
+	 */
+	/*@pure */public String getType() {
+		return type;
+	}
+
+	/**
+	 * @return the tile placed or replaced, null for a skipped turn.
+	 */
+	/*@pure */public Tile getTile() {
+		return tile;
+	}
+
+	/**
+	 * @return the rotation the tile is placed with, -1 unless a tile is placed.
+	 */
+	/*@pure */public int getRotation() {
+		return rotation;
+	}
+
+	/**
+	 * @return the index of the field the tile is placed on, -1 unless a tile is placed.
+	 */
+	/*@pure */public int getIndex() {
+		return index;
+	}
+
+	// Commands
+
+	/**
+	 * Makes this move a placement of the given tile.
+	 * @param placed the tile to place.
+	 * @param placedRotation the rotation to place it with.
+	 * @param placedIndex the index of the field to place it on.
+	 */
+	//@requires placed != null;
+	//@ensures getType() == Protocol.MOVE && getTile() == placed;
+	public void place(Tile placed, int placedRotation, int placedIndex) {
+		type = Protocol.MOVE;
+		tile = placed;
+		rotation = placedRotation;
+		index = placedIndex;
+	}
+
+	/**
+	 * Makes this move a replacement of the given tile.
+	 * @param replaced the tile to replace.
+	 */
+	//@requires replaced != null;
+	//@ensures getType() == Protocol.TILEREPLACE && getTile() == replaced;
+	public void replace(Tile replaced) {
+		type = Protocol.TILEREPLACE;
+		tile = replaced;
+		rotation = -1;
+		index = -1;
+	}
+
+	/**
+	 * Makes this move a skipped turn.
+	 */
+	//@ensures getType() == Protocol.SKIP && getTile() == null;
+	public void skip() {
+		type = Protocol.SKIP;
+		tile = null;
+		rotation = -1;
+		index = -1;
+	}
+}
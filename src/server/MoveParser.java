@@ -0,0 +1,234 @@
+package server;
+
+import exceptions.NotOfProtocol;
+import model.Board;
+import model.Tile;
+import util.BinaryProtocol;
+import util.Protocol;
+
+/**
+ * Parses the moves players send during a game. The parser walks a cursor over the line
+ * instead of splitting it, looks tiles up in the registry of <code>Tile</code> and fills
+ * in the one <code>Move</code> it owns, so parsing a valid move allocates nothing.
+ * Spaces between the characters of a move are ignored, anything else that does not follow
+ * the protocol is reported as a <code>NotOfProtocol</code>.
+ * Moves sent as frames of the <code>BinaryProtocol</code> are read straight from the frame,
+ * without being decoded into text first.
+ * A parser belongs to one game and must not be shared between threads.
+ * @author pmbos
+ */
+public final class MoveParser {
+	private static final char DELIMITER = Protocol.DELIMITER.charAt(0);
+	private static final char SPACE = ' ';
+	private static final int END = -1;
+	private final Move move;
+	private CharSequence line;
+	private int position;
+
+	/**
+	 * Creates a parser with a move of its own.
+	 */
+	public MoveParser() {
+		this.move = new Move();
+	}
+
+	// Queries
+
+	/**
+	 * @return the move of this parser, holding the last move parsed.
+	 */
+	/*@pure */public Move getMove() {
+		return move;
+	}
+
+	// Commands
+
+	/**
+	 * Parses the given line into the move of this parser.
+	 * @param received the line a player sent.
+	 * @return the move of this parser, valid until the next line is parsed.
+	 * @throws NotOfProtocol when the line is not a move, tile replacement or skip following
+	 * the protocol.
+	 */
+	//@requires received != null;
+	//@ensures \result == getMove();
+	public Move parse(CharSequence received) throws NotOfProtocol {
+		line = received;
+		position = 0;
+		try {
+			if (command(Protocol.MOVE)) {
+				expect(DELIMITER);
+				Tile tile = tile();
+				expect(DELIMITER);
+				int rotation = number(Protocol.ROTATION3);
+				expect(DELIMITER);
+				int index = number(Board.MAX_FIELDS - 1);
+				move.place(tile, rotation, index);
+			} else if (command(Protocol.TILEREPLACE)) {
+				expect(DELIMITER);
+				move.replace(tile());
+			} else if (command(Protocol.SKIP)) {
+				move.skip();
+			} else {
+				throw error("Unknown command");
+			}
+			expect(END);
+		} finally {
+			line = null;
+		}
+		return move;
+	}
+
+	/**
+	 * Reads the move held by the payload of a frame into the move of this parser.
+	 * @param frame the bytes holding the payload.
+	 * @param offset the offset of the payload in the bytes.
+	 * @param length the length of the payload.
+	 * @return the move of this parser, valid until the next move is parsed.
+	 * @throws NotOfProtocol when the payload is not a move, tile replacement or skip frame
+	 * following the protocol.
+	 */
+	//@requires frame != null && 0 <= offset && offset + length <= frame.length;
+	//@ensures \result == getMove();
+	public Move parse(byte[] frame, int offset, int length) throws NotOfProtocol {
+		int type = length > 0 ? frame[offset] : -1;
+		switch (type) {
+			case BinaryProtocol.MOVE:
+				checkLength(length, 3);
+				int rotation = BinaryProtocol.rotation(frame[offset + 2]);
+				int index = BinaryProtocol.index(frame[offset + 2]);
+				if (rotation > Protocol.ROTATION3 || index >= Board.MAX_FIELDS) {
+					throw new NotOfProtocol("Error: Placement out of range in frame");
+				}
+				move.place(BinaryProtocol.tile(frame[offset + 1]), rotation, index);
+				break;
+			case BinaryProtocol.TILEREPLACE:
+				checkLength(length, 2);
+				move.replace(BinaryProtocol.tile(frame[offset + 1]));
+				break;
+			case BinaryProtocol.SKIP:
+				checkLength(length, 1);
+				move.skip();
+				break;
+			default:
+				throw new NotOfProtocol("Error: Not a move frame: " + type);
+		}
+		return move;
+	}
+
+	/**
+	 * @param length the length of the payload of a frame.
+	 * @param expected the length the payload should have.
+	 * @throws NotOfProtocol when the lengths differ.
+	 */
+	private static void checkLength(int length, int expected) throws NotOfProtocol {
+		if (length != expected) {
+			throw new NotOfProtocol("Error: Expected a frame of " + expected + " bytes");
+		}
+	}
+
+	/**
+	 * @return the next character that is not a space, <code>END</code> at the end of the line.
+	 */
+	private int next() {
+		while (position < line.length()) {
+			char c = line.charAt(position++);
+			if (c != SPACE) {
+				return c;
+			}
+		}
+		return END;
+	}
+
+	/**
+	 * Reads the given command if the line continues with it. The cursor is left at the
+	 * delimiter or the end after the command, or where it was if the command did not match.
+	 * @param command the command to read.
+	 * @return true if the line continues with the command.
+	 */
+	private boolean command(String command) {
+		int start = position;
+		for (int i = 0; i < command.length(); i++) {
+			if (next() != command.charAt(i)) {
+				position = start;
+				return false;
+			}
+		}
+		int end = position;
+		int c = next();
+		position = end;
+		if (c != DELIMITER && c != END) {
+			position = start;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads the given character.
+	 * @param expected the character to read, <code>END</code> for the end of the line.
+	 * @throws NotOfProtocol when the line continues with another character.
+	 */
+	private void expect(int expected) throws NotOfProtocol {
+		if (next() != expected) {
+			throw error(expected == END ? "Expected the end" : "Expected " + (char) expected);
+		}
+	}
+
+	/**
+	 * Reads a tile: three colours and a value.
+	 * @return the shared instance of the tile.
+	 * @throws NotOfProtocol when the line does not continue with a valid tile.
+	 */
+	private Tile tile() throws NotOfProtocol {
+		int left = next();
+		int vertical = next();
+		int right = next();
+		int value = next();
+		if (left == END || vertical == END || right == END || value < '0' || value > '9') {
+			throw error("Expected a tile");
+		}
+		Tile tile = Tile.valueOf((char) left, (char) vertical, (char) right, value - '0');
+		if (!tile.isValid()) {
+			throw error("Not a valid tile");
+		}
+		return tile;
+	}
+
+	/**
+	 * Reads a non-negative number.
+	 * @param max the largest number allowed.
+	 * @return the number read.
+	 * @throws NotOfProtocol when the line does not continue with a number up to the given
+	 * maximum.
+	 */
+	private int number(int max) throws NotOfProtocol {
+		int result = 0;
+		int digits = 0;
+		int c = next();
+		while (c >= '0' && c <= '9') {
+			result = 10 * result + c - '0';
+			if (result > max) {
+				throw error("Number larger than " + max);
+			}
+			digits++;
+			int end = position;
+			c = next();
+			if (c < '0' || c > '9') {
+				position = end;
+			}
+		}
+		if (digits == 0) {
+			throw error("Expected a number");
+		}
+		return result;
+	}
+
+	/**
+	 * @param reason what went wrong.
+	 * @return an exception describing where the line went wrong.
+	 */
+	private NotOfProtocol error(String reason) {
+		return new NotOfProtocol("Error: " + reason + " at " + position + " in " + line);
+	}
+}
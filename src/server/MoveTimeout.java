@@ -0,0 +1,95 @@
+package server;
+
+import java.util.concurrent.TimeUnit;
+
+import util.Protocol;
+
+/**
+ * The time a player gets to make a move: a timeout that is tried a number of times before
+ * the player is kicked. Every game has its own, <code>DEFAULT</code> unless it is
+ * configured otherwise, either by passing <code>FLAG</code> to <code>Server</code> or by
+ * giving it to the game makers or the <code>NioServer</code> before games are made.
+ * @author pmbos
+ */
+public final class MoveTimeout {
+	public static final String FLAG = "-timeout";
+	public static final char SEPARATOR = ':';
+	public static final MoveTimeout DEFAULT =
+			new MoveTimeout(Protocol.TIMEOUT, Protocol.TIMEUNIT, Protocol.RETRIES);
+	private final int timeout;
+	private final TimeUnit unit;
+	private final int tries;
+
+	/**
+	 * Creates a move timeout.
+	 * @param timeout the length of one try.
+	 * @param unit the unit of the timeout.
+	 * @param tries the number of tries.
+	 * @throws IllegalArgumentException when the timeout or the number of tries is not
+	 * positive.
+	 */
+	//@requires unit != null;
+	public MoveTimeout(int timeout, TimeUnit unit, int tries) {
+		if (timeout <= 0 || tries <= 0) {
+			throw new IllegalArgumentException("Timeout and tries must be positive");
+		}
+		this.timeout = timeout;
+		this.unit = unit;
+		this.tries = tries;
+	}
+
+	/**
+	 * Parses a move timeout in the unit of the protocol, given as the length of a try or as
+	 * the length of a try and the number of tries separated by <code>SEPARATOR</code>.
+	 * @param arg the argument to parse, for example "90" or "30:3".
+	 * @return the move timeout described by the argument.
+	 * @throws IllegalArgumentException when the argument describes no valid move timeout.
+	 */
+	//@requires arg != null;
+	public static MoveTimeout parse(String arg) {
+		int separator = arg.indexOf(SEPARATOR);
+		if (separator < 0) {
+			return new MoveTimeout(Integer.parseInt(arg), Protocol.TIMEUNIT, Protocol.RETRIES);
+		}
+		return new MoveTimeout(Integer.parseInt(arg.substring(0, separator)), Protocol.TIMEUNIT,
+				Integer.parseInt(arg.substring(separator + 1)));
+	}
+
+	// Queries
+
+	/**
+	 * @return the length of one try, in <code>getUnit()</code>.
+	 */
+	/*@pure */public int getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * @return the unit of the timeout.
+	 */
+	/*@pure */public TimeUnit getUnit() {
+		return unit;
+	}
+
+	/**
+	 * @return the number of tries.
+	 */
+	/*@pure */public int getTries() {
+		return tries;
+	}
+
+	/**
+	 * @return the length of one try in milliseconds.
+	 */
+	/*@pure */public long toMillis() {
+		return unit.toMillis(timeout);
+	}
+
+	/**
+	 * @return the length of all tries together in milliseconds.
+	 */
+	//@ensures \result == toMillis() * getTries();
+	/*@pure */public long toTotalMillis() {
+		return toMillis() * tries;
+	}
+}
@@ -0,0 +1,44 @@
+package server;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class running delayed tasks of the server, such as the fill timers of lobbies, on one
+ * shared thread instead of a sleeping thread per task.
+ * @author pmbos
+ */
+public final class Scheduler {
+	private static final ScheduledThreadPoolExecutor EXECUTOR = create();
+
+	/**
+	 * Scheduler only has static members.
+	 */
+	private Scheduler() {
+	}
+
+	/**
+	 * Runs the given task after the given delay.
+	 * @param task the task to run.
+	 * @param delay the delay in milliseconds.
+	 * @return the scheduled task, which can be cancelled.
+	 */
+	//@requires task != null && delay >= 0;
+	public static Future<?> schedule(Runnable task, long delay) {
+		return EXECUTOR.schedule(task, delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * @return an executor with a single daemon thread, dropping tasks when cancelled.
+	 */
+	private static ScheduledThreadPoolExecutor create() {
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+			Thread thread = new Thread(task, "Scheduler");
+			thread.setDaemon(true);
+			return thread;
+		});
+		executor.setRemoveOnCancelPolicy(true);
+		return executor;
+	}
+}
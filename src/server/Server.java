@@ -9,13 +9,15 @@ import java.util.List;
 import exceptions.CannotConnect;
 import exceptions.EndOfProgram;
 import exceptions.IllegalBoot;
+import server.nio.NioServer;
 
 /**
  * @author pmbos
  * The class modelling a spectrangle game server.
  */
 public class Server {
-	public static final String USAGE = "Usage: java [path].Server <name> <port>"; 
+	public static final String USAGE = "Usage: java [path].Server [-nio | -virtual]"
+			+ " [-timeout seconds[:tries]]"; 
 	public static final char[] EXTENSIONS = {};
 	private int port;
 	private static ServerSocket serverSocket;
@@ -25,11 +27,43 @@ public class Server {
 	
 	/**
 	 * The method which will boot the server.
+	 * Passing <code>NioServer.FLAG</code> boots the non-blocking server instead, passing
+	 * <code>Threads.FLAG</code> runs connections and games on virtual threads.
+	 * <code>MoveTimeout.FLAG</code> followed by a move timeout, as parsed by
+	 * <code>MoveTimeout.parse</code>, sets the time players get to make a move.
 	 * @param args the arguments containing the name of the server
 	 * and the port on which it listens.
+	 * @throws IllegalBoot when an argument is not one of the above.
 	 */
 	public static void main(String[] args) throws IllegalBoot {
+		boolean nio = false;
+		MoveTimeout moveTimeout = MoveTimeout.DEFAULT;
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals(NioServer.FLAG)) {
+				nio = true;
+			} else if (args[i].equals(Threads.FLAG)) {
+				if (!Threads.setVirtual(true)) {
+					System.out.println("Virtual threads are not supported, "
+							+ "using platform threads");
+				}
+			} else if (args[i].equals(MoveTimeout.FLAG) && i + 1 < args.length) {
+				try {
+					moveTimeout = MoveTimeout.parse(args[++i]);
+				} catch (IllegalArgumentException e) {
+					throw new IllegalBoot(USAGE);
+				}
+			} else {
+				throw new IllegalBoot(USAGE);
+			}
+		}
+		if (nio) {
+			NioServer server = new NioServer(new ServerUI(), NioServer.DEFAULT_LOOPS);
+			server.setMoveTimeout(moveTimeout);
+			server.start();
+			return;
+		}
 		Server server = new Server();
+		server.setMoveTimeout(moveTimeout);
 		server.start();
 	}
 	
@@ -39,7 +73,11 @@ public class Server {
 	public Server() {
 		connections = 0;
 		tui = new ServerUI();
-		this.gameMakers.add(new GameMakerThread(tui));
+		for (int i = 0; i < GameMakerThread.WORKERS; i++) {
+			GameMakerThread gameMaker = new GameMakerThread(tui);
+			gameMaker.setName("GameMaker #" + i);
+			this.gameMakers.add(gameMaker);
+		}
 	}
 	
 	//Queries
@@ -67,6 +105,17 @@ public class Server {
 	
 	//Commands
 	
+	/**
+	 * Sets the time players of the games made from now on get to make a move.
+	 * @param moveTimeout the move timeout of new games.
+	 */
+	//@requires moveTimeout != null;
+	public void setMoveTimeout(MoveTimeout moveTimeout) {
+		for (GameMakerThread gameMaker : gameMakers) {
+			gameMaker.setMoveTimeout(moveTimeout);
+		}
+	}
+	
 	/**
 	 * Increments the amount of active connections by the given amount.
 	 * @param amount the amount by which to increment.
@@ -81,8 +130,10 @@ public class Server {
 	 */
 	public void start() {
 		try {
-			//Starts the game maker.
-			this.gameMakers.get(0).start();
+			//Starts the game makers.
+			for (GameMakerThread gameMaker : gameMakers) {
+				gameMaker.start();
+			}
 			while (true) {
 				try {
 					//Asks for a port to listen on.
@@ -99,20 +150,23 @@ public class Server {
 			//Indicates the server is live and listening.
 			tui.write("Server Live on: " + port, "Server");
 			tui.showServerStarted("Server");
+			int accepted = 0;
 			while (true) {
 				Socket socket = getServerSocket().accept();
-				Thread handleConnection = 
-						new HandleConnectionThread(connections, socket, gameMakers.get(0), tui);
-				handleConnection.start();
-
+				//Hands the connections to the game makers in turn.
+				GameMakerThread gameMaker = gameMakers.get(accepted);
+				accepted = (accepted + 1) % gameMakers.size();
+				Threads.start(new HandleConnectionThread(connections, socket, gameMaker,
+						tui), "Connection handler");
 			}
 		} catch (IOException e) {
 			tui.writeError(new CannotConnect("Server socket closed. Exiting.."), 
 					"Server");
-			gameMakers.get(0).interrupt();
 		} catch (EndOfProgram e) {
 			tui.writeError(e, "Server");
-			gameMakers.get(0).interrupt();
+		}
+		for (GameMakerThread gameMaker : gameMakers) {
+			gameMaker.interrupt();
 		}
 		System.exit(0);
 	}
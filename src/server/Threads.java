@@ -0,0 +1,97 @@
+package server;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * A class starting the threads of the server, either as platform threads or as virtual
+ * threads. Virtual threads are looked up reflectively, so the server still runs on a Java
+ * version without them, falling back to platform threads.
+ * @author pmbos
+ */
+public final class Threads {
+	public static final String FLAG = "-virtual";
+	private static final Method OF_VIRTUAL;
+	private static final Method NAME;
+	private static final Method UNSTARTED;
+	private static volatile boolean virtual = false;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method unstarted = null;
+		try {
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			name = builder.getMethod("name", String.class);
+			unstarted = builder.getMethod("unstarted", Runnable.class);
+			//Virtual threads may exist only as a preview feature that is not enabled.
+			unstarted.invoke(ofVirtual.invoke(null), (Runnable) () -> { });
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		UNSTARTED = unstarted;
+	}
+
+	/**
+	 * Threads only has static members.
+	 */
+	private Threads() {
+	}
+
+	// Queries
+
+	/**
+	 * @return true if this Java version supports virtual threads.
+	 */
+	/*@pure */public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * @return true if new threads are started as virtual threads.
+	 */
+	/*@pure */public static boolean isVirtual() {
+		return virtual;
+	}
+
+	// Commands
+
+	/**
+	 * Chooses whether new threads are started as virtual threads.
+	 * @param useVirtual true to start virtual threads, if they are supported.
+	 * @return true if new threads will be virtual threads.
+	 */
+	//@ensures \result == isVirtual() && (\result ==> isSupported());
+	public static boolean setVirtual(boolean useVirtual) {
+		virtual = useVirtual && isSupported();
+		return virtual;
+	}
+
+	/**
+	 * Starts a thread with the given name running the given task. The thread is a virtual
+	 * thread if <code>isVirtual()</code>, a platform thread otherwise.
+	 * @param task the task to run.
+	 * @param name the name of the thread.
+	 * @return the started thread.
+	 */
+	//@requires task != null && name != null;
+	public static Thread start(Runnable task, String name) {
+		Thread thread = null;
+		if (virtual && isSupported()) {
+			try {
+				thread = (Thread) UNSTARTED.invoke(NAME.invoke(OF_VIRTUAL.invoke(null), name),
+						task);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				thread = null;
+			}
+		}
+		if (thread == null) {
+			thread = new Thread(task, name);
+		}
+		thread.start();
+		return thread;
+	}
+}
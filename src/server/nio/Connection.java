@@ -0,0 +1,364 @@
+package server.nio;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import exceptions.NotOfProtocol;
+import util.BinaryProtocol;
+import util.Protocol;
+
+/**
+ * A non-blocking connection with a client, owned by one <code>EventLoop</code>.
+ * The connection splits its input into lines and performs the handshake of the protocol
+ * itself; once the client joined a game every line is handed to its game session.
+ * When the handshake enabled <code>BinaryProtocol.EXTENSION</code> the input is split into
+ * frames instead, which are decoded into the same lines, and output is sent as frames.
+ * Moves sent as frames during a game skip the text and are handed to the game session as
+ * they are.
+ * Output is queued and written whenever the channel can take it, so a slow client never
+ * blocks the loop.
+ * @author pmbos
+ */
+public class Connection {
+	public static final int BUFFER = 4096;
+	public static final int MAX_LINE = 8192;
+	private static final int CONNECTING = 0;
+	private static final int JOINING = 1;
+	private static final int JOINED = 2;
+	private final EventLoop loop;
+	private final SocketChannel channel;
+	private final NioServer server;
+	private final ByteBuffer input;
+	private final Deque<ByteBuffer> output;
+	private byte[] line;
+	private int length;
+	private SelectionKey key;
+	private int state;
+	private String name;
+	private RemotePlayer player;
+	private boolean binary;
+	private boolean closing;
+	private boolean closed;
+
+	/**
+	 * Creates a connection for the given channel.
+	 * @param loop the loop owning the connection.
+	 * @param channel the channel of the connection, in non-blocking mode.
+	 * @param server the server the connection was accepted by.
+	 */
+	public Connection(EventLoop loop, SocketChannel channel, NioServer server) {
+		this.loop = loop;
+		this.channel = channel;
+		this.server = server;
+		this.input = ByteBuffer.allocate(BUFFER);
+		this.output = new ArrayDeque<>();
+		this.line = new byte[128];
+		this.length = 0;
+		this.state = CONNECTING;
+		this.binary = false;
+		this.closing = false;
+		this.closed = false;
+	}
+
+	// Queries
+
+	/**
+	 * @return the loop owning this connection.
+	 */
+	/*@pure */public EventLoop getLoop() {
+		return loop;
+	}
+
+	/**
+	 * @return the player of this connection, null if the client did not join yet.
+	 */
+	/*@pure */public RemotePlayer getPlayer() {
+		return player;
+	}
+
+	// Commands
+
+	/**
+	 * Registers the connection with its loop. Must be called by the loop itself.
+	 */
+	//@requires getLoop().inLoop();
+	public void register() {
+		try {
+			key = loop.register(channel, SelectionKey.OP_READ, this);
+		} catch (IOException e) {
+			closeNow();
+		}
+	}
+
+	/**
+	 * Sends the given line to the client. May be called by any thread.
+	 * @param msg the line to send, without a line separator.
+	 */
+	public void send(String msg) {
+		if (loop.inLoop()) {
+			write(msg);
+		} else {
+			loop.execute(() -> write(msg));
+		}
+	}
+
+	/**
+	 * Closes the connection once everything sent so far is written. May be called by any
+	 * thread.
+	 */
+	public void close() {
+		if (loop.inLoop()) {
+			closeAfterWrite();
+		} else {
+			loop.execute(this::closeAfterWrite);
+		}
+	}
+
+	/**
+	 * @return true if the connection sends and receives binary frames.
+	 */
+	/*@pure */public boolean isBinary() {
+		return binary;
+	}
+
+	/**
+	 * Reads what the client sent and handles every complete line or frame.
+	 */
+	//@requires getLoop().inLoop();
+	void onReadable() {
+		int read;
+		try {
+			read = channel.read(input);
+		} catch (IOException e) {
+			closeNow();
+			return;
+		}
+		if (read < 0) {
+			closeNow();
+			return;
+		}
+		input.flip();
+		while (input.hasRemaining() && !closing) {
+			byte b = input.get();
+			if (binary) {
+				onFrameByte(b);
+			} else if (b == '\n') {
+				int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+				String received = new String(line, 0, end, StandardCharsets.UTF_8);
+				length = 0;
+				onLine(received);
+			} else if (length == MAX_LINE) {
+				//A client sending endless lines is not playing by the protocol.
+				closeNow();
+			} else {
+				if (length == line.length) {
+					line = Arrays.copyOf(line, Math.min(MAX_LINE, 2 * length));
+				}
+				line[length++] = b;
+			}
+		}
+		input.clear();
+	}
+
+	/**
+	 * Adds the given byte to the frame being read and handles the frame once it is complete.
+	 * @param b the byte the client sent.
+	 */
+	private void onFrameByte(byte b) {
+		if (length == line.length) {
+			line = Arrays.copyOf(line, Math.min(BinaryProtocol.HEADER + MAX_LINE, 2 * length));
+		}
+		line[length++] = b;
+		if (length < BinaryProtocol.HEADER) {
+			return;
+		}
+		int frame = (line[0] & 0xFF) << 8 | line[1] & 0xFF;
+		if (frame == 0 || frame > MAX_LINE) {
+			//Frames are held to the same bound as lines.
+			closeNow();
+		} else if (length == BinaryProtocol.HEADER + frame) {
+			length = 0;
+			try {
+				if (state == JOINED && BinaryProtocol.isMove(line[BinaryProtocol.HEADER])) {
+					onMove(Arrays.copyOfRange(line, BinaryProtocol.HEADER,
+							BinaryProtocol.HEADER + frame));
+				} else {
+					onLine(BinaryProtocol.decode(line, BinaryProtocol.HEADER, frame));
+				}
+			} catch (NotOfProtocol e) {
+				//A client sending broken frames is not playing by the protocol.
+				closeNow();
+			}
+		}
+	}
+
+	/**
+	 * Writes as much of the queued output as the channel takes.
+	 */
+	//@requires getLoop().inLoop();
+	void onWritable() {
+		if (flush() && key != null && key.isValid()) {
+			key.interestOps(closing ? 0 : SelectionKey.OP_READ);
+			if (closing) {
+				closeNow();
+			}
+		}
+	}
+
+	/**
+	 * Handles a line sent by the client, depending on how far the handshake got.
+	 * @param received the line the client sent.
+	 */
+	private void onLine(String received) {
+		//Only the handshake is split here, moves are parsed by the game session.
+		String[] parts;
+		switch (state) {
+			case CONNECTING:
+				//Waits for a connect request, then accepts it with the matching extensions.
+				parts = received.split(Protocol.DELIMITER);
+				if (parts[0].equals(Protocol.CONNECTREQUEST) && parts.length >= 2) {
+					name = parts[1];
+					String extensions = matchExtensions(parts.length == 3 ? parts[2] : "");
+					write(Protocol.CONNECTACCEPT + Protocol.DELIMITER + extensions);
+					//Everything after the connect accept is framed, in both directions.
+					binary = extensions.indexOf(BinaryProtocol.EXTENSION) >= 0;
+					state = JOINING;
+				}
+				break;
+			case JOINING:
+				//Waits for a join request, then hands the player to the lobby.
+				parts = received.split(Protocol.DELIMITER);
+				if (parts[0].equals(Protocol.JOINGAME)) {
+					int preference = -1;
+					try {
+						preference = Integer.parseInt(parts[1]);
+					} catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+						server.getUI().writeError(e, "Connection");
+					}
+					player = new RemotePlayer(name, preference, this);
+					state = JOINED;
+					server.getLobby().join(player);
+				}
+				break;
+			default:
+				GameSession session = player.getSession();
+				if (session != null) {
+					session.execute(() -> session.onLine(player, received));
+				}
+				break;
+		}
+	}
+
+	/**
+	 * Hands the payload of a move frame sent during a game to the game session.
+	 * @param payload the payload of the frame, copied out of the input.
+	 */
+	private void onMove(byte[] payload) {
+		GameSession session = player.getSession();
+		if (session != null) {
+			session.execute(() -> session.onFrame(player, payload));
+		}
+	}
+
+	/**
+	 * @param extensions the extensions the client supports.
+	 * @return the extensions both the client and the server support.
+	 */
+	/*@pure */private static String matchExtensions(String extensions) {
+		StringBuilder result = new StringBuilder();
+		for (char extension : extensions.toCharArray()) {
+			for (char ext : NioServer.EXTENSIONS) {
+				if (ext == extension) {
+					result.append(extension);
+				}
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Queues the given line and writes as much of the output as the channel takes.
+	 * @param msg the line to send, without a line separator.
+	 */
+	private void write(String msg) {
+		if (closing || closed) {
+			return;
+		}
+		if (binary) {
+			output.add(ByteBuffer.wrap(BinaryProtocol.encode(msg)));
+		} else {
+			output.add(ByteBuffer.wrap((msg + "\n").getBytes(StandardCharsets.UTF_8)));
+		}
+		if (output.size() == 1 && !flush() && key != null && key.isValid()) {
+			key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+		}
+	}
+
+	/**
+	 * Writes queued output until the channel takes no more.
+	 * @return true if all output was written.
+	 */
+	private boolean flush() {
+		try {
+			while (!output.isEmpty()) {
+				ByteBuffer buffer = output.peek();
+				channel.write(buffer);
+				if (buffer.hasRemaining()) {
+					return false;
+				}
+				output.poll();
+			}
+			return true;
+		} catch (IOException e) {
+			output.clear();
+			closeNow();
+			return true;
+		}
+	}
+
+	/**
+	 * Stops reading and closes the connection once all output is written.
+	 */
+	private void closeAfterWrite() {
+		if (closed) {
+			return;
+		}
+		closing = true;
+		if (output.isEmpty()) {
+			closeNow();
+		} else if (key != null && key.isValid()) {
+			key.interestOps(SelectionKey.OP_WRITE);
+		}
+	}
+
+	/**
+	 * Closes the connection at once and tells the game session of the player, if any.
+	 */
+	private void closeNow() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		closing = true;
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+			//Closing anyway.
+		}
+		if (player != null) {
+			GameSession session = player.getSession();
+			if (session != null) {
+				session.execute(() -> session.onDisconnect(player));
+			}
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package server.nio;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import server.ServerUI;
+
+/**
+ * A thread multiplexing many connections on a single <code>Selector</code>.
+ * Besides the ready channels, the loop runs the tasks handed to it by other threads and
+ * the timeouts of its <code>TimerWheel</code>, so everything owned by a loop, its
+ * connections and its game sessions, is only ever touched by its own thread.
+ * @author pmbos
+ */
+public class EventLoop extends Thread {
+	public static final long TICK = 100;
+	public static final int SLOTS = 512;
+	private final Selector selector;
+	private final Queue<Runnable> tasks;
+	private final TimerWheel wheel;
+	private final ServerUI tui;
+	private volatile boolean running;
+
+	/**
+	 * Creates a new event loop with the given id.
+	 * @param id the id of the loop.
+	 * @param tui the user interface to report errors to.
+	 * @throws IOException when the selector cannot be opened.
+	 */
+	public EventLoop(int id, ServerUI tui) throws IOException {
+		this.selector = Selector.open();
+		this.tasks = new ConcurrentLinkedQueue<>();
+		this.wheel = new TimerWheel(TICK, SLOTS, now());
+		this.tui = tui;
+		this.running = true;
+		this.setName("Event loop #" + id);
+	}
+
+	// Queries
+
+	/**
+	 * @return true if the calling thread is this loop.
+	 */
+	/*@pure */public boolean inLoop() {
+		return Thread.currentThread() == this;
+	}
+
+	/**
+	 * @return the current time in milliseconds, as used by the timer wheel.
+	 */
+	/*@pure */public static long now() {
+		return System.nanoTime() / 1000000L;
+	}
+
+	// Commands
+
+	/**
+	 * Runs the loop until it is shut down, then closes all its channels.
+	 */
+	public void run() {
+		while (running) {
+			try {
+				//Tasks the loop handed to itself must not wait for the next event.
+				if (tasks.isEmpty()) {
+					selector.select(wheel.isEmpty() ? 0 : wheel.getTick());
+				} else {
+					selector.selectNow();
+				}
+			} catch (IOException e) {
+				tui.writeError(e, getName());
+				break;
+			}
+			runTasks();
+			Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+			while (keys.hasNext()) {
+				SelectionKey key = keys.next();
+				keys.remove();
+				handle(key);
+			}
+			wheel.advance(now());
+		}
+		for (SelectionKey key : selector.keys()) {
+			try {
+				key.channel().close();
+			} catch (IOException e) {
+				//Closing anyway.
+			}
+		}
+		try {
+			selector.close();
+		} catch (IOException e) {
+			tui.writeError(e, getName());
+		}
+	}
+
+	/**
+	 * Hands the given task to this loop, to run on its thread.
+	 * @param task the task to run.
+	 */
+	//@requires task != null;
+	public void execute(Runnable task) {
+		tasks.add(task);
+		if (!inLoop()) {
+			selector.wakeup();
+		}
+	}
+
+	/**
+	 * Schedules the given task to run on this loop after the given delay.
+	 * Must be called by the loop itself.
+	 * @param delay the delay in milliseconds.
+	 * @param task the task to run.
+	 * @return the scheduled task, which can be cancelled.
+	 */
+	//@requires inLoop();
+	public TimerWheel.Timeout schedule(long delay, Runnable task) {
+		return wheel.schedule(delay, now(), task);
+	}
+
+	/**
+	 * Registers the given channel with the selector of this loop.
+	 * Must be called by the loop itself.
+	 * @param channel the channel to register, in non-blocking mode.
+	 * @param ops the operations to select.
+	 * @param attachment the handler of the channel.
+	 * @return the key of the channel.
+	 * @throws ClosedChannelException when the channel is closed.
+	 */
+	//@requires inLoop();
+	public SelectionKey register(SelectableChannel channel, int ops, Object attachment)
+			throws ClosedChannelException {
+		return channel.register(selector, ops, attachment);
+	}
+
+	/**
+	 * Stops the loop after its current iteration.
+	 */
+	public void shutdown() {
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Runs all tasks handed to this loop so far. A failing task is reported and does not
+	 * stop the loop.
+	 */
+	private void runTasks() {
+		Runnable task;
+		while ((task = tasks.poll()) != null) {
+			try {
+				task.run();
+			} catch (RuntimeException e) {
+				tui.writeError(e, getName());
+			}
+		}
+	}
+
+	/**
+	 * Hands a ready channel to its handler.
+	 * @param key the key of the ready channel.
+	 */
+	private void handle(SelectionKey key) {
+		try {
+			Object attachment = key.attachment();
+			if (attachment instanceof NioServer) {
+				if (key.isValid() && key.isAcceptable()) {
+					((NioServer) attachment).accept();
+				}
+			} else if (attachment instanceof Connection) {
+				Connection connection = (Connection) attachment;
+				if (key.isValid() && key.isReadable()) {
+					connection.onReadable();
+				}
+				if (key.isValid() && key.isWritable()) {
+					connection.onWritable();
+				}
+			}
+		} catch (RuntimeException e) {
+			tui.writeError(e, getName());
+		}
+	}
+}
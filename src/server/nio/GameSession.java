@@ -0,0 +1,352 @@
+package server.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import exceptions.IllegalMove;
+import exceptions.NotOfProtocol;
+import model.Game;
+import model.Player;
+import server.Messages;
+import server.Move;
+import server.MoveParser;
+import server.MoveTimeout;
+import server.ServerUI;
+import util.Protocol;
+
+/**
+ * A game of spectrangle played on an <code>EventLoop</code>.
+ * Where a <code>Controller</code> blocks a thread waiting for every move, a session is a
+ * state machine: it reacts to the lines of its players, to disconnects and to timeouts, all
+ * of which run on the thread of its loop, so the game itself needs no locking.
+ * @author pmbos
+ */
+public class GameSession {
+	private final int id;
+	private final EventLoop loop;
+	private final Lobby lobby;
+	private final ServerUI tui;
+	private final Game game;
+	private final MoveTimeout moveTimeout;
+	private final long fillWindow;
+	private final MoveParser parser;
+	private TimerWheel.Timeout startTimer;
+	private TimerWheel.Timeout moveTimer;
+	private int tries;
+	private boolean started;
+	private boolean finished;
+	//The seats the lobby gave away, only touched by the lobby under the lock of its bucket.
+	int seats;
+
+	/**
+	 * Creates a session for a game with the given preference.
+	 * @param id the id of the session.
+	 * @param preference the preference of the game.
+	 * @param loop the loop to play the game on.
+	 * @param lobby the lobby the session takes its players from.
+	 * @param tui the user interface to write to.
+	 * @param moveTimeout the time a player gets to make a move.
+	 * @param fillWindow the time in milliseconds to wait for more players once the minimal
+	 * amount joined, when the players do not care how many they play with.
+	 */
+	public GameSession(int id, int preference, EventLoop loop, Lobby lobby, ServerUI tui,
+			MoveTimeout moveTimeout, long fillWindow) {
+		this.id = id;
+		this.moveTimeout = moveTimeout;
+		this.fillWindow = fillWindow;
+		this.parser = new MoveParser();
+		this.loop = loop;
+		this.lobby = lobby;
+		this.tui = tui;
+		this.game = new Game(preference);
+		this.started = false;
+		this.finished = false;
+	}
+
+	// Queries
+
+	/**
+	 * @return the id of this session.
+	 */
+	/*@pure */public int getID() {
+		return id;
+	}
+
+	/**
+	 * @return the game played in this session. Only to be used on the loop of the session.
+	 */
+	/*@pure */public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * @return true if the game has started.
+	 */
+	/*@pure */public boolean hasStarted() {
+		return started;
+	}
+
+	// Commands
+
+	/**
+	 * Runs the given task on the loop of this session.
+	 * @param task the task to run.
+	 */
+	public void execute(Runnable task) {
+		loop.execute(task);
+	}
+
+	/**
+	 * Adds the given player to the game and checks if the game can start. When the game
+	 * started before the player got here, the player goes back to the lobby.
+	 * @param player the player to add.
+	 */
+	//@requires player != null;
+	void join(RemotePlayer player) {
+		if (started) {
+			lobby.join(player);
+			return;
+		}
+		game.addPlayer(player);
+		tui.write("Number of players: " + game.getNumberOfPlayers(), location());
+		checkStart();
+	}
+
+	/**
+	 * Handles a line sent by a player. Lines of players whose turn it is not are ignored.
+	 * @param player the player that sent the line.
+	 * @param line the line the player sent.
+	 */
+	void onLine(RemotePlayer player, String line) {
+		if (!isTurn(player)) {
+			return;
+		}
+		moveTimer.cancel();
+		//Ignores the white-spaces clients may send between the parts of a move.
+		try {
+			play(player, parser.parse(line));
+		} catch (IllegalMove | NotOfProtocol e) {
+			reject(player, e);
+		}
+	}
+
+	/**
+	 * Handles the payload of a move frame sent by a player, read without decoding it into
+	 * text. Frames of players whose turn it is not are ignored.
+	 * @param player the player that sent the frame.
+	 * @param payload the payload of the frame.
+	 */
+	void onFrame(RemotePlayer player, byte[] payload) {
+		if (!isTurn(player)) {
+			return;
+		}
+		moveTimer.cancel();
+		try {
+			play(player, parser.parse(payload, 0, payload.length));
+		} catch (IllegalMove | NotOfProtocol e) {
+			reject(player, e);
+		}
+	}
+
+	/**
+	 * @param player a player of the game.
+	 * @return true if the game is being played and it is the turn of the given player.
+	 */
+	/*@pure */private boolean isTurn(RemotePlayer player) {
+		return started && !finished && player == game.getCurrentPlayer();
+	}
+
+	/**
+	 * Makes the given move for the current player, tells the clients and starts the next
+	 * turn.
+	 * @param player the player whose turn it is.
+	 * @param move the move the player sent.
+	 * @throws IllegalMove when the move is not legal.
+	 */
+	private void play(RemotePlayer player, Move move) throws IllegalMove {
+		switch (move.getType()) {
+			case Protocol.MOVE:
+				//Plays the tile, then deals the player a new one.
+				player.updateScore(game.playTile(move.getTile(), move.getIndex(),
+						move.getRotation()));
+				break;
+			case Protocol.TILEREPLACE:
+				game.replaceTile(move.getTile());
+				break;
+			case Protocol.SKIP:
+				break;
+		}
+		//Informs the clients of the turn made.
+		tellAllPlayers(Messages.turnMade(game, move));
+		game.setCurrentPlayer(game.getNextPlayer());
+		nextTurn();
+	}
+
+	/**
+	 * Kicks a player who made an illegal move or did not follow the protocol.
+	 * @param player the player to kick.
+	 * @param e the reason the move was rejected.
+	 */
+	private void reject(RemotePlayer player, Exception e) {
+		tui.writeError(e, location());
+		kick(player);
+	}
+
+	/**
+	 * Removes a player whose connection closed. Before the game starts the seat is given
+	 * back to the lobby, after that the player is kicked.
+	 * @param player the player whose connection closed.
+	 */
+	void onDisconnect(RemotePlayer player) {
+		if (finished || !game.getPlayers().contains(player)) {
+			return;
+		}
+		tui.write("client disconnected", location());
+		if (started) {
+			kick(player);
+		} else {
+			game.getPlayers().remove(player);
+			player.setSession(null);
+			lobby.leave(this);
+			if (game.getNumberOfPlayers() < Game.MIN_PLAYERS && startTimer != null) {
+				startTimer.cancel();
+				startTimer = null;
+			}
+		}
+	}
+
+	/**
+	 * Starts the game when it reached the preferred number of players. When the players do
+	 * not care how many they play with, starts it at once when it is full, or when the fill
+	 * window passed after the minimal number of players joined.
+	 */
+	private void checkStart() {
+		int players = game.getNumberOfPlayers();
+		if (game.getPreference() == -1) {
+			if (players == Game.MAX_PLAYERS) {
+				seal();
+			} else if (players >= Game.MIN_PLAYERS && startTimer == null) {
+				tui.write("Start conditions met, starting in " + fillWindow + " ms...",
+						location());
+				startTimer = loop.schedule(fillWindow, this::seal);
+			}
+		} else if (players == game.getPreference() && players >= Game.MIN_PLAYERS
+				&& players <= Game.MAX_PLAYERS) {
+			seal();
+		}
+	}
+
+	/**
+	 * Stops the lobby from adding players, then starts the game.
+	 */
+	private void seal() {
+		if (started) {
+			return;
+		}
+		lobby.seal(this);
+		if (startTimer != null) {
+			startTimer.cancel();
+		}
+		start();
+	}
+
+	/**
+	 * Deals the hands, selects a starting player and requests the first move.
+	 */
+	private void start() {
+		started = true;
+		tui.write("Start conditions met, starting...", location());
+		game.getBag().dealHands(game.getPlayers(), 4);
+		int index = game.getRandom().nextInt(game.getNumberOfPlayers());
+		game.setCurrentPlayer(game.getPlayers().get(index));
+		tellAllPlayers(Messages.gameStarted(game));
+		nextTurn();
+	}
+
+	/**
+	 * Requests a move from the current player, who is kicked if no move arrives in time,
+	 * or ends the game if it is over.
+	 */
+	private void nextTurn() {
+		if (game.gameOver()) {
+			finish();
+			return;
+		}
+		RemotePlayer current = (RemotePlayer) game.getCurrentPlayer();
+		current.send(Protocol.MOVEREQUEST);
+		tries = 0;
+		awaitMove(current);
+	}
+
+	/**
+	 * Starts the next try of the given player to make a move. The player is kicked when
+	 * the last try times out. A move arriving cancels the try.
+	 * @param current the player whose turn it is.
+	 */
+	private void awaitMove(RemotePlayer current) {
+		tries++;
+		moveTimer = loop.schedule(moveTimeout.toMillis(), () -> {
+			if (tries < moveTimeout.getTries()) {
+				awaitMove(current);
+			} else {
+				tui.write("Timed-out", location());
+				kick(current);
+			}
+		});
+	}
+
+	/**
+	 * Removes the given player from the game and tells the others. Ends the game when too
+	 * few players are left, continues with the next player otherwise.
+	 * @param player the player to kick.
+	 */
+	private void kick(RemotePlayer player) {
+		boolean current = player == game.getCurrentPlayer();
+		Player next = current ? game.getNextPlayer() : game.getCurrentPlayer();
+		game.getPlayers().remove(player);
+		player.shutdown();
+		if (game.getNumberOfPlayers() < Game.MIN_PLAYERS) {
+			finish();
+			return;
+		}
+		tellAllPlayers(Messages.kick(player));
+		if (current) {
+			moveTimer.cancel();
+			game.setCurrentPlayer(next);
+			nextTurn();
+		}
+	}
+
+	/**
+	 * Tells all players the game is over and closes their connections.
+	 */
+	private void finish() {
+		finished = true;
+		if (moveTimer != null) {
+			moveTimer.cancel();
+		}
+		tellAllPlayers(Messages.gameOver(game));
+		for (Player player : new ArrayList<>(game.getPlayers())) {
+			player.shutdown();
+		}
+		tui.write("Game #" + id + " is over.", location());
+	}
+
+	/**
+	 * Sends the given message to all players in the game.
+	 * @param msg the message to send.
+	 */
+	private void tellAllPlayers(String msg) {
+		List<Player> players = game.getPlayers();
+		for (Player player : players) {
+			((RemotePlayer) player).send(msg);
+		}
+	}
+
+	/**
+	 * @return the location to write messages of this session from.
+	 */
+	/*@pure */private String location() {
+		return "Game session#" + id;
+	}
+}
@@ -0,0 +1,161 @@
+package server.nio;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import model.Game;
+
+/**
+ * The lobby of the non-blocking server, finding a game session for every player that
+ * joins. Like the <code>GameMakerThread</code>, it keeps one open session per preference:
+ * 2, 3 or 4 players, or any number for every other preference. The lobby counts the seats
+ * taken in every open session, so it never needs to look at a game owned by another loop,
+ * and every bucket has a lock of its own, so players of different preferences are seated
+ * at the same time.
+ * @author pmbos
+ */
+public class Lobby {
+	private final NioServer server;
+	private final Bucket[] buckets;
+
+	/**
+	 * The sessions of one preference, with the session that is still taking players.
+	 */
+	private static final class Bucket {
+		private final Lock lock = new ReentrantLock();
+		private GameSession open;
+	}
+
+	/**
+	 * Creates an empty lobby for the given server.
+	 * @param server the server to create game sessions with.
+	 */
+	public Lobby(NioServer server) {
+		this.server = server;
+		this.buckets = new Bucket[Game.MAX_PLAYERS + 1];
+		//Bucket 0 holds the sessions of players who do not care how many players there are.
+		buckets[0] = new Bucket();
+		for (int i = Game.MIN_PLAYERS; i <= Game.MAX_PLAYERS; i++) {
+			buckets[i] = new Bucket();
+		}
+	}
+
+	// Queries
+
+	/**
+	 * @return the number of sessions waiting for players.
+	 */
+	/*@pure */public int getWaiting() {
+		int waiting = 0;
+		for (Bucket bucket : buckets) {
+			if (bucket != null) {
+				bucket.lock.lock();
+				try {
+					waiting += bucket.open == null ? 0 : 1;
+				} finally {
+					bucket.lock.unlock();
+				}
+			}
+		}
+		return waiting;
+	}
+
+	// Commands
+
+	/**
+	 * Seats the given player in the open session that corresponds with the wishes of the
+	 * player, or in a new session on the loop of the player if there is none. A player who
+	 * does not care how many players there are joins whichever session is open.
+	 * @param player the player to seat.
+	 */
+	//@requires player != null;
+	//@ensures player.getSession() != null;
+	public void join(RemotePlayer player) {
+		int preference = bucket(player.getPreference());
+		if (preference == 0) {
+			for (int i = Game.MIN_PLAYERS; i <= Game.MAX_PLAYERS; i++) {
+				if (join(player, i, false)) {
+					return;
+				}
+			}
+		}
+		join(player, preference, true);
+	}
+
+	/**
+	 * Gives back a seat of the given session. A full session that did not start takes
+	 * players again if its bucket has no open session.
+	 * @param session the session a player left.
+	 */
+	//@requires session != null;
+	public void leave(GameSession session) {
+		Bucket bucket = buckets[bucket(session.getGame().getPreference())];
+		bucket.lock.lock();
+		try {
+			session.seats--;
+			if (bucket.open == null) {
+				bucket.open = session;
+			}
+		} finally {
+			bucket.lock.unlock();
+		}
+	}
+
+	/**
+	 * Stops seating players in the given session, because its game starts.
+	 * @param session the session that starts.
+	 */
+	//@requires session != null;
+	public void seal(GameSession session) {
+		Bucket bucket = buckets[bucket(session.getGame().getPreference())];
+		bucket.lock.lock();
+		try {
+			if (bucket.open == session) {
+				bucket.open = null;
+			}
+		} finally {
+			bucket.lock.unlock();
+		}
+	}
+
+	/**
+	 * Seats the given player in the open session of the given bucket.
+	 * @param player the player to seat.
+	 * @param index the index of the bucket.
+	 * @param create whether to make a new session if the bucket has no open session.
+	 * @return true if the player was seated.
+	 */
+	private boolean join(RemotePlayer player, int index, boolean create) {
+		Bucket bucket = buckets[index];
+		GameSession session;
+		bucket.lock.lock();
+		try {
+			if (bucket.open == null) {
+				if (!create) {
+					return false;
+				}
+				bucket.open = server.createSession(index == 0 ? -1 : index,
+						player.getConnection().getLoop());
+			}
+			session = bucket.open;
+			session.seats++;
+			//A full session takes no more players.
+			if (session.seats == (index == 0 ? Game.MAX_PLAYERS : index)) {
+				bucket.open = null;
+			}
+		} finally {
+			bucket.lock.unlock();
+		}
+		player.setSession(session);
+		session.execute(() -> session.join(player));
+		return true;
+	}
+
+	/**
+	 * @param preference the preference of a player or a session.
+	 * @return the index of the bucket of the preference, 0 for any number of players.
+	 */
+	/*@pure */private static int bucket(int preference) {
+		return preference >= Game.MIN_PLAYERS && preference <= Game.MAX_PLAYERS ? preference : 0;
+	}
+}
@@ -0,0 +1,200 @@
+package server.nio;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import exceptions.EndOfProgram;
+import server.Controller;
+import server.MoveTimeout;
+import server.ServerUI;
+import util.BinaryProtocol;
+
+/**
+ * A spectrangle server multiplexing all its connections and games on a few
+ * <code>EventLoop</code> threads, instead of using threads per connection and per game.
+ * Started by passing <code>FLAG</code> to <code>Server</code>. Unlike the threaded server
+ * it offers the binary framing of <code>BinaryProtocol</code> as an extension.
+ * @author pmbos
+ */
+public class NioServer {
+	public static final String FLAG = "-nio";
+	public static final char[] EXTENSIONS = {BinaryProtocol.EXTENSION};
+	public static final int DEFAULT_LOOPS = Runtime.getRuntime().availableProcessors();
+	private final ServerUI tui;
+	private final EventLoop[] loops;
+	private final Lobby lobby;
+	private final AtomicInteger sessions;
+	private volatile MoveTimeout moveTimeout;
+	private volatile long fillWindow;
+	private ServerSocketChannel serverChannel;
+	private int next;
+
+	/**
+	 * Creates a server with the given number of event loops.
+	 * @param tui the user interface to write to.
+	 * @param loops the number of event loops.
+	 */
+	//@requires loops > 0;
+	public NioServer(ServerUI tui, int loops) {
+		this.tui = tui;
+		this.loops = new EventLoop[loops];
+		this.lobby = new Lobby(this);
+		this.sessions = new AtomicInteger();
+		this.moveTimeout = MoveTimeout.DEFAULT;
+		this.fillWindow = Controller.DEFAULT_FILL_WINDOW;
+		this.next = 0;
+	}
+
+	// Queries
+
+	/**
+	 * @return the lobby of the server.
+	 */
+	/*@pure */public Lobby getLobby() {
+		return lobby;
+	}
+
+	/**
+	 * @return the user interface of the server.
+	 */
+	/*@pure */public ServerUI getUI() {
+		return tui;
+	}
+
+	/**
+	 * @return the port the server listens on, -1 if it does not listen.
+	 */
+	/*@pure */public int getPort() {
+		try {
+			return serverChannel == null ? -1
+					: ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+		} catch (IOException e) {
+			return -1;
+		}
+	}
+
+	// Commands
+
+	/**
+	 * Asks for a port, serves on it and keeps reading the console until the exit command.
+	 */
+	public void start() {
+		try {
+			while (true) {
+				try {
+					//Asks for a port to listen on.
+					listen(tui.askPort());
+					break;
+				} catch (IllegalArgumentException e) {
+					tui.writeError(e, "Server");
+				} catch (IOException e) {
+					tui.write("Socket already in use", "Server");
+				}
+			}
+			//Indicates the server is live and listening.
+			tui.write("Server Live on: " + getPort(), "Server");
+			tui.showServerStarted("Server");
+			while (true) {
+				tui.readString("");
+			}
+		} catch (EndOfProgram e) {
+			tui.writeError(e, "Server");
+		}
+		shutdown();
+		System.exit(0);
+	}
+
+	/**
+	 * Starts the event loops and accepts connections on the given port.
+	 * @param port the port to listen on, 0 for any free port.
+	 * @throws IOException when the port cannot be bound.
+	 */
+	public void listen(int port) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(port));
+		serverChannel.configureBlocking(false);
+		for (int i = 0; i < loops.length; i++) {
+			loops[i] = new EventLoop(i, tui);
+			loops[i].start();
+		}
+		loops[0].execute(() -> {
+			try {
+				loops[0].register(serverChannel, SelectionKey.OP_ACCEPT, this);
+			} catch (IOException e) {
+				tui.writeError(e, "Server");
+			}
+		});
+	}
+
+	/**
+	 * Accepts all pending connections, handing them to the event loops in turn.
+	 */
+	void accept() {
+		try {
+			SocketChannel channel;
+			while ((channel = serverChannel.accept()) != null) {
+				channel.configureBlocking(false);
+				channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+				EventLoop loop = loops[next];
+				next = (next + 1) % loops.length;
+				Connection connection = new Connection(loop, channel, this);
+				loop.execute(connection::register);
+			}
+		} catch (IOException e) {
+			tui.writeError(e, "Server");
+		}
+	}
+
+	/**
+	 * Sets the time players of the games created from now on get to make a move.
+	 * @param moveTimeout the move timeout of new games.
+	 */
+	//@requires moveTimeout != null;
+	public void setMoveTimeout(MoveTimeout moveTimeout) {
+		this.moveTimeout = moveTimeout;
+	}
+
+	/**
+	 * Sets how long games created from now on wait for more players once the minimal amount
+	 * joined, when the players do not care how many they play with.
+	 * @param window the fill window in milliseconds.
+	 */
+	//@requires window >= 0;
+	public void setFillWindow(long window) {
+		this.fillWindow = window;
+	}
+
+	/**
+	 * Creates a new game session on the given loop.
+	 * @param preference the preference of the game.
+	 * @param loop the loop to play the game on.
+	 * @return the new session.
+	 */
+	public GameSession createSession(int preference, EventLoop loop) {
+		return new GameSession(sessions.getAndIncrement(), preference, loop, lobby, tui,
+				moveTimeout, fillWindow);
+	}
+
+	/**
+	 * Stops accepting connections and stops the event loops, closing all connections.
+	 */
+	public void shutdown() {
+		try {
+			if (serverChannel != null) {
+				serverChannel.close();
+			}
+		} catch (IOException e) {
+			tui.writeError(e, "Server");
+		}
+		for (EventLoop loop : loops) {
+			if (loop != null) {
+				loop.shutdown();
+			}
+		}
+	}
+}
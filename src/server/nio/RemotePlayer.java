@@ -0,0 +1,67 @@
+package server.nio;
+
+import model.Player;
+
+/**
+ * A player playing on the server through a non-blocking <code>Connection</code>.
+ * @author pmbos
+ */
+public class RemotePlayer extends Player {
+	private final Connection connection;
+	private volatile GameSession session;
+
+	/**
+	 * Creates a player with the given name and preference, playing through the given
+	 * connection.
+	 * @param name the name of the player.
+	 * @param preference the preferred number of players, -1 if any number is fine.
+	 * @param connection the connection with the client.
+	 */
+	//@ensures getSession() == null;
+	public RemotePlayer(String name, int preference, Connection connection) {
+		super(name, preference);
+		this.connection = connection;
+	}
+
+	// Queries
+
+	/**
+	 * @return the connection with the client.
+	 */
+	/*@pure */public Connection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * @return the game session the player is in, null if there is none yet.
+	 */
+	/*@pure */public GameSession getSession() {
+		return session;
+	}
+
+	// Commands
+
+	/**
+	 * @param session the game session the player is in.
+	 */
+	//@ensures getSession() == session;
+	public void setSession(GameSession session) {
+		this.session = session;
+	}
+
+	/**
+	 * Sends the given line to the client.
+	 * @param msg the line to send.
+	 */
+	public void send(String msg) {
+		connection.send(msg);
+	}
+
+	/**
+	 * Closes the connection with the client once everything sent is written.
+	 */
+	@Override
+	public void shutdown() {
+		connection.close();
+	}
+}
@@ -0,0 +1,153 @@
+package server.nio;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hashed timer wheel, scheduling tasks with a precision of one tick.
+ * A task is kept in the slot of the tick it is due in, so scheduling and cancelling take
+ * constant time and advancing the wheel only looks at the slots of the ticks that passed.
+ * The wheel is not thread safe: it is owned by the thread of one <code>EventLoop</code>.
+ * @author pmbos
+ */
+public class TimerWheel {
+	private final long tick;
+	private final List<Timeout>[] slots;
+	private final int mask;
+	//The tasks found due while advancing, kept between advances to not allocate a list per tick.
+	private final List<Timeout> expired;
+	private long current;
+	private int size;
+
+	/**
+	 * A task scheduled on the wheel.
+	 */
+	public static final class Timeout {
+		private final long due;
+		private final Runnable task;
+		private boolean cancelled;
+
+		/**
+		 * @param due the tick the task is due in.
+		 * @param task the task to run.
+		 */
+		private Timeout(long due, Runnable task) {
+			this.due = due;
+			this.task = task;
+			this.cancelled = false;
+		}
+
+		/**
+		 * Cancels the task, if it did not run yet.
+		 */
+		public void cancel() {
+			cancelled = true;
+		}
+
+		/**
+		 * @return true if the task was cancelled.
+		 */
+		/*@pure */public boolean isCancelled() {
+			return cancelled;
+		}
+	}
+
+	/**
+	 * Creates a new, empty wheel.
+	 * @param tick the length of a tick in milliseconds.
+	 * @param slots the number of slots, rounded up to a power of two.
+	 * @param now the current time in milliseconds.
+	 */
+	//@requires tick > 0 && slots > 0;
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public TimerWheel(long tick, int slots, long now) {
+		int length = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+		this.tick = tick;
+		this.slots = new List[length];
+		for (int i = 0; i < length; i++) {
+			this.slots[i] = new ArrayList<>();
+		}
+		this.mask = length - 1;
+		this.expired = new ArrayList<>();
+		this.current = now / tick;
+		this.size = 0;
+	}
+
+	// Queries
+
+	/**
+	 * @return the length of a tick in milliseconds.
+	 */
+	/*@pure */public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return true if no tasks are scheduled, cancelled tasks that were not yet removed
+	 * included.
+	 */
+	/*@pure */public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// Commands
+
+	/**
+	 * Schedules the given task to run after the given delay.
+	 * @param delay the delay in milliseconds.
+	 * @param now the current time in milliseconds.
+	 * @param task the task to run.
+	 * @return the scheduled task, which can be cancelled.
+	 */
+	//@requires delay >= 0 && task != null;
+	//@ensures !isEmpty();
+	public Timeout schedule(long delay, long now, Runnable task) {
+		long due = Math.max(current + 1, (now + delay + tick - 1) / tick);
+		Timeout timeout = new Timeout(due, task);
+		slots[(int) (due & mask)].add(timeout);
+		size++;
+		return timeout;
+	}
+
+	/**
+	 * Runs every task that is due at the given time and was not cancelled.
+	 * @param now the current time in milliseconds.
+	 */
+	public void advance(long now) {
+		long target = now / tick;
+		if (size == 0) {
+			current = Math.max(current, target);
+			return;
+		}
+		while (current < target && size > 0) {
+			current++;
+			List<Timeout> slot = slots[(int) (current & mask)];
+			int i = 0;
+			while (i < slot.size()) {
+				Timeout timeout = slot.get(i);
+				if (timeout.cancelled || timeout.due <= current) {
+					//Removes the task by moving the last task of the slot into its place.
+					slot.set(i, slot.get(slot.size() - 1));
+					slot.remove(slot.size() - 1);
+					size--;
+					if (!timeout.cancelled) {
+						expired.add(timeout);
+					}
+				} else {
+					i++;
+				}
+			}
+		}
+		current = Math.max(current, target);
+		try {
+			for (int i = 0; i < expired.size(); i++) {
+				Timeout timeout = expired.get(i);
+				if (!timeout.cancelled) {
+					timeout.task.run();
+				}
+			}
+		} finally {
+			expired.clear();
+		}
+	}
+}
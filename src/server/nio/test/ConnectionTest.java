@@ -0,0 +1,202 @@
+package server.nio.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.NotOfProtocol;
+import server.ServerUI;
+import server.nio.NioServer;
+import util.BinaryProtocol;
+import util.Protocol;
+
+class ConnectionTest {
+	ServerUI tui = new ServerUI();
+	NioServer server;
+	List<Socket> sockets;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new NioServer(tui, 1);
+		server.listen(0);
+		sockets = new ArrayList<>();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		server.shutdown();
+	}
+
+	/**
+	 * @return a new client connected to the server over the loopback interface.
+	 */
+	private Socket connect() throws IOException {
+		Socket socket = new Socket("localhost", server.getPort());
+		socket.setSoTimeout(5000);
+		sockets.add(socket);
+		return socket;
+	}
+
+	/**
+	 * Writes the given text to the socket and flushes it.
+	 */
+	private void write(Socket socket, String text) throws IOException {
+		OutputStream out = socket.getOutputStream();
+		out.write(text.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	/**
+	 * @return a reader of the lines the server sends to the socket.
+	 */
+	private BufferedReader reader(Socket socket) throws IOException {
+		return new BufferedReader(new InputStreamReader(socket.getInputStream(),
+				StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testLineSplitOverWrites() throws IOException, InterruptedException {
+		Socket socket = connect();
+		BufferedReader in = reader(socket);
+		write(socket, "CONNECT");
+		Thread.sleep(50);
+		write(socket, "REQUEST,Pascal");
+		Thread.sleep(50);
+		write(socket, "\r\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER, in.readLine());
+	}
+
+	@Test
+	void testIgnoresLinesBeforeConnectRequest() throws IOException {
+		Socket socket = connect();
+		BufferedReader in = reader(socket);
+		write(socket, "\nJOINGAME,2\nCONNECTREQUEST,Pascal,XB\n");
+		//Only the extensions the server supports are accepted.
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER + BinaryProtocol.EXTENSION,
+				in.readLine());
+	}
+
+	@Test
+	void testHandshakeAndJoin() throws IOException {
+		//Two lines in one write, both handled.
+		Socket first = connect();
+		BufferedReader firstIn = reader(first);
+		write(first, "CONNECTREQUEST,Pascal\nJOINGAME,2\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER, firstIn.readLine());
+
+		Socket second = connect();
+		BufferedReader secondIn = reader(second);
+		write(second, "CONNECTREQUEST,Alina\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER, secondIn.readLine());
+		write(second, "JOINGAME,2\n");
+
+		String started = firstIn.readLine();
+		assertTrue(started.startsWith(Protocol.GAMESTARTED), started);
+		assertTrue(started.contains("Pascal") && started.contains("Alina"), started);
+		assertEquals(started, secondIn.readLine());
+	}
+
+	@Test
+	void testBinaryHandshake() throws IOException, NotOfProtocol {
+		Socket binary = connect();
+		BufferedReader binaryIn = reader(binary);
+		write(binary, "CONNECTREQUEST,Pascal," + BinaryProtocol.EXTENSION + "\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER + BinaryProtocol.EXTENSION,
+				binaryIn.readLine());
+		BinaryProtocol.write(binary.getOutputStream(), "JOINGAME,2");
+
+		Socket text = connect();
+		BufferedReader textIn = reader(text);
+		write(text, "CONNECTREQUEST,Alina\nJOINGAME,2\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER, textIn.readLine());
+
+		//The same game start reaches one client as a frame and the other as a line.
+		String started = textIn.readLine();
+		assertTrue(started.startsWith(Protocol.GAMESTARTED), started);
+		assertEquals(started, BinaryProtocol.read(binary.getInputStream()));
+	}
+
+	@Test
+	void testBrokenFrameCloses() throws IOException {
+		Socket binary = connect();
+		BufferedReader binaryIn = reader(binary);
+		write(binary, "CONNECTREQUEST,Pascal," + BinaryProtocol.EXTENSION + "\n");
+		assertNotNull(binaryIn.readLine());
+		//An empty frame is not of the protocol.
+		binary.getOutputStream().write(new byte[] {0, 0});
+		assertEquals(-1, binary.getInputStream().read());
+	}
+
+	/**
+	 * Starts a game between Pascal on the given binary client and Alina on the given text
+	 * client, and plays until it is the turn of Pascal. Alina skips if she is asked first.
+	 * @return the reader of the lines the text client receives.
+	 */
+	private BufferedReader untilBinaryTurn(Socket binary, Socket text) throws IOException,
+			NotOfProtocol {
+		write(binary, "CONNECTREQUEST,Pascal," + BinaryProtocol.EXTENSION + "\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER + BinaryProtocol.EXTENSION,
+				reader(binary).readLine());
+		BinaryProtocol.write(binary.getOutputStream(), "JOINGAME,2");
+		BufferedReader textIn = reader(text);
+		write(text, "CONNECTREQUEST,Alina\nJOINGAME,2\n");
+		assertEquals(Protocol.CONNECTACCEPT + Protocol.DELIMITER, textIn.readLine());
+		assertTrue(textIn.readLine().startsWith(Protocol.GAMESTARTED));
+		assertTrue(BinaryProtocol.read(binary.getInputStream()).startsWith(Protocol.GAMESTARTED));
+
+		binary.setSoTimeout(300);
+		try {
+			assertEquals(Protocol.MOVEREQUEST, BinaryProtocol.read(binary.getInputStream()));
+			binary.setSoTimeout(5000);
+			return textIn;
+		} catch (SocketTimeoutException e) {
+			//Alina is asked first.
+			binary.setSoTimeout(5000);
+		}
+		assertEquals(Protocol.MOVEREQUEST, textIn.readLine());
+		write(text, Protocol.SKIP + "\n");
+		String turn = textIn.readLine();
+		assertTrue(turn.startsWith(Protocol.TURNMADE + Protocol.DELIMITER + Protocol.SKIPSHORT
+				+ Protocol.DELIMITER + "Alina"), turn);
+		assertEquals(turn, BinaryProtocol.read(binary.getInputStream()));
+		assertEquals(Protocol.MOVEREQUEST, BinaryProtocol.read(binary.getInputStream()));
+		return textIn;
+	}
+
+	@Test
+	void testBinaryMove() throws IOException, NotOfProtocol {
+		Socket binary = connect();
+		BufferedReader textIn = untilBinaryTurn(binary, connect());
+		//The skip is read straight from the frame.
+		BinaryProtocol.write(binary.getOutputStream(), Protocol.SKIP);
+		String turn = textIn.readLine();
+		assertTrue(turn.startsWith(Protocol.TURNMADE + Protocol.DELIMITER + Protocol.SKIPSHORT
+				+ Protocol.DELIMITER + "Pascal"), turn);
+		assertEquals(turn, BinaryProtocol.read(binary.getInputStream()));
+	}
+
+	@Test
+	void testBrokenMoveFrameKicks() throws IOException, NotOfProtocol {
+		Socket binary = connect();
+		BufferedReader textIn = untilBinaryTurn(binary, connect());
+		//Rotation 3 does not exist.
+		binary.getOutputStream().write(new byte[] {0, 3, BinaryProtocol.MOVE, 0, (byte) 0xC0});
+		String over = textIn.readLine();
+		assertTrue(over.startsWith(Protocol.GAMEOVER + Protocol.DELIMITER + "Alina"), over);
+	}
+}
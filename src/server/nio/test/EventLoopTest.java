@@ -0,0 +1,63 @@
+package server.nio.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.ServerUI;
+import server.nio.EventLoop;
+
+class EventLoopTest {
+	ServerUI tui = new ServerUI();
+	EventLoop loop;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		loop = new EventLoop(0, tui);
+		loop.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		loop.shutdown();
+		loop.join(1000);
+	}
+
+	@Test
+	void testExecute() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		loop.execute(() -> {
+			assertTrue(loop.inLoop());
+			done.countDown();
+		});
+		assertTrue(done.await(1, TimeUnit.SECONDS));
+		assertFalse(loop.inLoop());
+	}
+
+	@Test
+	void testTaskHandedToItself() throws InterruptedException {
+		//A loop without channels or timers must not wait in select for a task it posted.
+		CountDownLatch done = new CountDownLatch(1);
+		loop.execute(() -> loop.execute(done::countDown));
+		assertTrue(done.await(1, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void testSchedule() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		long[] ran = new long[1];
+		long start = EventLoop.now();
+		loop.execute(() -> loop.schedule(2 * EventLoop.TICK, () -> {
+			ran[0] = EventLoop.now();
+			done.countDown();
+		}));
+		assertTrue(done.await(2, TimeUnit.SECONDS));
+		assertTrue(ran[0] - start >= EventLoop.TICK);
+	}
+}
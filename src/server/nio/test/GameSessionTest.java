@@ -0,0 +1,96 @@
+package server.nio.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.MoveTimeout;
+import server.ServerUI;
+import server.nio.NioServer;
+import util.Protocol;
+
+class GameSessionTest {
+	static final int TIMEOUT = 200;
+	static final int TRIES = 2;
+	ServerUI tui = new ServerUI();
+	NioServer server;
+	List<Socket> sockets;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new NioServer(tui, 1);
+		server.setMoveTimeout(new MoveTimeout(TIMEOUT, TimeUnit.MILLISECONDS, TRIES));
+		server.listen(0);
+		sockets = new ArrayList<>();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		server.shutdown();
+	}
+
+	/**
+	 * Connects a client with the given name and preference and reads the connect accept.
+	 * @return the reader of the client.
+	 */
+	private BufferedReader join(String name, int preference) throws IOException {
+		Socket socket = new Socket("localhost", server.getPort());
+		socket.setSoTimeout(5000);
+		sockets.add(socket);
+		PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		out.println(Protocol.CONNECTREQUEST + Protocol.DELIMITER + name);
+		assertTrue(in.readLine().startsWith(Protocol.CONNECTACCEPT));
+		out.println(Protocol.JOINGAME + Protocol.DELIMITER + preference);
+		return in;
+	}
+
+	@Test
+	void testSilentPlayerIsKicked() throws IOException {
+		BufferedReader pascal = join("Pascal", 2);
+		BufferedReader alina = join("Alina", 2);
+		assertTrue(pascal.readLine().startsWith(Protocol.GAMESTARTED));
+		assertTrue(alina.readLine().startsWith(Protocol.GAMESTARTED));
+
+		long started = System.nanoTime();
+
+		//Neither client moves, so whoever is asked first times out. Too few players are
+		//left then, so the other player is told the game is over.
+		String first = pascal.readLine();
+		BufferedReader silent;
+		BufferedReader other;
+		String over;
+		if (Protocol.MOVEREQUEST.equals(first)) {
+			silent = pascal;
+			other = alina;
+			over = alina.readLine();
+		} else {
+			silent = alina;
+			other = pascal;
+			over = first;
+			assertEquals(Protocol.MOVEREQUEST, alina.readLine());
+		}
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+		String winner = silent == pascal ? "Alina" : "Pascal";
+		assertEquals(Protocol.GAMEOVER + Protocol.DELIMITER + winner + Protocol.DELIMITER + "0"
+				+ Protocol.DELIMITER, over);
+		assertTrue(elapsed >= TIMEOUT, "kicked after " + elapsed + " ms");
+		//The kicked player hears nothing more and is disconnected.
+		assertNull(silent.readLine());
+		assertNull(other.readLine());
+	}
+}
@@ -0,0 +1,87 @@
+package server.nio.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.ServerUI;
+import server.nio.NioServer;
+import util.Protocol;
+
+class LobbyTest {
+	ServerUI tui = new ServerUI();
+	NioServer server;
+	List<Socket> sockets;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		server = new NioServer(tui, 1);
+		server.listen(0);
+		sockets = new ArrayList<>();
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		for (Socket socket : sockets) {
+			socket.close();
+		}
+		server.shutdown();
+	}
+
+	/**
+	 * Connects a client with the given name and preference, and waits until the lobby has
+	 * the given number of waiting sessions.
+	 * @return the reader of the client.
+	 */
+	private BufferedReader join(String name, int preference, int waiting)
+			throws IOException, InterruptedException {
+		Socket socket = new Socket("localhost", server.getPort());
+		socket.setSoTimeout(5000);
+		sockets.add(socket);
+		PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+		BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+		out.println(Protocol.CONNECTREQUEST + Protocol.DELIMITER + name);
+		assertTrue(in.readLine().startsWith(Protocol.CONNECTACCEPT));
+		out.println(Protocol.JOINGAME + Protocol.DELIMITER + preference);
+		for (int i = 0; i < 200 && server.getLobby().getWaiting() != waiting; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(waiting, server.getLobby().getWaiting());
+		return in;
+	}
+
+	@Test
+	void testPreferences() throws IOException, InterruptedException {
+		BufferedReader pascal = join("Pascal", 2, 1);
+		//A player who wants four players does not join the game of two.
+		join("Alina", 4, 2);
+		join("Jan", 2, 1);
+		String started = pascal.readLine();
+		assertTrue(started.startsWith(Protocol.GAMESTARTED));
+		assertTrue(started.contains("Jan"));
+		assertFalse(started.contains("Alina"));
+	}
+
+	@Test
+	void testAnyNumber() throws IOException, InterruptedException {
+		join("Pascal", -1, 1);
+		//A player who wants two players does not join a game for any number of players.
+		BufferedReader alina = join("Alina", 2, 2);
+		//Any other preference counts as any number, joining the smallest open game first.
+		join("Jan", 7, 1);
+		String started = alina.readLine();
+		assertTrue(started.startsWith(Protocol.GAMESTARTED));
+		assertTrue(started.contains("Jan"));
+		assertFalse(started.contains("Pascal"));
+	}
+}
@@ -0,0 +1,98 @@
+package server.nio.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.nio.TimerWheel;
+
+class TimerWheelTest {
+	TimerWheel wheel;
+	List<String> ran;
+
+	@BeforeEach
+	void setUp() {
+		//Ticks of 10 ms in 4 slots, starting at time 0.
+		wheel = new TimerWheel(10, 4, 0);
+		ran = new ArrayList<>();
+	}
+
+	@Test
+	void testInitial() {
+		assertTrue(wheel.isEmpty());
+		assertEquals(wheel.getTick(), 10);
+		wheel.advance(1000);
+		assertTrue(ran.isEmpty());
+	}
+
+	@Test
+	void testScheduleAndAdvance() {
+		wheel.schedule(25, 0, () -> ran.add("a"));
+		assertFalse(wheel.isEmpty());
+		wheel.advance(20);
+		assertTrue(ran.isEmpty());
+		wheel.advance(30);
+		assertEquals(List.of("a"), ran);
+		assertTrue(wheel.isEmpty());
+		wheel.advance(100);
+		assertEquals(List.of("a"), ran);
+	}
+
+	@Test
+	void testZeroDelayRunsOnNextTick() {
+		wheel.schedule(0, 0, () -> ran.add("a"));
+		wheel.advance(9);
+		assertTrue(ran.isEmpty());
+		wheel.advance(10);
+		assertEquals(List.of("a"), ran);
+	}
+
+	@Test
+	void testOrderOfDueTasks() {
+		wheel.schedule(30, 0, () -> ran.add("late"));
+		wheel.schedule(10, 0, () -> ran.add("early"));
+		wheel.advance(15);
+		assertEquals(List.of("early"), ran);
+		wheel.advance(35);
+		assertEquals(List.of("early", "late"), ran);
+	}
+
+	@Test
+	void testCancel() {
+		TimerWheel.Timeout timeout = wheel.schedule(10, 0, () -> ran.add("a"));
+		wheel.schedule(10, 0, () -> ran.add("b"));
+		timeout.cancel();
+		assertTrue(timeout.isCancelled());
+		wheel.advance(10);
+		assertEquals(List.of("b"), ran);
+		assertTrue(wheel.isEmpty());
+	}
+
+	@Test
+	void testMoreRoundsThanSlots() {
+		//Due in tick 10, which shares its slot with ticks 2 and 6.
+		wheel.schedule(100, 0, () -> ran.add("a"));
+		wheel.advance(60);
+		assertTrue(ran.isEmpty());
+		wheel.advance(99);
+		assertTrue(ran.isEmpty());
+		wheel.advance(100);
+		assertEquals(List.of("a"), ran);
+	}
+
+	@Test
+	void testTaskSchedulingAnother() {
+		wheel.schedule(10, 0, () -> {
+			ran.add("a");
+			wheel.schedule(10, 10, () -> ran.add("b"));
+		});
+		wheel.advance(10);
+		assertEquals(List.of("a"), ran);
+		wheel.advance(20);
+		assertEquals(List.of("a", "b"), ran);
+	}
+}
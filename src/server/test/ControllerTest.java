@@ -0,0 +1,81 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.ComputerPlayer;
+import model.Game;
+import server.Controller;
+import server.GameMakerThread;
+import server.ServerUI;
+
+class ControllerTest {
+	static final long WINDOW = 100;
+	GameMakerThread gameMaker;
+	ServerUI tui = new ServerUI();
+
+	@BeforeEach
+	void setUp() {
+		gameMaker = new GameMakerThread(tui);
+		gameMaker.setFillWindow(WINDOW);
+	}
+
+	/**
+	 * Seats the given number of players who do not care how many players there are.
+	 * @return the controller of the last player.
+	 */
+	private Controller seat(int players) {
+		for (int i = 0; i < players; i++) {
+			gameMaker.seat(new ComputerPlayer("Player " + i, -1));
+		}
+		return GameMakerThread.getGames().get(GameMakerThread.getGames().size() - 1);
+	}
+
+	@Test
+	void testStartsAfterWindow() throws InterruptedException {
+		Controller controller = seat(1);
+		assertNull(controller.getFillTimer());
+		long start = System.nanoTime();
+		seat(1);
+		assertFalse(controller.hasStarted());
+		assertNotNull(controller.getFillTimer());
+
+		long deadline = start + TimeUnit.SECONDS.toNanos(2);
+		while (!controller.hasStarted() && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(controller.hasStarted());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(WINDOW));
+		assertEquals(2, controller.getGame().getNumberOfPlayers());
+
+		//The started game is sealed.
+		assertNotSame(controller, seat(1));
+		assertEquals(2, controller.getGame().getNumberOfPlayers());
+	}
+
+	@Test
+	void testStartsWhenFull() {
+		gameMaker.setFillWindow(60000);
+		Controller controller = seat(Game.MIN_PLAYERS);
+		assertFalse(controller.hasStarted());
+		assertSame(controller, seat(Game.MAX_PLAYERS - Game.MIN_PLAYERS));
+		assertTrue(controller.hasStarted());
+		//The timer is cancelled instead of starting the game a second time.
+		assertTrue(controller.getFillTimer().isCancelled());
+	}
+
+	@Test
+	void testPreferenceHasNoTimer() {
+		gameMaker.seat(new ComputerPlayer("Pascal", 3));
+		gameMaker.seat(new ComputerPlayer("Alina", 3));
+		Controller controller = GameMakerThread.getGames().get(0);
+		assertNull(controller.getFillTimer());
+		assertFalse(controller.hasStarted());
+		gameMaker.seat(new ComputerPlayer("Jan", 3));
+		assertTrue(controller.hasStarted());
+	}
+}
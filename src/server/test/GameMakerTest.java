@@ -2,95 +2,145 @@ package server.test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import model.*;
+import server.Controller;
 import server.GameMakerThread;
 import server.ServerUI;
 import strategies.StupidStrategy;
 
 class GameMakerTest {
-	//Was made when the game maker could still be run stand-alone. That is no longer possible
-	//so the test will not complete.
+	//The players have no connection, so a game they fill is sealed but never played.
 	GameMakerThread gameMaker;
 	ServerUI tui = new ServerUI();
 	Player player;
 	Player player2;
 	Player player3;
+
 	@BeforeEach
 	void setUp() {
 		gameMaker = new GameMakerThread(tui);
 		player = new ComputerPlayer("Pascal", new StupidStrategy(player), 2);
 		player2 = new ComputerPlayer("Alina", new StupidStrategy(player2), -1);
 		player3 = new ComputerPlayer("Jan", new StupidStrategy(player3), -1);
-		gameMaker.start();
+	}
+
+	/**
+	 * @return a player without a connection with the given name and preference.
+	 */
+	private static Player player(String name, int preference) {
+		return new ComputerPlayer(name, preference);
 	}
 
 	@Test
 	void testInitial() {
 		assertEquals(gameMaker.getQueue().size(), 0);
 		assertEquals(GameMakerThread.getGames().size(), 0);
-		gameMaker.interrupt();
+		gameMaker.addToQueue(player);
+		assertEquals(gameMaker.getQueue().size(), 1);
+		//Queued players are only seated by the running worker.
+		assertEquals(GameMakerThread.getGames().size(), 0);
 	}
-	
+
 	@Test
 	void testAddPlayer() {
-		gameMaker.addToQueue(player);
-		try {
-			Thread.sleep(200);
-		} catch (InterruptedException e) {
-			System.out.println(e.getMessage());
-		}
+		gameMaker.seat(player);
 
 		assertEquals(GameMakerThread.getGames().size(), 1);
-		assertEquals(GameMakerThread.getGames().get(0).getGame().getNumberOfPlayers(), 1);
-		assertEquals(GameMakerThread.getGames().get(0).getGame().getPlayers().get(0).name(), 
-				"Pascal");
-		assertEquals(GameMakerThread.getGames().get(0).getGame().getPreference(), 2);
-		gameMaker.interrupt();
+		Game game = GameMakerThread.getGames().get(0).getGame();
+		assertEquals(game.getNumberOfPlayers(), 1);
+		assertEquals(game.getPlayers().get(0).name(), "Pascal");
+		assertEquals(game.getPreference(), 2);
+		assertFalse(GameMakerThread.getGames().get(0).hasStarted());
 	}
-	
+
 	@Test
 	void testMultiplePlayers() {
-		gameMaker.setName("GameMaker");
-		gameMaker.addToQueue(player);
-		gameMaker.addToQueue(player2);
-		try {
-			Thread.sleep(400);
-		} catch (InterruptedException e) {
-			System.out.println(e.getMessage());
-		}
-		assertEquals(gameMaker.getQueue().size(), 0);
+		gameMaker.seat(player);
+		gameMaker.seat(player2);
 
+		//The player who does not care joins the open game of two.
 		assertEquals(GameMakerThread.getGames().size(), 1);
 		assertEquals(GameMakerThread.getGames().get(0).getGame().getNumberOfPlayers(), 2);
 		assertEquals(GameMakerThread.getGames().get(0).getGame().getPreference(), 2);
-		try {
-			Thread.sleep(200);
-		} catch (InterruptedException e) {
-			System.out.println(e.getMessage());
-		}
 		assertTrue(GameMakerThread.getGames().get(0).hasStarted());
-		gameMaker.interrupt();
 	}
 
 	@Test
 	void testMorePlayersThanPreference() {
-		gameMaker.setName("GameMaker");
-		gameMaker.addToQueue(player);
-		gameMaker.addToQueue(player2);
-		gameMaker.addToQueue(player3);
-		
-		try {
-			Thread.sleep(400);
-		} catch (InterruptedException e) {
-			System.out.println(e.getMessage());
-		}
-		assertEquals(gameMaker.getQueue().size(), 0);
+		gameMaker.seat(player);
+		gameMaker.seat(player2);
+		gameMaker.seat(player3);
+
+		//The full game is sealed, so the third player gets a game of its own.
+		List<Controller> games = GameMakerThread.getGames();
+		assertEquals(games.size(), 2);
+		assertEquals(games.get(0).getGame().getNumberOfPlayers(), 2);
+		assertEquals(games.get(1).getGame().getNumberOfPlayers(), 1);
+		assertEquals(games.get(1).getGame().getPreference(), -1);
+		assertFalse(games.get(1).hasStarted());
+	}
+
+	@Test
+	void testBuckets() {
+		gameMaker.seat(player("Pascal", 3));
+		gameMaker.seat(player("Alina", 4));
+		gameMaker.seat(player("Jan", 3));
+
+		//Players are seated by their preference.
+		List<Controller> games = GameMakerThread.getGames();
+		assertEquals(games.size(), 2);
+		assertEquals(games.get(0).getGame().getPreference(), 3);
+		assertEquals(games.get(0).getGame().getNumberOfPlayers(), 2);
+		assertEquals(games.get(1).getGame().getPreference(), 4);
+		assertEquals(games.get(1).getGame().getNumberOfPlayers(), 1);
+
+		//Any other preference counts as any number, joining the smallest open game first.
+		gameMaker.seat(player("Ilse", 7));
+		assertEquals(games.get(0).getGame().getNumberOfPlayers(), 3);
+		assertTrue(games.get(0).hasStarted());
+		gameMaker.seat(player("Bart", -1));
+		gameMaker.seat(player("Kees", -1));
+		assertEquals(games.get(1).getGame().getNumberOfPlayers(), 3);
+		assertFalse(games.get(1).hasStarted());
+		gameMaker.seat(player("Piet", -1));
+		assertTrue(games.get(1).hasStarted());
+		assertEquals(games.size(), 2);
+
+		//Without open games, a new game for any number of players is made.
+		gameMaker.seat(player("Anne", -1));
+		assertEquals(games.size(), 3);
+		assertEquals(games.get(2).getGame().getPreference(), -1);
+	}
+
+	@Test
+	void testSeal() {
+		gameMaker.seat(player("Pascal", 3));
+		Controller sealed = GameMakerThread.getGames().get(0);
+		GameMakerThread.seal(sealed);
+
+		gameMaker.seat(player("Alina", 3));
 		assertEquals(GameMakerThread.getGames().size(), 2);
-		assertEquals(GameMakerThread.getGames().get(0).getGame().getNumberOfPlayers(), 2);
+		assertEquals(sealed.getGame().getNumberOfPlayers(), 1);
 		assertEquals(GameMakerThread.getGames().get(1).getGame().getNumberOfPlayers(), 1);
+
+		//Sealing a game that is no longer open leaves the open game alone.
+		GameMakerThread.seal(sealed);
+		gameMaker.seat(player("Jan", 3));
+		assertEquals(GameMakerThread.getGames().size(), 2);
+		assertEquals(GameMakerThread.getGames().get(1).getGame().getNumberOfPlayers(), 2);
+	}
+
+	@Test
+	void testRun() throws InterruptedException {
+		gameMaker.addToQueue(player);
+		gameMaker.start();
 		gameMaker.interrupt();
+		gameMaker.join(1000);
+		assertFalse(gameMaker.isAlive());
 	}
 }
@@ -0,0 +1,131 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.GetInputOnTimeout;
+
+class GetInputOnTimeoutTest {
+	Socket client;
+	Socket server;
+	BufferedReader input;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		try (ServerSocket listener = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			client = new Socket(InetAddress.getLoopbackAddress(), listener.getLocalPort());
+			server = listener.accept();
+		}
+		input = new BufferedReader(new InputStreamReader(server.getInputStream(),
+				StandardCharsets.UTF_8));
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		client.close();
+		server.close();
+	}
+
+	/**
+	 * Sends the given text as the client.
+	 */
+	private void send(String text) throws IOException {
+		OutputStream out = client.getOutputStream();
+		out.write(text.getBytes(StandardCharsets.UTF_8));
+		out.flush();
+	}
+
+	/**
+	 * @return a reader trying the given number of times for 50 ms each.
+	 */
+	private GetInputOnTimeout reader(int tries) {
+		return new GetInputOnTimeout(tries, 50, server, input, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	void testLine() throws IOException {
+		send("\r\nMOVE,RRR6,0,0\r\nSKIP\n");
+		assertEquals("MOVE,RRR6,0,0", reader(1).readLine());
+		assertEquals("SKIP", reader(1).readLine());
+		assertEquals(0, server.getSoTimeout());
+	}
+
+	@Test
+	void testTimeout() throws IOException {
+		long start = System.nanoTime();
+		assertNull(reader(2).readLine());
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertEquals(0, server.getSoTimeout());
+	}
+
+	@Test
+	void testLineOverTries() throws IOException, InterruptedException {
+		send("MOVE,RR");
+		Thread rest = new Thread(() -> {
+			try {
+				//Lets at least one read timeout expire halfway the line.
+				Thread.sleep(120);
+				send("R6,0,0\n");
+			} catch (IOException | InterruptedException e) {
+				fail(e);
+			}
+		});
+		rest.start();
+		assertEquals("MOVE,RRR6,0,0", reader(10).readLine());
+		rest.join();
+	}
+
+	@Test
+	void testTrickle() throws IOException, InterruptedException {
+		Thread trickle = new Thread(() -> {
+			try {
+				//Every byte comes before a single try of 50 ms expires.
+				for (char c : "MOVE,RRR6,0,0\n".toCharArray()) {
+					send(String.valueOf(c));
+					Thread.sleep(40);
+				}
+			} catch (IOException | InterruptedException e) {
+				//The reader gave up and the test closed the socket.
+			}
+		});
+		trickle.start();
+		long start = System.nanoTime();
+		assertNull(reader(2).readLine());
+		long elapsed = System.nanoTime() - start;
+		assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(100));
+		assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(400));
+		assertEquals(0, server.getSoTimeout());
+		trickle.interrupt();
+		trickle.join();
+	}
+
+	@Test
+	void testDisconnected() throws IOException {
+		send("MOVE,RR");
+		client.close();
+		assertThrows(IOException.class, () -> reader(2).readLine());
+	}
+
+	@Test
+	void testWithoutSocket() throws IOException {
+		BufferedReader lines = new BufferedReader(new StringReader("SKIP\n"));
+		GetInputOnTimeout reader = new GetInputOnTimeout(1, 50, null, lines,
+				TimeUnit.MILLISECONDS);
+		assertEquals("SKIP", reader.readLine());
+		assertThrows(IOException.class, reader::readLine);
+	}
+}
@@ -0,0 +1,66 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import server.LineReader;
+
+class LineReaderTest {
+	PipedOutputStream client;
+	LineReader reader;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		client = new PipedOutputStream();
+		BufferedReader input = new BufferedReader(new InputStreamReader(
+				new PipedInputStream(client), StandardCharsets.UTF_8));
+		reader = LineReader.start(input, "LineReaderTest");
+	}
+
+	/**
+	 * Sends the given text as the client.
+	 */
+	private void send(String text) throws IOException {
+		client.write(text.getBytes(StandardCharsets.UTF_8));
+		client.flush();
+	}
+
+	@Test
+	void testTimeout() throws InterruptedException, IOException {
+		long start = System.nanoTime();
+		assertNull(reader.readLine(50, TimeUnit.MILLISECONDS));
+		assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+		client.close();
+	}
+
+	@Test
+	void testLines() throws InterruptedException, IOException {
+		send("MOVE,RRR6,0,0\n\nSKI");
+		assertEquals("MOVE,RRR6,0,0", reader.readLine(1, TimeUnit.SECONDS));
+		//The second line is not complete yet and the empty line is skipped.
+		assertNull(reader.readLine(50, TimeUnit.MILLISECONDS));
+		send("P\n");
+		assertEquals("SKIP", reader.readLine(1, TimeUnit.SECONDS));
+		client.close();
+	}
+
+	@Test
+	void testDisconnected() throws InterruptedException, IOException {
+		send("SKIP\n");
+		client.close();
+		assertEquals("SKIP", reader.readLine(1, TimeUnit.SECONDS));
+		assertThrows(IOException.class, () -> reader.readLine(1, TimeUnit.SECONDS));
+		//The reader keeps reporting the disconnection.
+		assertThrows(IOException.class, () -> reader.readLine(1, TimeUnit.SECONDS));
+	}
+}
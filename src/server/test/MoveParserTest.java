@@ -0,0 +1,118 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.NotOfProtocol;
+import model.Tile;
+import server.Move;
+import server.MoveParser;
+import util.BinaryProtocol;
+import util.Protocol;
+
+class MoveParserTest {
+	MoveParser parser;
+
+	@BeforeEach
+	void setUp() {
+		parser = new MoveParser();
+	}
+
+	@Test
+	void testMove() throws NotOfProtocol {
+		Move move = parser.parse("MOVE,RRR6,2,35");
+		assertEquals(move.getType(), Protocol.MOVE);
+		assertSame(move.getTile(), Tile.get(0));
+		assertEquals(move.getRotation(), 2);
+		assertEquals(move.getIndex(), 35);
+		assertSame(move, parser.getMove());
+	}
+
+	@Test
+	void testReplaceAndSkip() throws NotOfProtocol {
+		Move move = parser.parse("TILEREPLACE,WWW1");
+		assertEquals(move.getType(), Protocol.TILEREPLACE);
+		assertSame(move.getTile(), Protocol.JOKER);
+		assertEquals(move.getIndex(), -1);
+
+		move = parser.parse("SKIP");
+		assertEquals(move.getType(), Protocol.SKIP);
+		assertNull(move.getTile());
+		assertEquals(move.getRotation(), -1);
+	}
+
+	@Test
+	void testSpaces() throws NotOfProtocol {
+		Move move = parser.parse(" MOVE, RR R6 ,0 , 1 2 ");
+		assertSame(move.getTile(), Tile.get(0));
+		assertEquals(move.getRotation(), 0);
+		assertEquals(move.getIndex(), 12);
+	}
+
+	@Test
+	void testNotOfProtocol() {
+		String[] lines = {
+			"",
+			"MOVE",
+			"MOVE,",
+			"MOVE,RRR6",
+			"MOVE,RRR6,0",
+			"MOVE,RRR6,0,",
+			"MOVE,RRR6,3,0",
+			"MOVE,RRR6,0,36",
+			"MOVE,RRR6,0,1x",
+			"MOVE,RRR6,0,1,",
+			"MOVE,RRR,0,1",
+			"MOVE,rrr6,0,1",
+			"MOVE,RRR6,-1,1",
+			"MOVE,RRR6,0,99999999999",
+			"MOVES,RRR6,0,1",
+			"TILEREPLACE",
+			"TILEREPLACE,RRG6",
+			"SKIP,",
+			"SKIPPED",
+			"MOVEREQUEST",
+			"PLAYERKICKED,Pascal",
+		};
+		for (String line : lines) {
+			assertThrows(NotOfProtocol.class, () -> parser.parse(line), line);
+		}
+	}
+
+	@Test
+	void testFrames() throws NotOfProtocol {
+		String[] lines = {"MOVE,RRR6,2,35", "MOVE,BBR5,1,2", "TILEREPLACE,WWW1", "SKIP"};
+		MoveParser text = new MoveParser();
+		for (String line : lines) {
+			byte[] frame = BinaryProtocol.encode(line);
+			Move move = parser.parse(frame, BinaryProtocol.HEADER,
+					frame.length - BinaryProtocol.HEADER);
+			Move expected = text.parse(line);
+			assertEquals(move.getType(), expected.getType(), line);
+			assertSame(move.getTile(), expected.getTile(), line);
+			assertEquals(move.getRotation(), expected.getRotation(), line);
+			assertEquals(move.getIndex(), expected.getIndex(), line);
+		}
+	}
+
+	@Test
+	void testNotOfProtocolFrames() {
+		byte[][] frames = {
+			{},
+			{BinaryProtocol.MOVEREQUEST},
+			{BinaryProtocol.MOVE, 0},
+			{BinaryProtocol.MOVE, 0, 0, 0},
+			{BinaryProtocol.MOVE, 0, (byte) 0xC0},
+			{BinaryProtocol.MOVE, 0, 36},
+			{BinaryProtocol.MOVE, 36, 0},
+			{BinaryProtocol.TILEREPLACE},
+			{BinaryProtocol.TILEREPLACE, (byte) 0xFF},
+			{BinaryProtocol.SKIP, 0},
+		};
+		for (byte[] frame : frames) {
+			assertThrows(NotOfProtocol.class, () -> parser.parse(frame, 0, frame.length));
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import server.MoveTimeout;
+import util.Protocol;
+
+class MoveTimeoutTest {
+
+	@Test
+	void testMillis() {
+		MoveTimeout timeout = new MoveTimeout(30, TimeUnit.SECONDS, 3);
+		assertEquals(30, timeout.getTimeout());
+		assertEquals(TimeUnit.SECONDS, timeout.getUnit());
+		assertEquals(3, timeout.getTries());
+		assertEquals(30000, timeout.toMillis());
+		assertEquals(90000, timeout.toTotalMillis());
+
+		timeout = new MoveTimeout(250, TimeUnit.MILLISECONDS, 1);
+		assertEquals(250, timeout.toMillis());
+		assertEquals(250, timeout.toTotalMillis());
+	}
+
+	@Test
+	void testDefault() {
+		assertEquals(Protocol.TIMEUNIT.toMillis(Protocol.TIMEOUT) * Protocol.RETRIES,
+				MoveTimeout.DEFAULT.toTotalMillis());
+	}
+
+	@Test
+	void testValidation() {
+		assertThrows(IllegalArgumentException.class,
+			() -> new MoveTimeout(0, TimeUnit.SECONDS, 1));
+		assertThrows(IllegalArgumentException.class,
+			() -> new MoveTimeout(-5, TimeUnit.SECONDS, 1));
+		assertThrows(IllegalArgumentException.class,
+			() -> new MoveTimeout(5, TimeUnit.SECONDS, 0));
+	}
+
+	@Test
+	void testParse() {
+		MoveTimeout timeout = MoveTimeout.parse("30:3");
+		assertEquals(30, timeout.getTimeout());
+		assertEquals(Protocol.TIMEUNIT, timeout.getUnit());
+		assertEquals(3, timeout.getTries());
+		assertEquals(Protocol.RETRIES, MoveTimeout.parse("45").getTries());
+
+		String[] args = {"", "x", "30:", ":3", "30:3:1", "0", "30:0", "-1:2"};
+		for (String arg : args) {
+			assertThrows(IllegalArgumentException.class, () -> MoveTimeout.parse(arg), arg);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package server.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import server.Threads;
+
+class ThreadsTest {
+
+	@AfterEach
+	void tearDown() {
+		Threads.setVirtual(false);
+	}
+
+	/**
+	 * Starts a thread counting down a latch and waits for it.
+	 * @return the started thread.
+	 */
+	private Thread run() throws InterruptedException {
+		CountDownLatch ran = new CountDownLatch(1);
+		Thread thread = Threads.start(ran::countDown, "ThreadsTest");
+		assertTrue(ran.await(1, TimeUnit.SECONDS));
+		assertEquals("ThreadsTest", thread.getName());
+		return thread;
+	}
+
+	@Test
+	void testPlatform() throws InterruptedException {
+		assertFalse(Threads.setVirtual(false));
+		assertFalse(Threads.isVirtual());
+		//Virtual threads are instances of a subclass of Thread.
+		assertSame(Thread.class, run().getClass());
+	}
+
+	@Test
+	void testVirtual() throws InterruptedException {
+		assertEquals(Threads.isSupported(), Threads.setVirtual(true));
+		assertEquals(Threads.isSupported(), Threads.isVirtual());
+		Thread thread = run();
+		if (Threads.isSupported()) {
+			assertNotSame(Thread.class, thread.getClass());
+		} else {
+			//Falls back to platform threads.
+			assertSame(Thread.class, thread.getClass());
+		}
+	}
+}
@@ -0,0 +1,386 @@
+package strategies;
+
+import java.util.Arrays;
+
+import exceptions.OutOfTime;
+import model.Board;
+import model.Tile;
+
+/**
+ * An expectimax search over the moves of a game of spectrangle.
+ * The searching player, on seat 0, maximises the difference between its points and those
+ * of its opponents and every opponent minimises it. Unknown hands of opponents and the
+ * tiles drawn from the bag are chance events, estimated by averaging over a few samples
+ * that are chosen deterministically from the position.
+ * Hands and the bag are masks of tile ids. Moves are packed into an integer: the index
+ * of the field in bits 0 to 5, the rotation in bits 6 and 7 and the tile id from bit 8 on.
+ * @author pmbos
+ */
+public class Expectimax {
+	public static final int HAND_SIZE = 4;
+	private static final int CHECK_INTERVAL = 256;
+	private final Board board;
+	private final TranspositionTable table;
+	private final long[] hands;
+	private final boolean[] known;
+	private long bag;
+	private final int samples;
+	private final long deadline;
+	private long nodes;
+
+	/**
+	 * Creates a new search on the given board.
+	 * @param board the board to search on, which is changed during the search and restored
+	 * afterwards.
+	 * @param hand the tiles of the searching player.
+	 * @param opponents the tiles of every opponent, in turn order, 0 when unknown.
+	 * @param bag the tiles that may still be drawn or be in an unknown hand.
+	 * @param samples the number of samples to average chance events over.
+	 * @param deadline the value of <code>System.nanoTime()</code> at which to stop searching.
+	 * @param table the table to remember the values of positions in, null to use none.
+	 */
+	//@requires board != null && opponents != null && samples > 0;
+	public Expectimax(Board board, long hand, long[] opponents, long bag,
+			int samples, long deadline, TranspositionTable table) {
+		this.board = board;
+		this.table = table;
+		this.hands = new long[opponents.length + 1];
+		this.known = new boolean[opponents.length + 1];
+		this.hands[0] = hand;
+		this.known[0] = true;
+		for (int seat = 1; seat < hands.length; seat++) {
+			hands[seat] = opponents[seat - 1];
+			known[seat] = opponents[seat - 1] != 0L;
+		}
+		this.bag = bag;
+		this.samples = samples;
+		this.deadline = deadline;
+		this.nodes = 0L;
+	}
+
+	/**
+	 * Creates a new search in the same state as the given search, on its own copy of the
+	 * board, so both searches can run at the same time.
+	 * @param other the search to copy.
+	 */
+	//@requires other != null;
+	private Expectimax(Expectimax other) {
+		this.board = other.board.getCopy();
+		this.table = other.table;
+		this.hands = other.hands.clone();
+		this.known = other.known.clone();
+		this.bag = other.bag;
+		this.samples = other.samples;
+		this.deadline = other.deadline;
+		this.nodes = 0L;
+	}
+
+	// Queries
+
+	/**
+	 * Finds the key of the current position with the player on the given seat to move,
+	 * covering the board, the hands, which hands are known and the bag.
+	 * @param seat the seat of the player to move.
+	 * @return the key of the position.
+	 */
+	/*@pure */public long getKey(int seat) {
+		long key = board.getHash() ^ mix(bag ^ ((long) seat << 36));
+		for (int i = 0; i < hands.length; i++) {
+			key ^= mix(hands[i] + ((long) i << 37) + (known[i] ? 1L << 40 : 0L));
+		}
+		return key;
+	}
+
+	/**
+	 * @return a new search in the same state as this one, with its own copy of the board.
+	 */
+	/*@pure */public Expectimax fork() {
+		return new Expectimax(this);
+	}
+
+	/**
+	 * @return the number of positions visited so far.
+	 */
+	/*@pure */public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Packs the given move into an integer.
+	 * @param index the index of the field.
+	 * @param rotation the rotation of the tile.
+	 * @param id the id of the tile.
+	 * @return the packed move.
+	 */
+	/*@pure */public static int move(int index, int rotation, int id) {
+		return index | (rotation << 6) | (id << 8);
+	}
+
+	/**
+	 * @param move a packed move.
+	 * @return the index of the field of the move.
+	 */
+	/*@pure */public static int index(int move) {
+		return move & 0x3F;
+	}
+
+	/**
+	 * @param move a packed move.
+	 * @return the rotation of the move.
+	 */
+	/*@pure */public static int rotation(int move) {
+		return (move >>> 6) & 0x3;
+	}
+
+	/**
+	 * @param move a packed move.
+	 * @return the tile of the move.
+	 */
+	/*@pure */public static Tile tile(int move) {
+		return Tile.get(move >>> 8);
+	}
+
+	/**
+	 * Finds all the moves that can be made with the given tiles, best immediate score first.
+	 * Tiles with three sides of the same colour are only listed in one rotation.
+	 * @param board the board to make the moves on, which is restored afterwards.
+	 * @param hand the tiles to place.
+	 * @return the packed moves.
+	 */
+	//@requires board != null;
+	public static int[] generate(Board board, long hand) {
+		int[] moves = new int[Long.bitCount(hand) * Board.MAX_FIELDS * 3];
+		int[] scores = new int[moves.length];
+		int count = 0;
+		for (long tiles = hand; tiles != 0L; tiles &= tiles - 1) {
+			int id = Long.numberOfTrailingZeros(tiles);
+			Tile tile = Tile.get(id);
+			int rotations = isUniform(tile) ? 1 : 3;
+			for (long fields = board.getLegalFields(tile); fields != 0L; fields &= fields - 1) {
+				int index = Long.numberOfTrailingZeros(fields);
+				for (int rotation = 0; rotation < rotations; rotation++) {
+					if (board.isValidMove(tile, index, rotation)) {
+						long undo = board.makeMove(index, tile, rotation);
+						scores[count] = board.getScore(index);
+						board.unmakeMove(undo);
+						moves[count++] = move(index, rotation, id);
+					}
+				}
+			}
+		}
+		//Insertion sort on score, keeping the order of generation between equal scores.
+		for (int i = 1; i < count; i++) {
+			int move = moves[i];
+			int score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				moves[j + 1] = moves[j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[j + 1] = move;
+			scores[j + 1] = score;
+		}
+		return Arrays.copyOf(moves, count);
+	}
+
+	// Commands
+
+	/**
+	 * Finds the value of the given move of the searching player, looking the given number
+	 * of turns ahead including the move itself.
+	 * @param move the packed move to evaluate.
+	 * @param depth the number of turns to look ahead.
+	 * @return the expected difference in points between the searching player and its
+	 * opponents that the move leads to.
+	 * @throws OutOfTime when the deadline passed before the value was found.
+	 */
+	//@requires depth > 0;
+	public double evaluate(int move, int depth) throws OutOfTime {
+		if (System.nanoTime() > deadline) {
+			throw new OutOfTime("Search deadline passed");
+		}
+		return play(0, move, depth);
+	}
+
+	/**
+	 * Finds the value of the turn of the player on the given seat.
+	 * @param seat the seat of the player to move.
+	 * @param depth the number of turns to look ahead.
+	 * @return the expected difference in points from here on.
+	 * @throws OutOfTime when the deadline passed.
+	 */
+	private double turn(int seat, int depth) throws OutOfTime {
+		if (depth == 0 || board.isFull()) {
+			return 0;
+		}
+		if (++nodes % CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+			throw new OutOfTime("Search deadline passed");
+		}
+
+		if (seat == 0 && Long.bitCount(hands[0]) < HAND_SIZE && bag != 0L) {
+			//The searching player draws a tile before its turn.
+			long draws = sample(bag, Math.min(samples, Long.bitCount(bag)), seat, depth);
+			double total = 0;
+			for (long rest = draws; rest != 0L; rest &= rest - 1) {
+				long tile = rest & -rest;
+				hands[0] |= tile;
+				bag &= ~tile;
+				total += best(0, depth);
+				bag |= tile;
+				hands[0] &= ~tile;
+			}
+			return total / Long.bitCount(draws);
+		}
+		if (!known[seat]) {
+			if (bag == 0L) {
+				return turn(next(seat), depth - 1);
+			}
+			//Guesses the hand of the opponent.
+			double total = 0;
+			int size = Math.min(HAND_SIZE, Long.bitCount(bag));
+			for (int i = 0; i < samples; i++) {
+				long hand = sample(bag, size, seat, depth + i * Board.MAX_FIELDS);
+				bag &= ~hand;
+				hands[seat] = hand;
+				known[seat] = true;
+				total += best(seat, depth);
+				known[seat] = false;
+				hands[seat] = 0L;
+				bag |= hand;
+			}
+			return total / samples;
+		}
+		return best(seat, depth);
+	}
+
+	/**
+	 * Finds the value of the best move of the player on the given seat.
+	 * A player without moves passes its turn. Values are rounded to floats, as they are
+	 * stored in the table, so a value is the same whether it was found in the table or not.
+	 * @param seat the seat of the player to move.
+	 * @param depth the number of turns to look ahead.
+	 * @return the expected difference in points from here on.
+	 * @throws OutOfTime when the deadline passed.
+	 */
+	private double best(int seat, int depth) throws OutOfTime {
+		long key = 0L;
+		if (table != null) {
+			key = getKey(seat);
+			long entry = table.probe(key);
+			if (entry != TranspositionTable.MISS && TranspositionTable.depth(entry) == depth) {
+				return TranspositionTable.value(entry);
+			}
+		}
+		boolean maximise = seat == 0;
+		double best = maximise ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+		int bestMove = TranspositionTable.NO_MOVE;
+		for (long tiles = hands[seat]; tiles != 0L; tiles &= tiles - 1) {
+			int id = Long.numberOfTrailingZeros(tiles);
+			Tile tile = Tile.get(id);
+			int rotations = isUniform(tile) ? 1 : 3;
+			for (long fields = board.getLegalFields(tile); fields != 0L; fields &= fields - 1) {
+				int index = Long.numberOfTrailingZeros(fields);
+				for (int rotation = 0; rotation < rotations; rotation++) {
+					if (!board.isValidMove(tile, index, rotation)) {
+						continue;
+					}
+					int move = move(index, rotation, id);
+					double value = play(seat, move, depth);
+					if (maximise ? value > best : value < best) {
+						best = value;
+						bestMove = move;
+					}
+				}
+			}
+		}
+		if (bestMove == TranspositionTable.NO_MOVE) {
+			best = turn(next(seat), depth - 1);
+		}
+		best = (float) best;
+		if (table != null) {
+			table.store(key, best, depth, bestMove);
+		}
+		return best;
+	}
+
+	/**
+	 * Makes the given move for the player on the given seat, finds its value and takes
+	 * it back.
+	 * @param seat the seat of the player to move.
+	 * @param move the packed move to make.
+	 * @param depth the number of turns to look ahead.
+	 * @return the expected difference in points from here on.
+	 * @throws OutOfTime when the deadline passed.
+	 */
+	private double play(int seat, int move, int depth) throws OutOfTime {
+		int index = index(move);
+		long tile = 1L << (move >>> 8);
+		long undo = board.makeMove(index, tile(move), rotation(move));
+		int points = board.getScore(index);
+		hands[seat] &= ~tile;
+		try {
+			double rest = turn(next(seat), depth - 1);
+			return seat == 0 ? points + rest : rest - points;
+		} finally {
+			hands[seat] |= tile;
+			board.unmakeMove(undo);
+		}
+	}
+
+	/**
+	 * @param seat a seat.
+	 * @return the seat of the player that moves after the given seat.
+	 */
+	/*@pure */private int next(int seat) {
+		return (seat + 1) % hands.length;
+	}
+
+	/**
+	 * Chooses the given number of tiles from the given pool. The choice only depends on
+	 * the position, the pool and the given salts, so searches are reproducible.
+	 * @param pool the tiles to choose from.
+	 * @param count the number of tiles to choose.
+	 * @param seat the seat choosing.
+	 * @param salt a number distinguishing choices made by the same seat.
+	 * @return the chosen tiles.
+	 */
+	//@requires 0 <= count && count <= Long.bitCount(pool);
+	//@ensures Long.bitCount(\result) == count && (\result & ~pool) == 0;
+	/*@pure */private long sample(long pool, int count, int seat, int salt) {
+		long seed = board.getHash() ^ pool ^ ((long) seat << 40) ^ ((long) salt << 48);
+		long chosen = 0L;
+		long rest = pool;
+		for (int i = 0; i < count; i++) {
+			seed = mix(seed + i);
+			int skip = (int) Long.remainderUnsigned(seed, Long.bitCount(rest));
+			long candidates = rest;
+			for (int j = 0; j < skip; j++) {
+				candidates &= candidates - 1;
+			}
+			long tile = candidates & -candidates;
+			chosen |= tile;
+			rest &= ~tile;
+		}
+		return chosen;
+	}
+
+	/**
+	 * @param value the value to mix.
+	 * @return a well mixed version of the given value.
+	 */
+	/*@pure */private static long mix(long value) {
+		long z = value + 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param tile the tile to check.
+	 * @return true if all sides of the tile have the same colour.
+	 */
+	/*@pure */private static boolean isUniform(Tile tile) {
+		return tile.getColourL() == tile.getColourV() && tile.getColourV() == tile.getColourR();
+	}
+}
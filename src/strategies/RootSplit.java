@@ -0,0 +1,58 @@
+package strategies;
+
+import java.util.concurrent.RecursiveAction;
+
+import exceptions.OutOfTime;
+
+/**
+ * A task evaluating a range of root moves of an <code>Expectimax</code> search.
+ * The range is split in halves until it holds a single move, which is evaluated by a
+ * fork of the search with its own copy of the board, so the moves can be evaluated by
+ * the workers of a <code>ForkJoinPool</code> at the same time.
+ * @author pmbos
+ */
+public class RootSplit extends RecursiveAction {
+	private static final long serialVersionUID = -2093486730417650125L;
+	private final transient Expectimax search;
+	private final int[] moves;
+	private final double[] values;
+	private final int depth;
+	private final int from;
+	private final int to;
+
+	/**
+	 * Creates a task evaluating the moves from <code>from</code> up to <code>to</code>.
+	 * @param search the search to fork for every move.
+	 * @param moves the packed root moves.
+	 * @param values the array to store the value of every move in, 
+	 * <code>Double.NaN</code> is stored when the deadline passed first.
+	 * @param depth the number of turns to look ahead.
+	 * @param from the first move to evaluate.
+	 * @param to the index after the last move to evaluate.
+	 */
+	//@requires moves.length == values.length && 0 <= from && from <= to && to <= moves.length;
+	public RootSplit(Expectimax search, int[] moves, double[] values, 
+			int depth, int from, int to) {
+		this.search = search;
+		this.moves = moves;
+		this.values = values;
+		this.depth = depth;
+		this.from = from;
+		this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+			invokeAll(new RootSplit(search, moves, values, depth, from, middle),
+					new RootSplit(search, moves, values, depth, middle, to));
+		} else if (to > from) {
+			try {
+				values[from] = search.fork().evaluate(moves[from], depth);
+			} catch (OutOfTime e) {
+				values[from] = Double.NaN;
+			}
+		}
+	}
+}
@@ -0,0 +1,401 @@
+package strategies;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import exceptions.OutOfTime;
+import model.Board;
+import model.Player;
+import model.Strategy;
+import model.Tile;
+import util.Protocol;
+
+/**
+ * A class implementing a strategy which searches a few turns ahead, using an
+ * <code>Expectimax</code> search over its own moves, those of its opponents and the
+ * tiles drawn from the bag, within a time budget per move.
+ * The search deepens one turn at a time, so a move is known whenever time runs out. No new
+ * iteration is started after the soft deadline, the budget, and an iteration is cancelled at
+ * the hard deadline, which keeps the protocol timeout minus a safety margin and the
+ * measured latency to the server. Forced moves are made without searching.
+ * With more than one thread, the root moves are split over the workers of a 
+ * <code>ForkJoinPool</code> and their values are merged in the order of the moves, so the
+ * chosen move does not depend on which worker finished first.
+ * The values of positions are kept in a <code>TranspositionTable</code> shared by the 
+ * workers and kept between moves, so positions reached by different orders of moves are 
+ * only searched once.
+ * @author pmbos
+ */
+public class SearchStrategy implements Strategy {
+	public static final String NAME = "Search strategy";
+	public static final long DEFAULT_BUDGET = 2000;
+	public static final long SAFETY_MARGIN = 5000;
+	public static final long MAX_BUDGET = Protocol.TIMEOUT * 1000L - SAFETY_MARGIN;
+	public static final int HARD_FACTOR = 3;
+	public static final int DEFAULT_DEPTH = 8;
+	public static final int DEFAULT_SAMPLES = 4;
+	public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+	private Player player;
+	private List<Player> opponents;
+	private final long budget;
+	private final int depth;
+	private final int samples;
+	private final ForkJoinPool pool;
+	private final TranspositionTable table;
+	private volatile long latency;
+
+	/**
+	 * Creates a new <code>SearchStrategy</code> without a player.
+	 */
+	public SearchStrategy() {
+		this(null);
+	}
+
+	/**
+	 * Creates a new <code>SearchStrategy</code> with a player and the default settings.
+	 * @param player the player to add to this strategy.
+	 */
+	public SearchStrategy(Player player) {
+		this(player, DEFAULT_BUDGET, DEFAULT_DEPTH, DEFAULT_SAMPLES, DEFAULT_THREADS,
+				TranspositionTable.DEFAULT_MEGABYTES);
+	}
+
+	/**
+	 * Creates a new <code>SearchStrategy</code> with a player and the given settings.
+	 * The budget is capped at <code>MAX_BUDGET</code>, so the server never times out the player.
+	 * @param player the player to add to this strategy.
+	 * @param budget the time in milliseconds the strategy may think per move.
+	 * @param depth the maximum number of turns to look ahead.
+	 * @param samples the number of samples to average chance events over.
+	 * @param threads the number of threads to search with.
+	 * @param megabytes the memory cap of the transposition table in megabytes.
+	 */
+	//@requires budget > 0 && depth > 0 && samples > 0 && threads > 0 && megabytes > 0;
+	//@ensures getBudget() == Math.min(budget, MAX_BUDGET);
+	public SearchStrategy(Player player, long budget, int depth, int samples, int threads,
+			int megabytes) {
+		this.player = player;
+		this.opponents = new ArrayList<>();
+		this.budget = Math.min(budget, MAX_BUDGET);
+		this.depth = depth;
+		this.samples = samples;
+		this.pool = threads > 1 ? new ForkJoinPool(threads) : null;
+		this.table = new TranspositionTable(megabytes);
+		this.latency = 0L;
+	}
+
+	@Override
+	public String determineMove(Board board) {
+		long start = System.nanoTime();
+		Board copy = board.getCopy();
+		long hand = getMask(player.getHand());
+		int[] moves = Expectimax.generate(copy, hand);
+		if (moves.length == 0) {
+			return constructTilereplace(lowest(player.getHand()));
+		}
+
+		int best = moves[0];
+		//Forced moves are not worth thinking about.
+		if (moves.length > 1) {
+			long soft = start + getSoftLimit() * 1000000L;
+			long hard = start + getHardLimit() * 1000000L;
+			long[] hands = new long[Math.max(1, opponents.size())];
+			long bag = ((1L << Tile.NUMBER_OF_TILES) - 1) & ~hand & ~getPlaced(copy);
+			for (int i = 0; i < opponents.size(); i++) {
+				hands[i] = getMask(opponents.get(i).getHand());
+				bag &= ~hands[i];
+			}
+			table.nextAge();
+			Expectimax search = new Expectimax(copy, hand, hands, bag, samples, hard, table);
+			best = deepen(search, moves, soft);
+		}
+
+		player.updateScore(getScore(board, best));
+		return constructMove(Expectimax.tile(best), Expectimax.rotation(best),
+				Expectimax.index(best));
+	}
+
+	/**
+	 * Searches the given moves one turn deeper every iteration, until the maximum depth is
+	 * reached, the soft deadline passed or the search ran out of time. Every iteration
+	 * starts with the best moves of the previous one, so the moves of an unfinished
+	 * iteration are only used when it got to the best move found before.
+	 * @param search the search to evaluate the moves with.
+	 * @param moves the packed root moves, reordered from best to worst.
+	 * @param soft the value of <code>System.nanoTime()</code> after which no new iteration
+	 * is started.
+	 * @return the best move found.
+	 */
+	//@requires moves.length > 0;
+	private int deepen(Expectimax search, int[] moves, long soft) {
+		int best = moves[0];
+		for (int turns = 1; turns <= depth && System.nanoTime() < soft; turns++) {
+			double[] values = evaluate(search, moves, turns);
+			if (!isComplete(values)) {
+				if (!Double.isNaN(values[0])) {
+					best = moves[select(values)];
+				}
+				break;
+			}
+			order(moves, values);
+			best = moves[0];
+		}
+		return best;
+	}
+
+	/**
+	 * Evaluates the given root moves until the deadline of the given search passes.
+	 * @param search the search to evaluate the moves with.
+	 * @param moves the packed root moves.
+	 * @param depth the number of turns to look ahead.
+	 * @return the value of every move, <code>Double.NaN</code> for moves that were not
+	 * evaluated in time.
+	 */
+	//@ensures \result.length == moves.length;
+	private double[] evaluate(Expectimax search, int[] moves, int depth) {
+		double[] values = new double[moves.length];
+		Arrays.fill(values, Double.NaN);
+		if (pool != null) {
+			pool.invoke(new RootSplit(search, moves, values, depth, 0, moves.length));
+			return values;
+		}
+		try {
+			for (int i = 0; i < moves.length; i++) {
+				values[i] = search.evaluate(moves[i], depth);
+			}
+		} catch (OutOfTime e) {
+			//Leaves the moves that were not evaluated at NaN.
+		}
+		return values;
+	}
+
+	/**
+	 * Selects the move with the highest value, preferring earlier moves on equal values.
+	 * @param values the values of the moves, <code>Double.NaN</code> when unknown.
+	 * @return the index of the selected move, 0 when no value is known.
+	 */
+	//@requires values.length > 0;
+	/*@pure */private static int select(double[] values) {
+		int best = 0;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] > bestValue) {
+				bestValue = values[i];
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @param values the values of the moves, <code>Double.NaN</code> when unknown.
+	 * @return true if the value of every move is known.
+	 */
+	/*@pure */private static boolean isComplete(double[] values) {
+		for (double value : values) {
+			if (Double.isNaN(value)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sorts the given moves from the highest to the lowest value, keeping the order of
+	 * moves with equal values.
+	 * @param moves the packed moves.
+	 * @param values the known values of the moves, sorted along with them.
+	 */
+	//@requires moves.length == values.length;
+	private static void order(int[] moves, double[] values) {
+		for (int i = 1; i < moves.length; i++) {
+			int move = moves[i];
+			double value = values[i];
+			int j = i;
+			for (; j > 0 && values[j - 1] < value; j--) {
+				moves[j] = moves[j - 1];
+				values[j] = values[j - 1];
+			}
+			moves[j] = move;
+			values[j] = value;
+		}
+	}
+
+	/**
+	 * @return the name of this strategy.
+	 */
+	/*@pure */public String getName() {
+		return NAME;
+	}
+
+	/**
+	 * @return the player associated with this strategy.
+	 */
+	/*@pure */public Player getPlayer() {
+		return player;
+	}
+
+	/**
+	 * @return the time in milliseconds this strategy may think per move.
+	 */
+	/*@pure */public long getBudget() {
+		return budget;
+	}
+
+	/**
+	 * @return the time in milliseconds after which no new iteration of the search is started.
+	 */
+	//@ensures \result <= getHardLimit();
+	/*@pure */public long getSoftLimit() {
+		return Math.min(budget, getHardLimit());
+	}
+
+	/**
+	 * @return the time in milliseconds after which the search is cancelled, leaving the
+	 * measured latency and a safety margin before the server times out the player.
+	 */
+	//@ensures \result > 0 && \result <= MAX_BUDGET;
+	/*@pure */public long getHardLimit() {
+		long limit = Math.min(budget * HARD_FACTOR, MAX_BUDGET - latency);
+		return Math.max(1L, limit);
+	}
+
+	/**
+	 * @return the estimated time in milliseconds a move takes to reach the server and to
+	 * be answered.
+	 */
+	/*@pure */public long getLatency() {
+		return latency;
+	}
+
+	/**
+	 * @return the description of this strategy.
+	 */
+	/*@pure */public String getDescription() {
+		return describe(depth, budget);
+	}
+
+	/**
+	 * @param depth the maximum number of turns to look ahead.
+	 * @param budget the time in milliseconds the strategy may think per move.
+	 * @return the description of a strategy with the given settings.
+	 */
+	/*@pure */public static String describe(int depth, long budget) {
+		return "A strategy that looks up to " + depth + " turns ahead, "
+					+ "thinking about " + budget + " ms per move.";
+	}
+
+	/**
+	 * Finds the score the given move makes on the given board.
+	 * @param board the board to make the move on.
+	 * @param move the packed move.
+	 * @return the score of the move.
+	 */
+	/*@pure */private static int getScore(Board board, int move) {
+		Board copy = board.getCopy();
+		copy.setTile(Expectimax.index(move), Expectimax.tile(move), Expectimax.rotation(move));
+		return copy.getScore(Expectimax.index(move));
+	}
+
+	/**
+	 * @param tiles a list of tiles.
+	 * @return the mask of the ids of the valid tiles in the list.
+	 */
+	/*@pure */private static long getMask(List<Tile> tiles) {
+		long mask = 0L;
+		for (Tile tile : tiles) {
+			if (tile.isValid()) {
+				mask |= 1L << tile.getId();
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * @param board the board to check.
+	 * @return the mask of the ids of the tiles on the board.
+	 */
+	/*@pure */private static long getPlaced(Board board) {
+		long mask = 0L;
+		for (long rest = board.getOccupied(); rest != 0L; rest &= rest - 1) {
+			Tile tile = board.getTile(Long.numberOfTrailingZeros(rest));
+			if (tile != null) {
+				mask |= 1L << tile.getId();
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * @param tiles a non-empty list of tiles.
+	 * @return the tile with the lowest value.
+	 */
+	//@requires !tiles.isEmpty();
+	/*@pure */private static Tile lowest(List<Tile> tiles) {
+		Tile lowest = tiles.get(0);
+		for (Tile tile : tiles) {
+			if (tile.getValue() < lowest.getValue()) {
+				lowest = tile;
+			}
+		}
+		return lowest;
+	}
+
+	/**
+	 * Constructs a string representation of a move request.
+	 * @param tile the tile to place.
+	 * @param rotation the rotation to use.
+	 * @param index the index of the field to place the tile on.
+	 * @return a move request.
+	 */
+	//@requires tile.isValid();
+	/*@pure */private String constructMove(Tile tile, int rotation, int index) {
+		return Protocol.MOVE + Protocol.DELIMITER + tile.getColourL() + tile.getColourV()
+			+ tile.getColourR() + tile.getValue() + Protocol.DELIMITER
+			+ rotation + Protocol.DELIMITER + index;
+	}
+
+	/**
+	 * Constructs a string representation of a replace request.
+	 * @param tile the tile to replace.
+	 * @return a replace request.
+	 */
+	//@requires tile.isValid();
+	/*@pure */private String constructTilereplace(Tile tile) {
+		return Protocol.TILEREPLACE + Protocol.DELIMITER + tile.getColourL()
+			+ tile.getColourV() + tile.getColourR() + tile.getValue();
+	}
+
+	/**
+	 * Sets the given player as the player associated with this strategy.
+	 * @param player the player to associate with this strategy.
+	 */
+	//@requires player != null;
+	//@ensures getPlayer() == player;
+	public void setPlayer(Player player) {
+		this.player = player;
+	}
+
+	/**
+	 * Sets the opponents of the player, in the order in which they move after the player.
+	 * Their hands are used in the search when they are known.
+	 * @param opponents the opponents of the player.
+	 */
+	//@requires opponents != null;
+	public void setOpponents(List<Player> opponents) {
+		this.opponents = opponents;
+	}
+
+	/**
+	 * Adds a measured round trip to the server to the estimated latency. The estimate
+	 * follows a moving average, but never drops below the latest measurement.
+	 * @param millis the time in milliseconds between sending a move and its confirmation.
+	 */
+	//@requires millis >= 0;
+	//@ensures getLatency() >= millis;
+	public void addLatency(long millis) {
+		latency = Math.max(millis, (3 * latency + millis) / 4);
+	}
+}
@@ -4,25 +4,33 @@ import model.Player;
 import model.Strategy;
 
 /**
- * A class managing all the strategies.
+ * A class managing all the strategies. Only their names and descriptions are kept here;
+ * every player gets a strategy of its own, as some strategies keep state per player.
  * @author pmbos
  */
 public class Strategies {
-	public static final Strategy[] STRATEGIES = {new StupidStrategy()};
+	public static final String[] STRATEGIES = {StupidStrategy.NAME, SearchStrategy.NAME};
+	public static final String[] DESCRIPTIONS = {StupidStrategy.DESCRIPTION,
+		SearchStrategy.describe(SearchStrategy.DEFAULT_DEPTH, SearchStrategy.DEFAULT_BUDGET)};
 	
 	/**
-	 * Fetches a specific strategy from the array.
-	 * @param i the index of the strategy to fetch.
+	 * Creates a specific strategy for the given player.
+	 * @param i the index of the strategy to create.
 	 * @param player the player to add to the strategy.
-	 * @return the strategy the user selected.
+	 * @return a new instance of the strategy the user selected.
+	 * @throws IllegalArgumentException when there is no strategy with the given index.
 	 */
 	//@requires player != null;
+	//@ensures \result.getName().equals(STRATEGIES[i]);
 	public static Strategy get(int i, Player player) {
-		if (STRATEGIES[i] instanceof StupidStrategy) {
-			((StupidStrategy) STRATEGIES[i]).setPlayer(player);
+		switch (i) {
+			case 0:
+				return new StupidStrategy(player);
+			case 1:
+				return new SearchStrategy(player);
+			default:
+				throw new IllegalArgumentException("No strategy " + i);
 		}
-		
-		return STRATEGIES[i];
 	}
 	
 	/**
@@ -30,11 +38,9 @@ public class Strategies {
 	 */
 	public static String display() {
 		StringBuilder result = new StringBuilder();
-		int i = 1;
-		for (Strategy strategy : STRATEGIES) {
-			result.append(i).append(": ").append(strategy.getName()).append(" | ")
-					.append(strategy.getDescription()).append("\n");
-			i++;
+		for (int i = 0; i < STRATEGIES.length; i++) {
+			result.append(i + 1).append(": ").append(STRATEGIES[i]).append(" | ")
+					.append(DESCRIPTIONS[i]).append("\n");
 		}
 		
 		return result.toString();
@@ -1,6 +1,5 @@
 package strategies;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 
 import model.Board;
@@ -15,6 +14,9 @@ import model.Strategy;
  * @author pmbos
  */
 public class StupidStrategy implements Strategy {
+	public static final String NAME = "Tournament strategy";
+	public static final String DESCRIPTION = "A strategy that will always make the move "
+			+ "resulting in the highest amount of points.";
 	private Player player;
 	
 	/**
@@ -36,48 +38,44 @@ public class StupidStrategy implements Strategy {
 	public String determineMove(Board board) {
 		//Checks if the player has a move.
 		if (player.hasPlay(board)) {
-			Map<Tile, List<Integer>> moves = player.getPlays(board);
+			long[] fields = player.getLegalFields(board);
 			Tile tile = null;
-			int index = 1;
+			int index = -1;
 			int score = 0;
 			int rotation = -1;
 			Board copy = board.getCopy();
 			
-			//Checks all moves.
-			for (Entry<Tile, List<Integer>> entry : moves.entrySet()) {
-				//Checks all possible indices per move.
-				for (Integer i : entry.getValue()) {
+			//Checks all tiles in the hand, once per kind of tile.
+			for (int id = 0; id < Tile.NUMBER_OF_TILES; id++) {
+				Tile candidate = Tile.get(id);
+				//Checks all possible indices per tile.
+				for (long rest = fields[id]; rest != 0L; rest &= rest - 1) {
+					int i = Long.numberOfTrailingZeros(rest);
 					//Checks all possible rotations.
 					for (int j = 0; j < 3; j++) {
-						//Checks for validity of the move.
-						if (entry.getKey().isValid() && board.isValidMove(entry.getKey(), i, j)) {
-							copy.setTile(i, entry.getKey(), j);
-							//Checks if the move yields a higher score than the current highest.
-							if (copy.getScore(i) > score) {
-								//Flips the tile back into standard position if necessary.
-								if (entry.getKey().isFlipped()) {
-									entry.getKey().flip();
-								}
-								//Sets the score to the new highest.
-								score = copy.getScore(index);
-								//Creates a tile.
-								tile = new Tile(entry.getKey().getColourL(),
-										entry.getKey().getColourV(), entry.getKey().getColourR(),
-										entry.getKey().getValue());
-								
-								index = i;
-								rotation = j;
-							}
+						if (!copy.isValidMove(candidate, i, j)) {
+							continue;
+						}
+						long undo = copy.makeMove(i, candidate, j);
+						int points = copy.getScore(i);
+						copy.unmakeMove(undo);
+						//Checks if the move yields a higher score than the current highest.
+						if (points > score) {
+							score = points;
+							tile = candidate;
+							index = i;
+							rotation = j;
 						}
-						//Removes the attempt from the board.
-						copy.remove(i);
 					}
 				}
 			}
 			//If for any reason, tile ends up as null, will select the first tile
 			//it can play.
 			if (tile == null) {
-				for (Entry<Tile, List<Integer>> toPlay : moves.entrySet()) {
+				for (Entry<Tile, List<Integer>> toPlay : player.getPlays(board).entrySet()) {
+					if (toPlay.getValue().isEmpty()) {
+						continue;
+					}
 					tile = toPlay.getKey();
 					index = toPlay.getValue().get(0);
 					for (int g = 0; g < 3; g++) {
@@ -101,6 +99,7 @@ public class StupidStrategy implements Strategy {
 			for (Tile tile : player.getHand()) {
 				if (tile.getValue() < lowest) {
 					toReplace = tile;
+					lowest = tile.getValue();
 				}
 			}
 			assert toReplace != null;
@@ -112,7 +111,7 @@ public class StupidStrategy implements Strategy {
 	 * @return the name of this strategy.
 	 */
 	/*@pure */public String getName() {
-		return "Tournament strategy";
+		return NAME;
 	}
 	
 	/**
@@ -126,8 +125,7 @@ public class StupidStrategy implements Strategy {
 	 * @return the description f this strategy.
 	 */
 	/*@pure */public String getDescription() {
-		return "A strategy that will always make the move "
-					+ "resulting in the highest amount of points.";
+		return DESCRIPTION;
 	}
 	
 	/**
@@ -0,0 +1,143 @@
+package strategies;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size table remembering the values of positions a search has seen before.
+ * Entries are kept in two primitive arrays, so the table causes no garbage collection.
+ * Every bucket holds two entries: one that is only replaced by searches at least as deep
+ * or by newer searches, and one that is always replaced.
+ * An entry packs its value as a float in bits 0 to 31, the depth it was searched to in
+ * bits 32 to 39, the best move plus one in bits 40 to 55 and its age in bits 56 to 63.
+ * The key of an entry is stored xor-ed with its data, so an entry torn by threads writing
+ * at the same time is never mistaken for a hit.
+ * @author pmbos
+ */
+public class TranspositionTable {
+	public static final int DEFAULT_MEGABYTES = 16;
+	public static final long MISS = 0L;
+	public static final int NO_MOVE = -1;
+	private static final int ENTRY_BYTES = 16;
+	private final long[] keys;
+	private final long[] data;
+	private final int mask;
+	private volatile int age;
+
+	/**
+	 * Creates a new table using at most the given amount of memory.
+	 * @param megabytes the memory cap of the table in megabytes.
+	 */
+	//@requires megabytes > 0;
+	//@ensures getCapacity() * 16 <= megabytes * 1024 * 1024;
+	public TranspositionTable(int megabytes) {
+		long entries = Long.highestOneBit((long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+		int capacity = (int) Math.min(entries, 1 << 30);
+		this.keys = new long[capacity];
+		this.data = new long[capacity];
+		this.mask = capacity / 2 - 1;
+		this.age = 0;
+	}
+
+	// Queries
+
+	/**
+	 * @return the number of entries the table can hold.
+	 */
+	/*@pure */public int getCapacity() {
+		return data.length;
+	}
+
+	/**
+	 * Looks up the entry of the given position.
+	 * @param key the hash of the position.
+	 * @return the packed entry, <code>MISS</code> when the position is not in the table.
+	 */
+	/*@pure */public long probe(long key) {
+		int slot = slot(key);
+		for (int i = slot; i < slot + 2; i++) {
+			long entry = data[i];
+			if (entry != MISS && (keys[i] ^ entry) == key) {
+				return entry;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * @param entry a packed entry.
+	 * @return the value stored in the entry.
+	 */
+	/*@pure */public static double value(long entry) {
+		return Float.intBitsToFloat((int) entry);
+	}
+
+	/**
+	 * @param entry a packed entry.
+	 * @return the depth the value of the entry was searched to.
+	 */
+	/*@pure */public static int depth(long entry) {
+		return (int) (entry >>> 32) & 0xFF;
+	}
+
+	/**
+	 * @param entry a packed entry.
+	 * @return the best move stored in the entry, <code>NO_MOVE</code> if there is none.
+	 */
+	/*@pure */public static int move(long entry) {
+		return (int) ((entry >>> 40) & 0xFFFF) - 1;
+	}
+
+	// Commands
+
+	/**
+	 * Stores the value of the given position. The entry for deep searches is replaced when
+	 * it holds the same position, a shallower search or an older search, the other entry
+	 * of the bucket is replaced otherwise.
+	 * @param key the hash of the position.
+	 * @param value the value of the position.
+	 * @param depth the depth the position was searched to.
+	 * @param move the best move in the position, <code>NO_MOVE</code> if there is none.
+	 */
+	//@requires 0 < depth && depth < 256 && NO_MOVE <= move && move < 0xFFFF;
+	public void store(long key, double value, int depth, int move) {
+		int current = age;
+		long entry = (Float.floatToRawIntBits((float) value) & 0xFFFFFFFFL)
+				| ((long) depth << 32)
+				| ((long) (move + 1) << 40)
+				| ((long) (current & 0xFF) << 56);
+		int slot = slot(key);
+		long deep = data[slot];
+		if (deep == MISS || (keys[slot] ^ deep) == key || depth >= depth(deep)
+				|| (int) (deep >>> 56) != (current & 0xFF)) {
+			data[slot] = entry;
+			keys[slot] = key ^ entry;
+		} else {
+			data[slot + 1] = entry;
+			keys[slot + 1] = key ^ entry;
+		}
+	}
+
+	/**
+	 * Marks the entries stored so far as old, so they are replaced before entries of the
+	 * next search. Called once per move.
+	 */
+	public void nextAge() {
+		age++;
+	}
+
+	/**
+	 * Removes all entries from the table.
+	 */
+	public void clear() {
+		Arrays.fill(data, MISS);
+		Arrays.fill(keys, 0L);
+	}
+
+	/**
+	 * @param key the hash of a position.
+	 * @return the index of the first entry of the bucket of the position.
+	 */
+	/*@pure */private int slot(long key) {
+		return ((int) (key ^ (key >>> 32)) & mask) << 1;
+	}
+}
@@ -0,0 +1,125 @@
+package strategies.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import model.Board;
+import model.ComputerPlayer;
+import model.Player;
+import model.Tile;
+import strategies.Expectimax;
+
+class ExpectimaxTest {
+	static final int[] PLACED = {0, 7, 15, 28, 20, 33};
+	static final int[] HAND = {5, 12, 30, 35};
+	Board board;
+	Player player;
+	long hand;
+
+	/**
+	 * Fills the board with the best immediate move of each of the placed tiles in turn.
+	 */
+	@BeforeEach
+	void setUp() {
+		board = new Board();
+		for (int id : PLACED) {
+			int[] moves = Expectimax.generate(board, 1L << id);
+			if (moves.length > 0) {
+				board.setTile(Expectimax.index(moves[0]), Expectimax.tile(moves[0]),
+						Expectimax.rotation(moves[0]));
+			}
+		}
+		player = new ComputerPlayer("Pascal", 2);
+		hand = 0L;
+		for (int id : HAND) {
+			player.add(Tile.get(id));
+			hand |= 1L << id;
+		}
+	}
+
+	@Test
+	void testPacking() {
+		for (int id = 0; id < Tile.NUMBER_OF_TILES; id++) {
+			for (int index = 0; index < Board.MAX_FIELDS; index++) {
+				for (int rotation = 0; rotation < 3; rotation++) {
+					int move = Expectimax.move(index, rotation, id);
+					assertEquals(index, Expectimax.index(move));
+					assertEquals(rotation, Expectimax.rotation(move));
+					assertSame(Tile.get(id), Expectimax.tile(move));
+				}
+			}
+		}
+	}
+
+	@Test
+	void testGenerateMatchesPlays() {
+		int[] moves = Expectimax.generate(board, hand);
+		Map<Tile, List<Integer>> plays = player.getPlays(board.getCopy());
+		assertFalse(plays.isEmpty());
+
+		Set<String> generated = new HashSet<>();
+		for (int move : moves) {
+			generated.add(Expectimax.tile(move).getId() + "@" + Expectimax.index(move));
+		}
+		Set<String> expected = new HashSet<>();
+		for (Map.Entry<Tile, List<Integer>> entry : plays.entrySet()) {
+			for (int index : entry.getValue()) {
+				expected.add(entry.getKey().getId() + "@" + index);
+			}
+		}
+		assertEquals(expected, generated);
+	}
+
+	@Test
+	void testGenerateListsEveryValidRotation() {
+		Board before = board.getCopy();
+		int[] moves = Expectimax.generate(board, hand);
+		Set<Integer> generated = new HashSet<>();
+		for (int move : moves) {
+			assertTrue(generated.add(move), "listed twice: " + move);
+		}
+		int expected = 0;
+		for (int id : HAND) {
+			Tile tile = Tile.get(id);
+			boolean uniform = tile.getColourL() == tile.getColourV()
+					&& tile.getColourV() == tile.getColourR();
+			for (int index = 0; index < Board.MAX_FIELDS; index++) {
+				for (int rotation = 0; rotation < (uniform ? 1 : 3); rotation++) {
+					if (board.isEmpty(index) && board.isValidMove(tile, index, rotation)) {
+						assertTrue(generated.contains(Expectimax.move(index, rotation, id)));
+						expected++;
+					}
+				}
+			}
+		}
+		assertEquals(expected, moves.length);
+		//The board is restored after generating.
+		assertEquals(before.getHash(), board.getHash());
+		assertEquals(before.getOccupied(), board.getOccupied());
+	}
+
+	@Test
+	void testGenerateOrdersByScore() {
+		int[] moves = Expectimax.generate(board, hand);
+		int previous = Integer.MAX_VALUE;
+		for (int move : moves) {
+			Board copy = board.getCopy();
+			copy.setTile(Expectimax.index(move), Expectimax.tile(move), Expectimax.rotation(move));
+			int score = copy.getScore(Expectimax.index(move));
+			assertTrue(score <= previous);
+			previous = score;
+		}
+	}
+
+	@Test
+	void testGenerateWithoutTiles() {
+		assertEquals(0, Expectimax.generate(board, 0L).length);
+	}
+}
@@ -0,0 +1,107 @@
+package strategies.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.OutOfTime;
+import model.Board;
+import model.ComputerPlayer;
+import model.Player;
+import model.Tile;
+import strategies.Expectimax;
+import strategies.RootSplit;
+import strategies.SearchStrategy;
+
+class RootSplitTest {
+	static final int[] HAND = {5, 12, 30, 35};
+	static final int[] OPPONENT = {1, 8, 17, 26};
+	static final int DEPTH = 2;
+	Board board;
+	long hand;
+	long opponent;
+	long bag;
+	ForkJoinPool pool;
+
+	@BeforeEach
+	void setUp() {
+		board = new Board();
+		board.setTile(0, Tile.get(0), 0);
+		hand = mask(HAND);
+		opponent = mask(OPPONENT);
+		bag = ((1L << Tile.NUMBER_OF_TILES) - 1) & ~hand & ~opponent & ~1L;
+		pool = new ForkJoinPool(4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * @return the mask of the tiles with the given ids.
+	 */
+	private static long mask(int[] ids) {
+		long result = 0L;
+		for (int id : ids) {
+			result |= 1L << id;
+		}
+		return result;
+	}
+
+	/**
+	 * @return a search of the fixed position without deadline or table.
+	 */
+	private Expectimax search() {
+		return new Expectimax(board.getCopy(), hand, new long[] {opponent}, bag, 2,
+				Long.MAX_VALUE, null);
+	}
+
+	@Test
+	void testSameValuesAsSequential() throws OutOfTime {
+		int[] moves = Expectimax.generate(board.getCopy(), hand);
+		assertTrue(moves.length > 1);
+
+		Expectimax sequential = search();
+		double[] expected = new double[moves.length];
+		for (int i = 0; i < moves.length; i++) {
+			expected[i] = sequential.evaluate(moves[i], DEPTH);
+		}
+		double[] values = new double[moves.length];
+		Arrays.fill(values, Double.NaN);
+		pool.invoke(new RootSplit(search(), moves, values, DEPTH, 0, moves.length));
+		assertArrayEquals(expected, values);
+	}
+
+	@Test
+	void testPassedDeadline() {
+		int[] moves = Expectimax.generate(board.getCopy(), hand);
+		double[] values = new double[moves.length];
+		Expectimax late = new Expectimax(board.getCopy(), hand, new long[] {opponent}, bag, 2,
+				System.nanoTime() - 1, null);
+		pool.invoke(new RootSplit(late, moves, values, DEPTH, 0, moves.length));
+		for (double value : values) {
+			assertTrue(Double.isNaN(value));
+		}
+	}
+
+	@Test
+	void testSameMoveAsSequential() {
+		String[] chosen = new String[2];
+		int[] threads = {1, 4};
+		for (int i = 0; i < threads.length; i++) {
+			Player player = new ComputerPlayer("Pascal", 2);
+			for (int id : HAND) {
+				player.add(Tile.get(id));
+			}
+			SearchStrategy strategy = new SearchStrategy(player, 60000, DEPTH, 2, threads[i], 1);
+			chosen[i] = strategy.determineMove(board.getCopy());
+		}
+		assertEquals(chosen[0], chosen[1]);
+	}
+}
@@ -0,0 +1,118 @@
+package strategies.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.NotOfProtocol;
+import model.Board;
+import model.ComputerPlayer;
+import model.Player;
+import model.Tile;
+import server.Move;
+import server.MoveParser;
+import strategies.Expectimax;
+import strategies.SearchStrategy;
+import strategies.Strategies;
+import strategies.StupidStrategy;
+import util.Protocol;
+
+class SearchStrategyTest {
+	Board board;
+	Player player;
+
+	@BeforeEach
+	void setUp() {
+		board = new Board();
+		player = new ComputerPlayer("Pascal", 2);
+	}
+
+	/**
+	 * @return the score the given move makes on the board.
+	 */
+	private int score(Move move) {
+		Board copy = board.getCopy();
+		copy.setTile(move.getIndex(), move.getTile(), move.getRotation());
+		return copy.getScore(move.getIndex());
+	}
+
+	@Test
+	void testPicksBestScoringMove() throws NotOfProtocol {
+		board.setTile(0, Tile.get(0), 0);
+		for (int id : new int[] {5, 12, 30, 35}) {
+			player.add(Tile.get(id));
+		}
+		SearchStrategy strategy = new SearchStrategy(player, 1000, 1, 2, 1, 1);
+		Move move = new MoveParser().parse(strategy.determineMove(board));
+
+		assertEquals(Protocol.MOVE, move.getType());
+		assertTrue(board.isValidMove(move.getTile(), move.getIndex(), move.getRotation()));
+		int best = Expectimax.generate(board.getCopy(), (1L << 5) | (1L << 12) | (1L << 30)
+				| (1L << 35))[0];
+		Move expected = new Move();
+		expected.place(Expectimax.tile(best), Expectimax.rotation(best), Expectimax.index(best));
+		assertEquals(score(expected), score(move));
+		assertEquals(score(move), player.getScore());
+	}
+
+	@Test
+	void testReplacesWithoutMoves() throws NotOfProtocol {
+		board.setTile(0, Tile.get(0), 0);
+		//Neither tile matches the red sides around the only free neighbour.
+		player.add(Tile.valueOf('B', 'B', 'B', 6));
+		player.add(Tile.valueOf('Y', 'B', 'P', 3));
+		SearchStrategy strategy = new SearchStrategy(player, 1000, 2, 2, 1, 1);
+		Move move = new MoveParser().parse(strategy.determineMove(board));
+		assertEquals(Protocol.TILEREPLACE, move.getType());
+		assertSame(Tile.valueOf('Y', 'B', 'P', 3), move.getTile());
+	}
+
+	@Test
+	void testTinyBudget() throws NotOfProtocol {
+		for (int id : new int[] {5, 12, 30, 35}) {
+			player.add(Tile.get(id));
+		}
+		SearchStrategy strategy = new SearchStrategy(player, 1, SearchStrategy.DEFAULT_DEPTH,
+				SearchStrategy.DEFAULT_SAMPLES, 1, 1);
+		//Loads the classes of the search before it is timed.
+		strategy.determineMove(board.getCopy());
+
+		long start = System.nanoTime();
+		String received = strategy.determineMove(board);
+		long elapsed = (System.nanoTime() - start) / 1000000L;
+		Move move = new MoveParser().parse(received);
+		assertEquals(Protocol.MOVE, move.getType());
+		assertTrue(player.getHand().contains(move.getTile()));
+		assertTrue(board.isValidMove(move.getTile(), move.getIndex(), move.getRotation()));
+		assertTrue(elapsed <= strategy.getHardLimit() + 50, elapsed + " ms");
+	}
+
+	@Test
+	void testForcedMove() {
+		board.setTile(0, Tile.get(0), 0);
+		//Only one side of BBR5 matches the red tile and BBB6 matches none.
+		player.add(Tile.valueOf('B', 'B', 'R', 5));
+		player.add(Tile.valueOf('B', 'B', 'B', 6));
+		SearchStrategy strategy = new SearchStrategy(player, SearchStrategy.MAX_BUDGET,
+				SearchStrategy.DEFAULT_DEPTH, SearchStrategy.DEFAULT_SAMPLES, 1, 1);
+		long start = System.nanoTime();
+		assertEquals("MOVE,BBR5,1,2", strategy.determineMove(board));
+		//A search this deep would take far longer than the forced move.
+		assertTrue(System.nanoTime() - start < 1000000000L);
+	}
+
+	@Test
+	void testStrategiesPerPlayer() {
+		Player other = new ComputerPlayer("Alina", 2);
+		assertTrue(Strategies.get(0, player) instanceof StupidStrategy);
+		SearchStrategy first = (SearchStrategy) Strategies.get(1, player);
+		SearchStrategy second = (SearchStrategy) Strategies.get(1, other);
+		assertNotSame(first, second);
+		assertSame(player, first.getPlayer());
+		assertSame(other, second.getPlayer());
+		assertEquals(Strategies.STRATEGIES[1], first.getName());
+		assertEquals(Strategies.DESCRIPTIONS[1], first.getDescription());
+		assertThrows(IllegalArgumentException.class, () -> Strategies.get(2, player));
+	}
+}
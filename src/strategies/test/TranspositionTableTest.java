@@ -0,0 +1,106 @@
+package strategies.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.OutOfTime;
+import model.Board;
+import model.Tile;
+import strategies.Expectimax;
+import strategies.TranspositionTable;
+
+class TranspositionTableTest {
+	static final long KEY = 0x0123456789ABCDEFL;
+	//Keys differing from KEY in bits the bucket index ignores, so they share its bucket.
+	static final long SAME_BUCKET = KEY ^ (1L << 61);
+	static final long OTHER_SAME_BUCKET = KEY ^ (1L << 62);
+	TranspositionTable table;
+
+	@BeforeEach
+	void setUp() {
+		table = new TranspositionTable(1);
+	}
+
+	@Test
+	void testCapacity() {
+		assertEquals(1024 * 1024 / 16, table.getCapacity());
+	}
+
+	@Test
+	void testHit() {
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+		table.store(KEY, 1.5, 3, 7);
+		long entry = table.probe(KEY);
+		assertNotEquals(TranspositionTable.MISS, entry);
+		assertEquals(1.5, TranspositionTable.value(entry));
+		assertEquals(3, TranspositionTable.depth(entry));
+		assertEquals(7, TranspositionTable.move(entry));
+
+		table.store(KEY, -2.25, 4, TranspositionTable.NO_MOVE);
+		entry = table.probe(KEY);
+		assertEquals(-2.25, TranspositionTable.value(entry));
+		assertEquals(4, TranspositionTable.depth(entry));
+		assertEquals(TranspositionTable.NO_MOVE, TranspositionTable.move(entry));
+
+		table.clear();
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+	}
+
+	@Test
+	void testKeyMismatch() {
+		table.store(KEY, 1.5, 3, 7);
+		assertEquals(TranspositionTable.MISS, table.probe(SAME_BUCKET));
+		assertEquals(TranspositionTable.MISS, table.probe(OTHER_SAME_BUCKET));
+		assertEquals(TranspositionTable.MISS, table.probe(~KEY));
+	}
+
+	@Test
+	void testReplacement() {
+		table.store(KEY, 1.0, 5, 0);
+		//A shallower search does not replace the deep entry.
+		table.store(SAME_BUCKET, 2.0, 2, 0);
+		assertEquals(1.0, TranspositionTable.value(table.probe(KEY)));
+		assertEquals(2.0, TranspositionTable.value(table.probe(SAME_BUCKET)));
+		//The other entry is always replaced.
+		table.store(OTHER_SAME_BUCKET, 3.0, 1, 0);
+		assertEquals(1.0, TranspositionTable.value(table.probe(KEY)));
+		assertEquals(TranspositionTable.MISS, table.probe(SAME_BUCKET));
+		assertEquals(3.0, TranspositionTable.value(table.probe(OTHER_SAME_BUCKET)));
+
+		//Entries of an older search give way to a shallower one.
+		table.nextAge();
+		table.store(SAME_BUCKET, 4.0, 1, 0);
+		assertEquals(TranspositionTable.MISS, table.probe(KEY));
+		assertEquals(4.0, TranspositionTable.value(table.probe(SAME_BUCKET)));
+		assertEquals(3.0, TranspositionTable.value(table.probe(OTHER_SAME_BUCKET)));
+
+		//A deeper search replaces the deep entry of the same age.
+		table.store(KEY, 5.0, 6, 0);
+		assertEquals(5.0, TranspositionTable.value(table.probe(KEY)));
+		assertEquals(3.0, TranspositionTable.value(table.probe(OTHER_SAME_BUCKET)));
+	}
+
+	@Test
+	void testExactDepth() throws OutOfTime {
+		Board board = new Board();
+		board.setTile(0, Tile.get(0), 0);
+		long hand = 1L << 5 | 1L << 12 | 1L << 30 | 1L << 35;
+		long opponent = 1L << 1 | 1L << 8 | 1L << 17 | 1L << 26;
+		long bag = ((1L << Tile.NUMBER_OF_TILES) - 1) & ~hand & ~opponent & ~1L;
+		int[] moves = Expectimax.generate(board.getCopy(), hand);
+
+		Expectimax plain = new Expectimax(board.getCopy(), hand, new long[] {opponent}, bag, 2,
+				Long.MAX_VALUE, null);
+		Expectimax cached = new Expectimax(board.getCopy(), hand, new long[] {opponent}, bag, 2,
+				Long.MAX_VALUE, table);
+		for (int move : moves) {
+			cached.evaluate(move, 3);
+		}
+		//Values searched three turns deep are not used for a search two turns deep.
+		for (int move : moves) {
+			assertEquals(plain.evaluate(move, 2), cached.evaluate(move, 2), 1e-4);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package tournament;
+
+import java.util.function.Function;
+
+import model.Player;
+import model.Strategy;
+import strategies.SearchStrategy;
+import strategies.StupidStrategy;
+
+/**
+ * A class modelling a strategy taking part in a tournament. Strategies keep state about
+ * their player, so every game gets new strategies from the factory of the contestant.
+ * @author pmbos
+ */
+public class Contestant {
+	public static final String STUPID = "stupid";
+	public static final String SEARCH = "search";
+	public static final int SEARCH_MEGABYTES = 1;
+	private final String name;
+	private final Function<Player, Strategy> factory;
+
+	/**
+	 * Creates a new <code>Contestant</code> with the given name and strategy factory.
+	 * @param name the name to report the results of the contestant under.
+	 * @param factory the function creating a strategy for a player.
+	 */
+	//@requires name != null && factory != null;
+	public Contestant(String name, Function<Player, Strategy> factory) {
+		this.name = name;
+		this.factory = factory;
+	}
+
+	// Queries
+
+	/**
+	 * @return the name of this contestant.
+	 */
+	/*@pure */public String getName() {
+		return name;
+	}
+
+	/**
+	 * Parses a contestant from a command line argument: "stupid", "search" or
+	 * "search:budget:depth". Searches use a single thread, as the tournament plays its games
+	 * in parallel instead.
+	 * @param arg the argument to parse.
+	 * @return the contestant described by the argument.
+	 * @throws IllegalArgumentException when the argument describes no strategy.
+	 */
+	//@requires arg != null;
+	public static Contestant parse(String arg) {
+		String[] parts = arg.split(":");
+		if (parts[0].equals(STUPID) && parts.length == 1) {
+			return new Contestant(arg, StupidStrategy::new);
+		}
+		if (parts[0].equals(SEARCH) && (parts.length == 1 || parts.length == 3)) {
+			long budget = parts.length == 3 ? Long.parseLong(parts[1])
+					: SearchStrategy.DEFAULT_BUDGET;
+			int depth = parts.length == 3 ? Integer.parseInt(parts[2])
+					: SearchStrategy.DEFAULT_DEPTH;
+			if (budget <= 0 || depth <= 0) {
+				throw new IllegalArgumentException("Budget and depth must be positive: " + arg);
+			}
+			return new Contestant(arg, player -> new SearchStrategy(player, budget, depth,
+					SearchStrategy.DEFAULT_SAMPLES, 1, SEARCH_MEGABYTES));
+		}
+		throw new IllegalArgumentException("Unknown strategy: " + arg);
+	}
+
+	// Commands
+
+	/**
+	 * Creates a new strategy of this contestant for the given player.
+	 * @param player the player the strategy plays for.
+	 * @return a new strategy.
+	 */
+	//@requires player != null;
+	//@ensures \result != null;
+	public Strategy create(Player player) {
+		return factory.apply(player);
+	}
+}
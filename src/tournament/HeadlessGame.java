@@ -0,0 +1,161 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import exceptions.IllegalMove;
+import model.Board;
+import model.ComputerPlayer;
+import model.Game;
+import model.Player;
+import model.Tile;
+import strategies.SearchStrategy;
+import util.Protocol;
+
+/**
+ * A class playing a single game of spectrangle between strategies directly on a
+ * <code>Game</code>, following the same turns as the server without any connections.
+ * The players move in the order of their seats, starting with seat 0.
+ * @author pmbos
+ */
+public class HeadlessGame {
+	public static final int HAND_SIZE = 4;
+	private final Game game;
+	private final int[] scores;
+	private int seat;
+
+	/**
+	 * Creates a new game between the given contestants, seated in the given order.
+	 * @param contestants the contestants to play the game.
+	 */
+	//@requires Game.MIN_PLAYERS <= contestants.size() && contestants.size() <= Game.MAX_PLAYERS;
+	public HeadlessGame(List<Contestant> contestants) {
+		this(contestants, new SplittableRandom());
+	}
+
+	/**
+	 * Creates a new game between the given contestants, seated in the given order, drawing
+	 * tiles with the given random source.
+	 * @param contestants the contestants to play the game.
+	 * @param random the random source of the game.
+	 */
+	//@requires Game.MIN_PLAYERS <= contestants.size() && contestants.size() <= Game.MAX_PLAYERS;
+	public HeadlessGame(List<Contestant> contestants, SplittableRandom random) {
+		this.game = new Game(contestants.size(), random);
+		for (int seat = 0; seat < contestants.size(); seat++) {
+			Contestant contestant = contestants.get(seat);
+			ComputerPlayer player = new ComputerPlayer(contestant.getName() + "#" + seat,
+					contestants.size());
+			player.setStrategy(contestant.create(player));
+			game.addPlayer(player);
+		}
+		this.scores = new int[contestants.size()];
+		this.seat = 0;
+	}
+
+	// Queries
+
+	/**
+	 * @return the game being played.
+	 */
+	/*@pure */public Game getGame() {
+		return game;
+	}
+
+	/**
+	 * @return the points scored so far by the player on every seat.
+	 */
+	//@ensures \result.length == getGame().getNumberOfPlayers();
+	/*@pure */public int[] getScores() {
+		return scores.clone();
+	}
+
+	// Commands
+
+	/**
+	 * Deals the hands and plays the game until it is over.
+	 * @return the points scored by the player on every seat.
+	 * @throws IllegalMove when a strategy makes an illegal move.
+	 */
+	//@ensures \result.length == getGame().getNumberOfPlayers();
+	public int[] play() throws IllegalMove {
+		start();
+		while (!game.gameOver()) {
+			playTurn();
+		}
+		return getScores();
+	}
+
+	/**
+	 * Deals the hands, tells the strategies who their opponents are and gives the turn to
+	 * the player on seat 0.
+	 */
+	//@ensures getGame().getCurrentPlayer() == getGame().getPlayers().get(0);
+	public void start() {
+		List<Player> players = game.getPlayers();
+		game.getBag().dealHands(players, HAND_SIZE);
+		for (int i = 0; i < players.size(); i++) {
+			ComputerPlayer computer = (ComputerPlayer) players.get(i);
+			if (computer.getStrategy() instanceof SearchStrategy) {
+				((SearchStrategy) computer.getStrategy()).setOpponents(opponents(i));
+			}
+		}
+		seat = 0;
+		game.setCurrentPlayer(players.get(seat));
+	}
+
+	/**
+	 * Lets the current player make its turn and gives the turn to the next player.
+	 * @return the points scored in the turn.
+	 * @throws IllegalMove when the strategy of the player makes an illegal move.
+	 */
+	//@requires !getGame().gameOver();
+	public int playTurn() throws IllegalMove {
+		List<Player> players = game.getPlayers();
+		int points = turn((ComputerPlayer) game.getCurrentPlayer());
+		scores[seat] += points;
+		seat = (seat + 1) % players.size();
+		game.setCurrentPlayer(players.get(seat));
+		return points;
+	}
+
+	/**
+	 * Lets the given player make its turn. A player skips when it has no tiles, or when it
+	 * cannot play and there are no tiles to replace its tiles with.
+	 * @param player the player to move.
+	 * @return the points scored in the turn.
+	 * @throws IllegalMove when the strategy of the player makes an illegal move.
+	 */
+	//@requires player == getGame().getCurrentPlayer();
+	private int turn(ComputerPlayer player) throws IllegalMove {
+		Board board = game.getBoard();
+		if (player.emptyHand() || (!player.hasPlay(board) && game.getBag().getSize() == 0)) {
+			return 0;
+		}
+		String[] move = player.determineMove(board).split(Protocol.DELIMITER);
+		switch (move[0]) {
+			case Protocol.MOVE:
+				return game.playTile(Tile.parse(move[1]), Integer.parseInt(move[3]),
+						Integer.parseInt(move[2]));
+			case Protocol.TILEREPLACE:
+				game.replaceTile(Tile.parse(move[1]));
+				return 0;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * @param seat the seat of a player.
+	 * @return the other players, in the order in which they move after the player.
+	 */
+	/*@pure */private List<Player> opponents(int seat) {
+		List<Player> players = game.getPlayers();
+		List<Player> opponents = new ArrayList<>();
+		for (int i = 1; i < players.size(); i++) {
+			opponents.add(players.get((seat + i) % players.size()));
+		}
+		return opponents;
+	}
+}
@@ -0,0 +1,122 @@
+package tournament;
+
+/**
+ * A class collecting the results of a contestant over the games of a tournament.
+ * A game is won by the highest score; players sharing the highest score share the win.
+ * Intervals are 95% confidence intervals: the Wilson score interval for the win rate and
+ * the normal approximation for the mean score.
+ * @author pmbos
+ */
+public class Statistics {
+	public static final double Z = 1.959964;
+	private final String name;
+	private int games;
+	private double wins;
+	private long points;
+	private long squares;
+
+	/**
+	 * Creates new, empty <code>Statistics</code> for the contestant with the given name.
+	 * @param name the name of the contestant.
+	 */
+	//@ensures getGames() == 0;
+	public Statistics(String name) {
+		this.name = name;
+		this.games = 0;
+		this.wins = 0;
+		this.points = 0L;
+		this.squares = 0L;
+	}
+
+	// Queries
+
+	/**
+	 * @return the name of the contestant.
+	 */
+	/*@pure */public String getName() {
+		return name;
+	}
+
+	/**
+	 * @return the number of games played.
+	 */
+	/*@pure */public int getGames() {
+		return games;
+	}
+
+	/**
+	 * @return the number of games won, counting shared wins as a fraction.
+	 */
+	/*@pure */public double getWins() {
+		return wins;
+	}
+
+	/**
+	 * @return the fraction of the games won, 0 when no games were played.
+	 */
+	//@ensures 0 <= \result && \result <= 1;
+	/*@pure */public double getWinRate() {
+		return games == 0 ? 0 : wins / games;
+	}
+
+	/**
+	 * @return the lower and upper bound of the confidence interval of the win rate.
+	 */
+	//@ensures \result.length == 2 && \result[0] <= getWinRate() && getWinRate() <= \result[1];
+	/*@pure */public double[] getWinInterval() {
+		if (games == 0) {
+			return new double[] {0, 1};
+		}
+		double rate = getWinRate();
+		double z2 = Z * Z / games;
+		double centre = (rate + z2 / 2) / (1 + z2);
+		double margin = Z * Math.sqrt(rate * (1 - rate) / games + z2 / (4 * games)) / (1 + z2);
+		return new double[] {Math.max(0, centre - margin), Math.min(1, centre + margin)};
+	}
+
+	/**
+	 * @return the mean score per game, 0 when no games were played.
+	 */
+	/*@pure */public double getMeanScore() {
+		return games == 0 ? 0 : (double) points / games;
+	}
+
+	/**
+	 * @return the half width of the confidence interval of the mean score.
+	 */
+	//@ensures \result >= 0;
+	/*@pure */public double getScoreMargin() {
+		if (games < 2) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double mean = getMeanScore();
+		double variance = (squares - games * mean * mean) / (games - 1);
+		return Z * Math.sqrt(Math.max(0, variance) / games);
+	}
+
+	/**
+	 * @return a one line summary of the results.
+	 */
+	/*@pure */public String toString() {
+		double[] interval = getWinInterval();
+		return String.format("%-20s games %6d  win rate %5.1f%% [%5.1f%%, %5.1f%%]"
+				+ "  score %6.2f +- %.2f", name, games, 100 * getWinRate(),
+				100 * interval[0], 100 * interval[1], getMeanScore(), getScoreMargin());
+	}
+
+	// Commands
+
+	/**
+	 * Adds the result of a game.
+	 * @param score the score of the contestant.
+	 * @param win the share of the win of the contestant, 0 when it lost.
+	 */
+	//@requires 0 <= win && win <= 1;
+	//@ensures getGames() == \old(getGames()) + 1;
+	public void add(int score, double win) {
+		games++;
+		wins += win;
+		points += score;
+		squares += (long) score * score;
+	}
+}
@@ -0,0 +1,157 @@
+package tournament;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import exceptions.IllegalMove;
+import model.Game;
+
+/**
+ * A class playing a tournament of games between strategies, without a server.
+ * The seats rotate every game, so every contestant starts equally often, and the games
+ * are played in parallel, one game at a time per thread. The results are merged in the
+ * order of the games. Every game draws from its own random source, split from the seed of
+ * the tournament, so a tournament with the same seed plays the same games.
+ * @author pmbos
+ */
+public class Tournament {
+	private final List<Contestant> contestants;
+	private final int games;
+	private final int threads;
+	private final long seed;
+	private long elapsed;
+
+	/**
+	 * Creates a new <code>Tournament</code> between the given contestants, who play every
+	 * game together.
+	 * @param contestants the contestants of the tournament.
+	 * @param games the number of games to play.
+	 * @param threads the number of games to play at the same time.
+	 * @param seed the seed of the random sources of the games.
+	 */
+	/*@requires Game.MIN_PLAYERS <= contestants.size() && contestants.size() <= Game.MAX_PLAYERS
+	  			&& games > 0 && threads > 0;
+	 */
+	public Tournament(List<Contestant> contestants, int games, int threads, long seed) {
+		this.contestants = contestants;
+		this.games = games;
+		this.threads = threads;
+		this.seed = seed;
+		this.elapsed = 0L;
+	}
+
+	/**
+	 * Plays a tournament from the command line and prints the results.
+	 * @param args the number of games, the number of threads, the seed and two to four
+	 * strategies.
+	 * @throws IllegalMove when a strategy makes an illegal move.
+	 */
+	public static void main(String[] args) throws IllegalMove {
+		if (args.length < 3 + Game.MIN_PLAYERS || args.length > 3 + Game.MAX_PLAYERS) {
+			System.out.println("Usage: java tournament.Tournament <games> <threads> <seed> "
+					+ "<strategy> <strategy> [<strategy>] [<strategy>]");
+			return;
+		}
+		List<Contestant> contestants = new ArrayList<>();
+		for (int i = 3; i < args.length; i++) {
+			contestants.add(Contestant.parse(args[i]));
+		}
+		Tournament tournament = new Tournament(contestants, Integer.parseInt(args[0]),
+				Integer.parseInt(args[1]), Long.parseLong(args[2]));
+		for (Statistics statistics : tournament.play()) {
+			System.out.println(statistics);
+		}
+		System.out.printf("%d games in %.1f s, %.0f games per second%n", tournament.games,
+				tournament.getElapsed() / 1e3, tournament.games * 1e3 / tournament.getElapsed());
+	}
+
+	// Queries
+
+	/**
+	 * @return the time in milliseconds the last call to <code>play</code> took, at least 1.
+	 */
+	/*@pure */public long getElapsed() {
+		return Math.max(1L, elapsed);
+	}
+
+	// Commands
+
+	/**
+	 * Plays all games of the tournament.
+	 * @return the statistics of every contestant, in the order of the contestants.
+	 * @throws IllegalMove when a strategy makes an illegal move.
+	 */
+	//@ensures \result.length == contestants.size();
+	public Statistics[] play() throws IllegalMove {
+		long start = System.nanoTime();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<int[]>> results = new ArrayList<>();
+		SplittableRandom random = new SplittableRandom(seed);
+		for (int i = 0; i < games; i++) {
+			List<Contestant> seated = seat(i);
+			SplittableRandom split = random.split();
+			results.add(executor.submit(() -> new HeadlessGame(seated, split).play()));
+		}
+
+		Statistics[] statistics = new Statistics[contestants.size()];
+		for (int i = 0; i < statistics.length; i++) {
+			statistics[i] = new Statistics(contestants.get(i).getName());
+		}
+		try {
+			for (int i = 0; i < games; i++) {
+				record(statistics, i, results.get(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IllegalMove) {
+				throw (IllegalMove) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+			elapsed = (System.nanoTime() - start) / 1000000L;
+		}
+		return statistics;
+	}
+
+	/**
+	 * @param game the number of the game.
+	 * @return the contestants in the order of their seats in the given game.
+	 */
+	/*@pure */private List<Contestant> seat(int game) {
+		List<Contestant> seated = new ArrayList<>();
+		for (int seat = 0; seat < contestants.size(); seat++) {
+			seated.add(contestants.get((game + seat) % contestants.size()));
+		}
+		return seated;
+	}
+
+	/**
+	 * Adds the scores of the given game to the statistics of the contestants.
+	 * @param statistics the statistics of every contestant.
+	 * @param game the number of the game.
+	 * @param scores the scores of the players in the order of their seats.
+	 */
+	private void record(Statistics[] statistics, int game, int[] scores) {
+		int highest = Integer.MIN_VALUE;
+		int winners = 0;
+		for (int score : scores) {
+			if (score > highest) {
+				highest = score;
+				winners = 1;
+			} else if (score == highest) {
+				winners++;
+			}
+		}
+		for (int seat = 0; seat < scores.length; seat++) {
+			double win = scores[seat] == highest ? 1.0 / winners : 0;
+			statistics[(game + seat) % contestants.size()].add(scores[seat], win);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package tournament.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import exceptions.IllegalMove;
+import model.Player;
+import model.Tile;
+import tournament.Contestant;
+import tournament.HeadlessGame;
+
+class HeadlessGameTest {
+	static final long SEED = 42L;
+	List<Contestant> contestants;
+
+	@BeforeEach
+	void setUp() {
+		contestants = Arrays.asList(Contestant.parse("stupid"), Contestant.parse("search:1000:1"),
+				Contestant.parse("stupid"));
+	}
+
+	/**
+	 * Takes every tile from the hand of the given player.
+	 */
+	private static void empty(Player player) {
+		while (!player.emptyHand()) {
+			player.removeTile(player.getHand().get(0));
+		}
+	}
+
+	@Test
+	void testSeededGamesAreEqual() throws IllegalMove {
+		HeadlessGame first = new HeadlessGame(contestants, new SplittableRandom(SEED));
+		HeadlessGame second = new HeadlessGame(contestants, new SplittableRandom(SEED));
+		int[] scores = first.play();
+		assertArrayEquals(scores, second.play());
+		assertTrue(first.getGame().gameOver());
+		assertEquals(first.getGame().getBoard().getHash(), second.getGame().getBoard().getHash());
+		assertEquals(first.getGame().getStateHash(), second.getGame().getStateHash());
+		assertArrayEquals(scores, first.getScores());
+	}
+
+	@Test
+	void testSkipEmptyHand() throws IllegalMove {
+		HeadlessGame headless = new HeadlessGame(contestants, new SplittableRandom(SEED));
+		headless.start();
+		List<Player> players = headless.getGame().getPlayers();
+		empty(players.get(0));
+		int size = headless.getGame().getBag().getSize();
+
+		assertEquals(0, headless.playTurn());
+		assertTrue(headless.getGame().getBoard().boardEmpty());
+		assertEquals(size, headless.getGame().getBag().getSize());
+		assertSame(players.get(1), headless.getGame().getCurrentPlayer());
+	}
+
+	@Test
+	void testSkipWithoutPlayOrBag() throws IllegalMove {
+		HeadlessGame headless = new HeadlessGame(contestants, new SplittableRandom(SEED));
+		headless.start();
+		headless.getGame().attemptMove(Tile.get(0), 0, 0);
+		long hash = headless.getGame().getBoard().getHash();
+		Player player = headless.getGame().getPlayers().get(0);
+		empty(player);
+		//BBB6 fits nowhere next to the red tile.
+		player.add(Tile.valueOf('B', 'B', 'B', 6));
+		while (headless.getGame().getBag().getSize() > 0) {
+			headless.getGame().getBag().draw();
+		}
+
+		assertEquals(0, headless.playTurn());
+		assertEquals(hash, headless.getGame().getBoard().getHash());
+		assertEquals(Arrays.asList(Tile.valueOf('B', 'B', 'B', 6)), player.getHand());
+		assertArrayEquals(new int[3], headless.getScores());
+	}
+}
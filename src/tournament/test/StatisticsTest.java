@@ -0,0 +1,68 @@
+package tournament.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import tournament.Statistics;
+
+class StatisticsTest {
+	static final double DELTA = 1e-6;
+	Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = new Statistics("stupid");
+	}
+
+	/**
+	 * Adds the given number of games, of which the first <code>wins</code> are won.
+	 */
+	private void add(int wins, int games) {
+		for (int i = 0; i < games; i++) {
+			statistics.add(i % 3, i < wins ? 1 : 0);
+		}
+	}
+
+	@Test
+	void testNoGames() {
+		assertArrayEquals(new double[] {0, 1}, statistics.getWinInterval());
+		assertEquals(0, statistics.getWinRate());
+		assertEquals(0, statistics.getMeanScore());
+		assertEquals(Double.POSITIVE_INFINITY, statistics.getScoreMargin());
+	}
+
+	@Test
+	void testWinInterval() {
+		add(7, 10);
+		assertEquals(0.7, statistics.getWinRate(), DELTA);
+		assertArrayEquals(new double[] {0.3967781453, 0.8922087334},
+				statistics.getWinInterval(), DELTA);
+	}
+
+	@Test
+	void testWinIntervalHalf() {
+		add(50, 100);
+		assertArrayEquals(new double[] {0.4038315296, 0.5961684704},
+				statistics.getWinInterval(), DELTA);
+	}
+
+	@Test
+	void testWinIntervalNoWins() {
+		add(0, 20);
+		assertArrayEquals(new double[] {0.0, 0.1611251602}, statistics.getWinInterval(), DELTA);
+	}
+
+	@Test
+	void testScores() {
+		statistics.add(10, 1);
+		statistics.add(20, 0.5);
+		statistics.add(30, 0);
+		assertEquals(3, statistics.getGames());
+		assertEquals(1.5, statistics.getWins(), DELTA);
+		assertEquals(20, statistics.getMeanScore(), DELTA);
+		//The sample standard deviation is 10.
+		assertEquals(Statistics.Z * 10 / Math.sqrt(3), statistics.getScoreMargin(), DELTA);
+	}
+}
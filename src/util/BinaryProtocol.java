@@ -0,0 +1,561 @@
+package util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import exceptions.NotOfProtocol;
+import model.Tile;
+
+/**
+ * The binary framing of the protocol, negotiated through the <code>EXTENSION</code>
+ * character in the connect request and the connect accept.
+ * Once both sides enabled it, every message after the connect accept is sent as a frame:
+ * a two byte length followed by a type byte and the fields of the message. Tiles are sent
+ * as their id, the rotation and the index of a move are packed in one byte.
+ * The codec translates from and to the text messages, so the rest of the program does not
+ * need to know which framing is used. Only messages in their canonical form are packed, so
+ * decoding a packed frame gives back the exact message; anything else, for example a message
+ * with an invalid tile or a number with a leading zero, is sent as a text frame holding the
+ * line itself. Moves can also be read from a frame without going through text, see
+ * <code>isMove</code>.
+ * @author pmbos
+ */
+public final class BinaryProtocol {
+	public static final char EXTENSION = 'B';
+	public static final int HEADER = 2;
+	public static final int MAX_FRAME = 0xFFFF;
+	public static final int TEXT = 0;
+	public static final int JOINGAME = 1;
+	public static final int GAMESTARTED = 2;
+	public static final int MOVEREQUEST = 3;
+	public static final int MOVE = 4;
+	public static final int TILEREPLACE = 5;
+	public static final int SKIP = 6;
+	public static final int TURNMADE = 7;
+	public static final int PLAYERKICKED = 8;
+	public static final int GAMEOVER = 9;
+	private static final int ROTATION_SHIFT = 6;
+	private static final int INDEX_MASK = (1 << ROTATION_SHIFT) - 1;
+	private static final int MAX_NAME = 0xFF;
+	private static final String SEPARATOR = "|";
+
+	/**
+	 * BinaryProtocol only has static members.
+	 */
+	private BinaryProtocol() {
+	}
+
+	// Queries
+
+	/**
+	 * Encodes the given message as a frame, including its length.
+	 * @param message the text message, without a line separator.
+	 * @return the frame holding the message.
+	 * @throws IllegalArgumentException when the message does not fit in a frame.
+	 */
+	//@requires message != null;
+	//@ensures \result.length >= HEADER + 1;
+	/*@pure */public static byte[] encode(String message) {
+		try {
+			return pack(message);
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			//Only the canonical form of a message is packed, anything else goes as text.
+			return text(message);
+		}
+	}
+
+	/**
+	 * @param type the type byte of a frame.
+	 * @return true if the frame holds a move, a tile replacement or a skip.
+	 */
+	/*@pure */public static boolean isMove(int type) {
+		return type == MOVE || type == TILEREPLACE || type == SKIP;
+	}
+
+	/**
+	 * @param id the id of a tile as sent in a frame.
+	 * @return the tile with the given id.
+	 * @throws NotOfProtocol when the id is not the id of a tile.
+	 */
+	/*@pure */public static Tile tile(int id) throws NotOfProtocol {
+		int unsigned = id & 0xFF;
+		if (unsigned >= Tile.NUMBER_OF_TILES) {
+			throw new NotOfProtocol("Not a tile id: " + unsigned);
+		}
+		return Tile.get(unsigned);
+	}
+
+	/**
+	 * @param placement the rotation and the index of a move packed in one byte.
+	 * @return the rotation of the move.
+	 */
+	/*@pure */public static int rotation(int placement) {
+		return (placement & 0xFF) >>> ROTATION_SHIFT;
+	}
+
+	/**
+	 * @param placement the rotation and the index of a move packed in one byte.
+	 * @return the index of the move.
+	 */
+	/*@pure */public static int index(int placement) {
+		return placement & INDEX_MASK;
+	}
+
+	/**
+	 * Decodes the payload of a frame into its text message.
+	 * @param frame the bytes holding the payload.
+	 * @param offset the offset of the payload in the bytes.
+	 * @param length the length of the payload.
+	 * @return the text message the payload holds.
+	 * @throws NotOfProtocol when the payload is not a valid frame.
+	 */
+	//@requires frame != null && 0 <= offset && offset + length <= frame.length;
+	/*@pure */public static String decode(byte[] frame, int offset, int length)
+			throws NotOfProtocol {
+		ByteBuffer payload = ByteBuffer.wrap(frame, offset, length);
+		StringBuilder result = new StringBuilder();
+		try {
+			int type = payload.get();
+			switch (type) {
+				case TEXT:
+					return new String(frame, offset + 1, length - 1, StandardCharsets.UTF_8);
+				case JOINGAME:
+					result.append(Protocol.JOINGAME + Protocol.DELIMITER).append(payload.get());
+					break;
+				case GAMESTARTED:
+					result.append(Protocol.GAMESTARTED + Protocol.DELIMITER + SEPARATOR);
+					for (int players = unsigned(payload); players > 0; players--) {
+						appendHand(payload, result);
+						result.append(readName(payload)).append(SEPARATOR);
+					}
+					break;
+				case MOVEREQUEST:
+					result.append(Protocol.MOVEREQUEST);
+					break;
+				case MOVE:
+					result.append(Protocol.MOVE + Protocol.DELIMITER);
+					appendTile(payload, result);
+					appendPlacement(payload, result);
+					break;
+				case TILEREPLACE:
+					result.append(Protocol.TILEREPLACE + Protocol.DELIMITER);
+					appendText(result, readTile(payload));
+					break;
+				case SKIP:
+					result.append(Protocol.SKIP);
+					break;
+				case TURNMADE:
+					appendTurnMade(payload, result);
+					break;
+				case PLAYERKICKED:
+					result.append(Protocol.PLAYERKICKED + Protocol.DELIMITER)
+							.append(readName(payload));
+					break;
+				case GAMEOVER:
+					result.append(Protocol.GAMEOVER + Protocol.DELIMITER);
+					for (int players = unsigned(payload); players > 0; players--) {
+						result.append(readName(payload)).append(Protocol.DELIMITER)
+								.append(payload.getInt()).append(Protocol.DELIMITER);
+					}
+					break;
+				default:
+					throw new NotOfProtocol("Unknown frame type: " + type);
+			}
+		} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+			throw new NotOfProtocol("Frame too short");
+		}
+		if (payload.hasRemaining()) {
+			throw new NotOfProtocol("Frame too long");
+		}
+		return result.toString();
+	}
+
+	// Commands
+
+	/**
+	 * Reads one frame from the given stream.
+	 * @param in the stream to read from.
+	 * @return the text message the frame holds, null if the stream ended before the frame.
+	 * @throws IOException when the stream cannot be read or ends inside a frame.
+	 * @throws NotOfProtocol when the frame is not valid.
+	 */
+	//@requires in != null;
+	public static String read(InputStream in) throws IOException, NotOfProtocol {
+		int high = in.read();
+		if (high < 0) {
+			return null;
+		}
+		int low = in.read();
+		if (low < 0) {
+			throw new EOFException("Stream ended inside a frame");
+		}
+		int length = high << 8 | low;
+		if (length == 0) {
+			throw new NotOfProtocol("Empty frame");
+		}
+		byte[] payload = in.readNBytes(length);
+		if (payload.length < length) {
+			throw new EOFException("Stream ended inside a frame");
+		}
+		return decode(payload, 0, length);
+	}
+
+	/**
+	 * Writes the given message as one frame to the given stream and flushes it.
+	 * @param out the stream to write to.
+	 * @param message the text message, without a line separator.
+	 * @throws IOException when the stream cannot be written.
+	 */
+	//@requires out != null && message != null;
+	public static void write(OutputStream out, String message) throws IOException {
+		out.write(encode(message));
+		out.flush();
+	}
+
+	/**
+	 * Packs the given message in a frame of its own type, checking that the message is in
+	 * the canonical form the frame decodes to.
+	 * @param message the text message.
+	 * @return the frame, including its length.
+	 * @throws IllegalArgumentException when a field of the message cannot be packed or the
+	 * message is not in its canonical form.
+	 * @throws IndexOutOfBoundsException when the message misses fields.
+	 */
+	private static byte[] pack(String message) {
+		ByteArrayOutputStream frame = new ByteArrayOutputStream(32);
+		frame.write(0);
+		frame.write(0);
+		String[] parts = message.split(Protocol.DELIMITER, -1);
+		switch (parts[0]) {
+			case Protocol.JOINGAME:
+				checkFields(parts, 2);
+				frame.write(JOINGAME);
+				int preference = number(parts[1]);
+				if (preference < Byte.MIN_VALUE || preference > Byte.MAX_VALUE) {
+					throw new IllegalArgumentException("Preference out of range");
+				}
+				frame.write(preference);
+				break;
+			case Protocol.GAMESTARTED:
+				frame.write(GAMESTARTED);
+				//The sections between the separators hold the hand and the name of a player.
+				String[] sections = message.split("\\" + SEPARATOR, -1);
+				checkEnd(sections);
+				if (!sections[0].equals(Protocol.GAMESTARTED + Protocol.DELIMITER)) {
+					throw new IllegalArgumentException("Expected a separator");
+				}
+				frame.write(checkCount(sections.length - 2));
+				for (int i = 1; i < sections.length - 1; i++) {
+					String[] fields = sections[i].split(Protocol.DELIMITER, -1);
+					writeHand(frame, fields, 0, fields.length - 1);
+					writeName(frame, fields[fields.length - 1]);
+				}
+				break;
+			case Protocol.MOVEREQUEST:
+				checkFields(parts, 1);
+				frame.write(MOVEREQUEST);
+				break;
+			case Protocol.MOVE:
+				checkFields(parts, 4);
+				frame.write(MOVE);
+				frame.write(id(parts[1]));
+				frame.write(placement(parts[2], parts[3]));
+				break;
+			case Protocol.TILEREPLACE:
+				checkFields(parts, 2);
+				frame.write(TILEREPLACE);
+				frame.write(id(parts[1]));
+				break;
+			case Protocol.SKIP:
+				checkFields(parts, 1);
+				frame.write(SKIP);
+				break;
+			case Protocol.TURNMADE:
+				frame.write(TURNMADE);
+				frame.write(parts[1].charAt(0));
+				writeName(frame, parts[2]);
+				switch (parts[1]) {
+					case Protocol.MOVESHORT:
+						writeHand(frame, parts, 3, parts.length - 3);
+						frame.write(id(parts[parts.length - 3]));
+						frame.write(placement(parts[parts.length - 2], parts[parts.length - 1]));
+						break;
+					case Protocol.REPLACESHORT:
+						checkEnd(parts);
+						writeHand(frame, parts, 3, parts.length - 2);
+						frame.write(id(parts[parts.length - 2]));
+						break;
+					case Protocol.SKIPSHORT:
+						checkEnd(parts);
+						writeHand(frame, parts, 3, parts.length - 1);
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown turn: " + parts[1]);
+				}
+				break;
+			case Protocol.PLAYERKICKED:
+				checkFields(parts, 2);
+				frame.write(PLAYERKICKED);
+				writeName(frame, parts[1]);
+				break;
+			case Protocol.GAMEOVER:
+				checkEnd(parts);
+				if (parts.length % 2 != 0) {
+					throw new IllegalArgumentException("Expected a name and a score per player");
+				}
+				frame.write(GAMEOVER);
+				frame.write(checkCount((parts.length - 2) / 2));
+				for (int i = 1; i < parts.length - 1; i += 2) {
+					writeName(frame, parts[i]);
+					int score = number(parts[i + 1]);
+					frame.write(score >>> 24);
+					frame.write(score >>> 16);
+					frame.write(score >>> 8);
+					frame.write(score);
+				}
+				break;
+			default:
+				throw new IllegalArgumentException("Not a game message: " + parts[0]);
+		}
+		return withLength(frame.toByteArray());
+	}
+
+	/**
+	 * @param message the text message.
+	 * @return a text frame holding the message, including its length.
+	 * @throws IllegalArgumentException when the message does not fit in a frame.
+	 */
+	private static byte[] text(String message) {
+		byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+		byte[] frame = new byte[HEADER + 1 + bytes.length];
+		frame[HEADER] = TEXT;
+		System.arraycopy(bytes, 0, frame, HEADER + 1, bytes.length);
+		return withLength(frame);
+	}
+
+	/**
+	 * Fills in the length of the given frame.
+	 * @param frame the frame, with room for its length in front.
+	 * @return the given frame.
+	 * @throws IllegalArgumentException when the frame is too long.
+	 */
+	private static byte[] withLength(byte[] frame) {
+		int length = frame.length - HEADER;
+		if (length > MAX_FRAME) {
+			throw new IllegalArgumentException("Message too long for a frame");
+		}
+		frame[0] = (byte) (length >>> 8);
+		frame[1] = (byte) length;
+		return frame;
+	}
+
+	/**
+	 * @param count the number of entries of a list.
+	 * @return the given count, if it fits in a byte.
+	 * @throws IllegalArgumentException when the count is negative or too big.
+	 */
+	private static int checkCount(int count) {
+		if (count < 0 || count > 0xFF) {
+			throw new IllegalArgumentException("Count out of range");
+		}
+		return count;
+	}
+
+	/**
+	 * @param parts the fields of a message.
+	 * @param count the number of fields the message should have.
+	 * @throws IllegalArgumentException when the message has another number of fields.
+	 */
+	private static void checkFields(String[] parts, int count) {
+		if (parts.length != count) {
+			throw new IllegalArgumentException("Expected " + count + " fields");
+		}
+	}
+
+	/**
+	 * @param parts the fields of a message that ends with a delimiter.
+	 * @throws IllegalArgumentException when the message does not end with the delimiter.
+	 */
+	private static void checkEnd(String[] parts) {
+		if (parts.length < 2 || !parts[parts.length - 1].isEmpty()) {
+			throw new IllegalArgumentException("Expected a delimiter at the end");
+		}
+	}
+
+	/**
+	 * @param number the text of a number.
+	 * @return the number, if the text is the way the number is written when decoded.
+	 * @throws IllegalArgumentException when the text is not a number written that way.
+	 */
+	private static int number(String number) {
+		int result = Integer.parseInt(number);
+		if (!String.valueOf(result).equals(number)) {
+			throw new IllegalArgumentException("Not a canonical number: " + number);
+		}
+		return result;
+	}
+
+	/**
+	 * @param tile the protocol form of a tile.
+	 * @return the id of the tile.
+	 * @throws IllegalArgumentException when the tile is not valid or not written the way
+	 * it is written when decoded.
+	 */
+	private static int id(String tile) {
+		Tile parsed = Tile.parse(tile);
+		if (parsed.getId() == Tile.NO_ID || tile.charAt(0) != parsed.getColourL()
+				|| tile.charAt(1) != parsed.getColourV() || tile.charAt(2) != parsed.getColourR()
+				|| tile.charAt(3) - '0' != parsed.getValue()) {
+			throw new IllegalArgumentException("Not a valid tile: " + tile);
+		}
+		return parsed.getId();
+	}
+
+	/**
+	 * @param rotation the rotation of a move.
+	 * @param index the index of a move.
+	 * @return the rotation and the index packed in one byte.
+	 * @throws IllegalArgumentException when either does not fit.
+	 */
+	private static int placement(String rotation, String index) {
+		int r = number(rotation);
+		int i = number(index);
+		if (r < 0 || r > 0xFF >>> ROTATION_SHIFT || i < 0 || i > INDEX_MASK) {
+			throw new IllegalArgumentException("Placement out of range");
+		}
+		return r << ROTATION_SHIFT | i;
+	}
+
+	/**
+	 * Writes the number of tiles in the given range and their ids.
+	 * @param frame the frame to write to.
+	 * @param fields the fields holding the tiles.
+	 * @param from the first field of the hand.
+	 * @param to the field after the hand.
+	 */
+	private static void writeHand(ByteArrayOutputStream frame, String[] fields, int from,
+			int to) {
+		frame.write(checkCount(to - from));
+		for (int i = from; i < to; i++) {
+			frame.write(id(fields[i]));
+		}
+	}
+
+	/**
+	 * Writes the length of the given name and its bytes.
+	 * @param frame the frame to write to.
+	 * @param name the name to write.
+	 */
+	private static void writeName(ByteArrayOutputStream frame, String name) {
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		if (bytes.length > MAX_NAME) {
+			throw new IllegalArgumentException("Name too long");
+		}
+		frame.write(bytes.length);
+		frame.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * @param payload the payload to read from.
+	 * @return the next byte of the payload, unsigned.
+	 */
+	private static int unsigned(ByteBuffer payload) {
+		return payload.get() & 0xFF;
+	}
+
+	/**
+	 * @param payload the payload to read from.
+	 * @return the tile of which the id is the next byte of the payload.
+	 * @throws NotOfProtocol when the id is not the id of a tile.
+	 */
+	private static Tile readTile(ByteBuffer payload) throws NotOfProtocol {
+		return tile(payload.get());
+	}
+
+	/**
+	 * @param payload the payload to read from.
+	 * @return the name starting at the position of the payload.
+	 */
+	private static String readName(ByteBuffer payload) {
+		byte[] bytes = new byte[unsigned(payload)];
+		payload.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Appends the tile with the next id and a delimiter.
+	 * @param payload the payload to read from.
+	 * @param result the builder to append to.
+	 */
+	private static void appendTile(ByteBuffer payload, StringBuilder result)
+			throws NotOfProtocol {
+		appendText(result, readTile(payload));
+		result.append(Protocol.DELIMITER);
+	}
+
+	/**
+	 * Appends the tiles of the next hand, each followed by a delimiter.
+	 * @param payload the payload to read from.
+	 * @param result the builder to append to.
+	 */
+	private static void appendHand(ByteBuffer payload, StringBuilder result)
+			throws NotOfProtocol {
+		for (int tiles = unsigned(payload); tiles > 0; tiles--) {
+			appendTile(payload, result);
+		}
+	}
+
+	/**
+	 * Appends the rotation and the index packed in the next byte.
+	 * @param payload the payload to read from.
+	 * @param result the builder to append to.
+	 */
+	private static void appendPlacement(ByteBuffer payload, StringBuilder result) {
+		int placement = payload.get();
+		result.append(rotation(placement)).append(Protocol.DELIMITER)
+				.append(index(placement));
+	}
+
+	/**
+	 * Appends the turn made message the payload holds.
+	 * @param payload the payload to read from.
+	 * @param result the builder to append to.
+	 */
+	private static void appendTurnMade(ByteBuffer payload, StringBuilder result)
+			throws NotOfProtocol {
+		String kind = String.valueOf((char) unsigned(payload));
+		result.append(Protocol.TURNMADE + Protocol.DELIMITER).append(kind)
+				.append(Protocol.DELIMITER).append(readName(payload))
+				.append(Protocol.DELIMITER);
+		appendHand(payload, result);
+		switch (kind) {
+			case Protocol.MOVESHORT:
+				appendTile(payload, result);
+				appendPlacement(payload, result);
+				break;
+			case Protocol.REPLACESHORT:
+				appendTile(payload, result);
+				break;
+			case Protocol.SKIPSHORT:
+				break;
+			default:
+				throw new NotOfProtocol("Unknown turn: " + kind);
+		}
+	}
+
+	/**
+	 * Appends the protocol form of the given tile.
+	 * @param result the builder to append to.
+	 * @param tile the tile to append.
+	 */
+	private static void appendText(StringBuilder result, Tile tile) {
+		result.append(tile.getColourL()).append(tile.getColourV()).append(tile.getColourR())
+				.append(tile.getValue());
+	}
+}
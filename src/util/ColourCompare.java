@@ -1,16 +1,72 @@
 package util;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import model.Board;
-import model.Field;
 import model.Tile;
 
 /**
  * @author pmbos
  */
 public class ColourCompare {
+	/**
+	 * For every field orientation (up, down) and rotation (0, 1, 2), the side of the 
+	 * tile that faces the left, vertical and right neighbour respectively.
+	 */
+	private static final int[] FACING = {
+		//Fields pointing upwards.
+		Board.LEFT, Board.VERTICAL, Board.RIGHT,
+		Board.VERTICAL, Board.RIGHT, Board.LEFT,
+		Board.RIGHT, Board.LEFT, Board.VERTICAL,
+		//Fields pointing downwards.
+		Board.RIGHT, Board.VERTICAL, Board.LEFT,
+		Board.LEFT, Board.RIGHT, Board.VERTICAL,
+		Board.VERTICAL, Board.LEFT, Board.RIGHT
+	};
+	
+	/**
+	 * Finds the code of the given colour, the codes being the indices of 
+	 * <code>Protocol.COLOURS</code>.
+	 * @param colour the colour to encode.
+	 * @return the code of the colour, 0 for '\u0000'.
+	 * @throws IllegalArgumentException when the colour is not a spectrangle colour.
+	 */
+	//@ensures Protocol.COLOURS[\result] == colour;
+	/*@pure */public static int colourCode(char colour) {
+		int code = findColourCode(colour);
+		if (code < 0) {
+			throw new IllegalArgumentException("Unknown colour: " + colour);
+		}
+		return code;
+	}
+	
+	/**
+	 * Finds the code of the given colour, the codes being the indices of 
+	 * <code>Protocol.COLOURS</code>.
+	 * @param colour the colour to encode.
+	 * @return the code of the colour, 0 for '\u0000' and -1 if it is not a spectrangle colour.
+	 */
+	/*@pure */public static int findColourCode(char colour) {
+		switch (colour) {
+			case '\u0000':
+				return 0;
+			case Protocol.RED:
+				return 1;
+			case Protocol.BLUE:
+				return 2;
+			case Protocol.GREEN:
+				return 3;
+			case Protocol.YELLOW:
+				return 4;
+			case Protocol.PURPLE:
+				return 5;
+			case Protocol.WHITE:
+				return 6;
+			default:
+				return -1;
+		}
+	}
+	
 	/**
 	 * Adds all valid indices to the given list.
 	 * @param tile the tile to check.
@@ -40,6 +96,27 @@ public class ColourCompare {
 		
 	}
 	
+	/**
+	 * Adds the given index to the given list once for every rotation in which the given tile
+	 * can be placed on it, checking against all occupied neighbours of the field.
+	 * @param tile the tile to check.
+	 * @param index the index to check.
+	 * @param board the board to check against.
+	 * @param list the list to add the indices to.
+	 */
+	//@requires tile != null && board != null && board.isValidField(index) && list != null;
+	public static void compare(Tile tile, int index, Board board, List<Integer> list) {
+		if (tile.equals(Protocol.JOKER)) {
+			list.add(index);
+		} else {
+			for (int j = 0; j < 3; j++) {
+				if (checkPermutation(tile, index, board, j)) {
+					list.add(index);
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Checks the permutation identified by the given tile, index and rotation to see
 	 * if it is valid.
@@ -61,168 +138,137 @@ public class ColourCompare {
 	/*@pure */public static boolean checkPermutation(
 				Tile tile, int index, List<Character> neighbours, 
 			Board copy, int rotation) {
-		List<Boolean> list = new ArrayList<>();
-
 		//Checks if the supplied tile is a joker.
 		if (tile.equals(Protocol.JOKER)) {
 			return true;
 		}
-		//Creates a copy of the tile.
-		Tile copyofTile = new Tile(tile.getColourL(), tile.getColourV(), 
-				tile.getColourR(), tile.getValue());
-		//Flips the tile if needed.
-		if (copy.isUp(index) && copyofTile.isFlipped()) {
-			copyofTile.flip();
-		} else if (!copy.isUp(index) && !copyofTile.isFlipped()) {
-			copyofTile.flip();
+		if (!isValidRotation(rotation)) {
+			return neighbours.isEmpty();
 		}
 		
-		for (Character neighbour : neighbours) {
-			Field field = copy.getField(copy.getNeighbour(index, neighbour));
-			switch (neighbour) {
-			//For each neighbour, checks if the adjoining colours match.
-				case 'L':
-					if (rotation == 0) {
-						if (field.getColourR() == copyofTile.getColourL()
-								|| field.getColourR() == Protocol.WHITE) {
-							list.add(true);
-						} else {
-							list.add(false);
-						}
-					} else if (rotation == 1) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourR() == copyofTile.getColourR()
-									|| field.getColourR() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourR() == copyofTile.getColourV()
-									|| field.getColourR() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else if (rotation == 2) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourR() == copyofTile.getColourV()
-									|| field.getColourR() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourR() == copyofTile.getColourR()
-									|| field.getColourR() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else {
-						return false;
-					}
-					
-					break;
-				case 'V':
-					if (rotation == 0) {
-						if (field.getColourV() == copyofTile.getColourV()
-								|| field.getColourV() == Protocol.WHITE) {
-							list.add(true);
-						} else {
-							list.add(false);
-						}
-					} else if (rotation == 1) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourV() == copyofTile.getColourL()
-									|| field.getColourV() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourV() == copyofTile.getColourR()
-									|| field.getColourV() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else if (rotation == 2) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourV() == copyofTile.getColourR()
-									|| field.getColourV() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourV() == copyofTile.getColourL()
-									|| field.getColourV() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else {
-						return false;
-					}
-					break;
-				case 'R':
-					if (rotation == 0) {
-						if (field.getColourL() == copyofTile.getColourR()
-								|| field.getColourL() == Protocol.WHITE) {
-							list.add(true);
-						} else {
-							list.add(false);
-						}
-					} else if (rotation == 1) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourL() == copyofTile.getColourV()
-									|| field.getColourL() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourL() == copyofTile.getColourL()
-									|| field.getColourL() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else if (rotation == 2) {
-						if (copyofTile.isFlipped()) {
-							if (field.getColourL() == copyofTile.getColourL()
-									|| field.getColourL() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						} else {
-							if (field.getColourL() == copyofTile.getColourV()
-									|| field.getColourL() == Protocol.WHITE) {
-								list.add(true);
-							} else {
-								list.add(false);
-							}
-						}
-						
-					} else {
-						return false;
-					}
-					break;
+		int orientation = orientation(copy.isUp(index), rotation);
+		for (int i = 0; i < neighbours.size(); i++) {
+			int direction = direction(neighbours.get(i));
+			if (!matches(tile, index, copy, orientation, direction)) {
+				return false;
 			}
 		}
 		//If all adjoining colours match, returns true.
-		return !list.contains(false);
+		return true;
+	}
+	
+	/**
+	 * Checks the permutation identified by the given tile, index and rotation against
+	 * all occupied neighbours of the field to see if it is valid.
+	 * @param tile the tile to check.
+	 * @param index the index to check.
+	 * @param board the board to check against.
+	 * @param rotation the rotation to check.
+	 * @return true if the permutation is valid, false otherwise.
+	 */
+	/*
+	 * @requires tile != null && board != null && board.isValidField(index);
+	 * @ensures \result == checkPermutation(tile, index, board.edges(index), board, rotation);
+	 */
+	/*@pure */public static boolean checkPermutation(Tile tile, int index, 
+			Board board, int rotation) {
+		if (tile.equals(Protocol.JOKER)) {
+			return true;
+		}
+		if (!isValidRotation(rotation)) {
+			return !board.hasOccupiedNeighbour(index);
+		}
+		
+		int constraints = board.getConstraints(index);
+		int orientation = orientation(board.isUp(index), rotation);
+		for (int direction = Board.LEFT; direction <= Board.RIGHT; direction++) {
+			int required = (constraints >>> (direction << 2)) & 0xF;
+			if (required != Board.ANY_COLOUR 
+					&& required != tile.getColourCode(FACING[orientation + direction])) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Finds which side of a tile faces the given direction when the tile is placed on
+	 * a field with the given orientation and rotation.
+	 * @param up whether the field points upwards.
+	 * @param rotation the rotation of the tile.
+	 * @param direction <code>Board.LEFT</code>, <code>Board.VERTICAL</code> or 
+	 * <code>Board.RIGHT</code>.
+	 * @return the side of the tile, as <code>Board.LEFT</code>, <code>Board.VERTICAL</code> or 
+	 * <code>Board.RIGHT</code>, that faces the given direction.
+	 */
+	//@requires isValidRotation(rotation) && 0 <= direction && direction < 3;
+	/*@pure */public static int facing(boolean up, int rotation, int direction) {
+		return FACING[orientation(up, rotation) + direction];
+	}
+	
+	/**
+	 * Checks whether the tile side facing the given direction matches the
+	 * neighbour in that direction. An absent or empty neighbour always matches.
+	 * @param tile the tile to check.
+	 * @param index the index of the field the tile is placed on.
+	 * @param board the board to check against.
+	 * @param orientation the offset of the orientation in <code>FACING</code>.
+	 * @param direction the direction to check.
+	 * @return true if the colours match or either colour is white, false otherwise.
+	 */
+	/*@pure */private static boolean matches(Tile tile, int index, Board board, 
+			int orientation, int direction) {
+		int neighbour = Board.getAdjacent(index, direction);
+		if (neighbour == Board.NO_NEIGHBOUR || board.isEmpty(neighbour)) {
+			return true;
+		}
+		char adjoining;
+		switch (direction) {
+			case Board.LEFT:
+				adjoining = board.getColourR(neighbour);
+				break;
+			case Board.RIGHT:
+				adjoining = board.getColourL(neighbour);
+				break;
+			default:
+				adjoining = board.getColourV(neighbour);
+				break;
+		}
+		return adjoining == Protocol.WHITE 
+				|| adjoining == tile.getColour(FACING[orientation + direction]);
+	}
+	
+	/**
+	 * @param up whether the field points upwards.
+	 * @param rotation the rotation of the tile.
+	 * @return the offset of the given orientation in <code>FACING</code>.
+	 */
+	/*@pure */private static int orientation(boolean up, int rotation) {
+		return ((up ? 0 : 3) + rotation) * 3;
+	}
+	
+	/**
+	 * @param neighbour 'L', 'V' or 'R'.
+	 * @return the matching <code>Board</code> direction.
+	 */
+	/*@pure */private static int direction(char neighbour) {
+		switch (neighbour) {
+			case 'L':
+				return Board.LEFT;
+			case 'R':
+				return Board.RIGHT;
+			default:
+				return Board.VERTICAL;
+		}
+	}
+	
+	/**
+	 * @param rotation the rotation to check.
+	 * @return true if the rotation is 0, 1 or 2.
+	 */
+	/*@pure */private static boolean isValidRotation(int rotation) {
+		return rotation == Protocol.ROTATION1 
+				|| rotation == Protocol.ROTATION2 
+				|| rotation == Protocol.ROTATION3;
 	}
 }
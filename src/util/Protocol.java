@@ -38,50 +38,14 @@ public class Protocol {
 	public static final char YELLOW = 'Y';
 	public static final char PURPLE = 'P';
 	public static final char WHITE = 'W';
+	public static final char[] COLOURS = {'\u0000', RED, BLUE, GREEN, YELLOW, PURPLE, WHITE};
 	
 	public static final int ROTATION1 = 0;
 	public static final int ROTATION2 = 1;
 	public static final int ROTATION3 = 2;
-	public static final Tile JOKER = new Tile('W', 'W', 'W', 1); 
+	public static final Tile JOKER = Tile.valueOf('W', 'W', 'W', 1); 
 	
 	public static final String ACTIONONTIMEOUT = PLAYERKICKED;
-	public static final Tile[] VALIDTILES = {
-		new Tile('R', 'R', 'R', 6),
-		new Tile('B', 'B', 'B', 6),
-		new Tile('G', 'G', 'G', 6),
-		new Tile('Y', 'Y', 'Y', 6),
-		new Tile('P', 'P', 'P', 6),
-		new Tile('R', 'R', 'Y', 5),
-		new Tile('R', 'R', 'P', 5),
-		new Tile('B', 'B', 'R', 5),
-		new Tile('B', 'B', 'P', 5),
-		new Tile('G', 'G', 'R', 5),
-		new Tile('G', 'G', 'B', 5),
-		new Tile('Y', 'Y', 'G', 5),
-		new Tile('Y', 'Y', 'B', 5),
-		new Tile('P', 'P', 'Y', 5),
-		new Tile('P', 'P', 'G', 5),
-		new Tile('R', 'R', 'B', 4),
-		new Tile('R', 'R', 'G', 4),
-		new Tile('B', 'B', 'G', 4),
-		new Tile('B', 'B', 'Y', 4),
-		new Tile('G', 'G', 'Y', 4),
-		new Tile('G', 'G', 'P', 4),
-		new Tile('Y', 'Y', 'R', 4),
-		new Tile('Y', 'Y', 'P', 4),
-		new Tile('P', 'P', 'R', 4),
-		new Tile('P', 'P', 'B', 4),
-		new Tile('Y', 'B', 'P', 3),
-		new Tile('R', 'G', 'Y', 3),
-		new Tile('B', 'G', 'P', 3),
-		new Tile('G', 'R', 'B', 3),
-		new Tile('B', 'R', 'P', 2),
-		new Tile('Y', 'P', 'R', 2),
-		new Tile('Y', 'P', 'G', 2),
-		new Tile('G', 'R', 'P', 1),
-		new Tile('B', 'Y', 'G', 1),
-		new Tile('R', 'Y', 'B', 1),
-		JOKER
-	};
+	public static final Tile[] VALIDTILES = Tile.getValidTiles();
 	
 }
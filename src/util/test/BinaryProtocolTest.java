@@ -0,0 +1,124 @@
+package util.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+import exceptions.NotOfProtocol;
+import util.BinaryProtocol;
+
+class BinaryProtocolTest {
+
+	/**
+	 * Encodes and decodes the given message.
+	 * @param message the message to send.
+	 * @return the frame the message was sent in.
+	 */
+	private byte[] roundTrip(String message) throws NotOfProtocol {
+		byte[] frame = BinaryProtocol.encode(message);
+		assertEquals(frame.length - BinaryProtocol.HEADER,
+				(frame[0] & 0xFF) << 8 | frame[1] & 0xFF);
+		assertEquals(message, BinaryProtocol.decode(frame, BinaryProtocol.HEADER,
+				frame.length - BinaryProtocol.HEADER));
+		return frame;
+	}
+
+	@Test
+	void testPackedMessages() throws NotOfProtocol {
+		String[] messages = {
+			"JOINGAME,3",
+			"JOINGAME,-1",
+			"GAMESTARTED,|RRR6,BBB6,GGG6,YYY6,Pascal|PPP6,WWW1,RRB4,RYB1,Alina|",
+			"MOVEREQUEST",
+			"MOVE,RRR6,2,35",
+			"TILEREPLACE,WWW1",
+			"SKIP",
+			"TURNMADE,M,Pascal,BBB6,GGG6,YYY6,PPP6,RRR6,1,0",
+			"TURNMADE,M,Pascal,RRR6,0,12",
+			"TURNMADE,R,Alina,PPP6,RRB4,RYB1,RRR6,WWW1,",
+			"TURNMADE,S,Alina,PPP6,RRB4,",
+			"PLAYERKICKED,Alina",
+			"GAMEOVER,Pascal,42,Alina,0,",
+		};
+		for (String message : messages) {
+			byte[] frame = roundTrip(message);
+			assertNotEquals(BinaryProtocol.TEXT, frame[BinaryProtocol.HEADER], message);
+		}
+		//A tile and a packed placement take two bytes after the type.
+		assertEquals(BinaryProtocol.HEADER + 3, BinaryProtocol.encode("MOVE,RRR6,2,35").length);
+	}
+
+	@Test
+	void testTextFallback() throws NotOfProtocol {
+		String[] messages = {
+			"CONNECTACCEPT,B",
+			"MOVE,rrr6,0,0",
+			"MOVE,RRR6,0,64",
+			"MOVE,RRR6, 0,1",
+			"JOINGAME,1000",
+			"PLAYERKICKED,Pas,cal",
+			"",
+			//Messages that would decode into another message are not packed.
+			"MOVE,RRR6,00,1",
+			"MOVE,RRR6,+1,1",
+			"JOINGAME,03",
+			"SKIP,",
+			"MOVEREQUEST,1",
+			"TILEREPLACE,RRR6,",
+			"TURNMADE,R,Alina,PPP6,WWW1",
+			"TURNMADE,S,Alina,PPP6",
+			"GAMEOVER,Pascal,42",
+			"GAMEOVER,Pascal,042,",
+			"GAMESTARTED,x|RRR6,Pascal|",
+			"GAMESTARTED,|RRR6,Pascal",
+		};
+		for (String message : messages) {
+			byte[] frame = roundTrip(message);
+			assertEquals(BinaryProtocol.TEXT, frame[BinaryProtocol.HEADER], message);
+		}
+	}
+
+	@Test
+	void testPlacement() throws NotOfProtocol {
+		byte[] frame = BinaryProtocol.encode("MOVE,RRR6,2,35");
+		int placement = frame[BinaryProtocol.HEADER + 2];
+		assertEquals(2, BinaryProtocol.rotation(placement));
+		assertEquals(35, BinaryProtocol.index(placement));
+		assertTrue(BinaryProtocol.isMove(frame[BinaryProtocol.HEADER]));
+		assertFalse(BinaryProtocol.isMove(BinaryProtocol.MOVEREQUEST));
+		assertSame(BinaryProtocol.tile(frame[BinaryProtocol.HEADER + 1]),
+				BinaryProtocol.tile(0));
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.tile(36));
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.tile((byte) 0xFF));
+	}
+
+	@Test
+	void testStream() throws IOException, NotOfProtocol {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryProtocol.write(out, "MOVEREQUEST");
+		BinaryProtocol.write(out, "TILEREPLACE,RRR6");
+		ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+		assertEquals("MOVEREQUEST", BinaryProtocol.read(in));
+		assertEquals("TILEREPLACE,RRR6", BinaryProtocol.read(in));
+		assertNull(BinaryProtocol.read(in));
+	}
+
+	@Test
+	void testMalformed() {
+		byte[] unknown = {(byte) 0x7F};
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.decode(unknown, 0, 1));
+		byte[] shortMove = {BinaryProtocol.MOVE, 0};
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.decode(shortMove, 0, 2));
+		byte[] badTile = {BinaryProtocol.TILEREPLACE, (byte) 36};
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.decode(badTile, 0, 2));
+		byte[] trailing = {BinaryProtocol.SKIP, 0};
+		assertThrows(NotOfProtocol.class, () -> BinaryProtocol.decode(trailing, 0, 2));
+		byte[] empty = {0, 0};
+		assertThrows(NotOfProtocol.class,
+			() -> BinaryProtocol.read(new ByteArrayInputStream(empty)));
+	}
+}